@@ -0,0 +1,44 @@
+package com.yashir.knowledgehub.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Executor configuration for asynchronous MVC requests
+ * Streamed responses (answer and ingestion job events) are written on this bounded pool; without it
+ * Spring MVC falls back to SimpleAsyncTaskExecutor, which starts a new thread for every write, because
+ * the application's own ThreadPoolTaskExecutor beans replace Boot's default applicationTaskExecutor
+ */
+@Configuration
+public class AsyncWebConfig implements WebMvcConfigurer {
+
+    @Value("${web.async.threads:16}")
+    private int threads;
+
+    @Value("${web.async.queue-capacity:1000}")
+    private int queueCapacity;
+
+    /**
+     * Configures the executor writing asynchronous responses
+     * Writes that arrive while all threads are busy and the queue is full fail their stream (TaskRejectedException)
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor());
+    }
+}
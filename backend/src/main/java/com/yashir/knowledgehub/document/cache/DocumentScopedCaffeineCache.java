@@ -0,0 +1,131 @@
+package com.yashir.knowledgehub.document.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yashir.knowledgehub.document.util.QuestionNormalizer;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caffeine-backed Spring cache with a secondary index from document ID to cache keys
+ * Lets a single document's Q&A entries be evicted in O(entries for that document)
+ * instead of clearing the whole cache
+ *
+ * Keys are added to the index before the value is written, and removed synchronously by
+ * Caffeine's eviction listener when an entry expires or is evicted for size, so the index
+ * always covers every live key of a document
+ */
+public class DocumentScopedCaffeineCache extends CaffeineCache {
+
+    private final Map<Long, Set<Object>> keysByDocument;
+
+    private DocumentScopedCaffeineCache(String name, Cache<Object, Object> cache, Map<Long, Set<Object>> keysByDocument) {
+        super(name, cache, false);
+        this.keysByDocument = keysByDocument;
+    }
+
+    /**
+     * Builds the cache, installing the eviction listener that keeps the document index in sync
+     * @param name the cache name
+     * @param builder the configured Caffeine builder (size, TTL, stats)
+     * @return the document-scoped cache
+     */
+    public static DocumentScopedCaffeineCache create(String name, Caffeine<Object, Object> builder) {
+        Map<Long, Set<Object>> keysByDocument = new ConcurrentHashMap<>();
+        Cache<Object, Object> cache = builder
+                .evictionListener((key, value, cause) -> unindex(keysByDocument, key))
+                .build();
+        return new DocumentScopedCaffeineCache(name, cache, keysByDocument);
+    }
+
+    /**
+     * Evicts all cached entries of a document
+     * @param documentId the document ID
+     */
+    public void evictDocument(Long documentId) {
+        Set<Object> keys = keysByDocument.remove(documentId);
+        if (keys != null) {
+            getNativeCache().invalidateAll(keys);
+        }
+    }
+
+    /**
+     * Counts the cached entries of a document
+     * @param documentId the document ID
+     * @return the number of indexed keys for the document
+     */
+    public int countDocumentEntries(Long documentId) {
+        return keysByDocument.getOrDefault(documentId, Collections.emptySet()).size();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        index(key);
+        super.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        index(key);
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        index(key);
+        return super.get(key, valueLoader);
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        unindex(keysByDocument, key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = super.evictIfPresent(key);
+        unindex(keysByDocument, key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        keysByDocument.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = super.invalidate();
+        keysByDocument.clear();
+        return notEmpty;
+    }
+
+    private void index(Object key) {
+        Long documentId = QuestionNormalizer.extractDocumentId(key);
+        if (documentId != null) {
+            keysByDocument.compute(documentId, (id, keys) -> {
+                Set<Object> documentKeys = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                documentKeys.add(key);
+                return documentKeys;
+            });
+        }
+    }
+
+    private static void unindex(Map<Long, Set<Object>> keysByDocument, Object key) {
+        Long documentId = QuestionNormalizer.extractDocumentId(key);
+        if (documentId == null) {
+            return;
+        }
+        keysByDocument.computeIfPresent(documentId, (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+}
@@ -0,0 +1,443 @@
+package com.yashir.knowledgehub.document.cache;
+
+import com.yashir.knowledgehub.document.dto.QuestionResponse;
+import com.yashir.knowledgehub.document.model.DocumentType;
+import com.yashir.knowledgehub.document.util.QuestionNormalizer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk-backed Q&A cache tier behind the in-heap Caffeine cache, kept across restarts
+ * Answers are keyed by the SHA-256 of the document content, the document type and the normalized question, since
+ * document IDs are not stable across restarts but re-uploading the same file yields the same content hash
+ * The type is part of the key because the prompt carries type-specific instructions; the document name is not,
+ * as it only labels the context, so a renamed re-upload of the same file reuses its answers
+ *
+ * Storage is an append-only log file: answers are appended by a background writer (write-behind), and a
+ * document's answers are removed by appending a tombstone for its content hash. Only an index of
+ * key -> (file offset, write time) is held in memory; answers are read from disk on an L1 miss.
+ * The index is built on first use by replaying the log, which is then compacted if it is mostly
+ * expired or removed entries. A torn record at the end of the log (crash during a write) is cut off
+ *
+ * An answer computed while its content is evicted must not be written after the tombstone: callers take
+ * currentGeneration() before reading the document and pass it to put(), and the writer drops answers
+ * older than the last eviction of their content hash
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PersistentQACache {
+
+    private static final byte PUT_RECORD = 1;
+    private static final byte REMOVE_RECORD = 2;
+
+    private static final String ANSWER_KEY_SEPARATOR = ":";
+
+    // Type, write time and three length prefixes of an answer record
+    private static final int RECORD_OVERHEAD_BYTES = 1 + 8 + 3 * 4;
+
+    // Compact on load when live answers are less than this share of the log and the log is larger than the minimum
+    private static final double COMPACTION_LIVE_RATIO = 0.5;
+    private static final long COMPACTION_MIN_BYTES = 1024 * 1024;
+
+    private final ThreadPoolTaskExecutor qaCacheWriteExecutor;
+
+    @Value("${qa.persistent-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${qa.persistent-cache.path:data/qa-cache/answers.log}")
+    private String logPath;
+
+    @Value("${qa.persistent-cache.ttl:7d}")
+    private Duration ttl;
+
+    // contentHash -> document type and normalized question -> location of the latest answer in the log
+    private final Map<String, Map<String, Entry>> index = new ConcurrentHashMap<>();
+
+    // contentHash -> generation of its last eviction; answers computed from an older generation are dropped
+    private final Map<String, Long> evictionGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Queue<Record> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    private volatile boolean loaded;
+
+    /**
+     * Gets the current eviction generation, to be taken before the document an answer is computed from is read
+     * @return the generation
+     */
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Looks up the persisted answer of a question about a document's content
+     * @param contentHash the SHA-256 of the document content
+     * @param type the document type
+     * @param question the question
+     * @return the answer if one was persisted and has not expired
+     */
+    public Optional<QuestionResponse> lookup(String contentHash, DocumentType type, String question) {
+        if (!enabled || contentHash == null) {
+            return Optional.empty();
+        }
+        ensureLoaded();
+
+        Map<String, Entry> answers = index.get(contentHash);
+        Entry entry = answers != null ? answers.get(answerKey(type, question)) : null;
+        if (entry == null || isExpired(entry.writtenAt)) {
+            return Optional.empty();
+        }
+
+        try (FileChannel channel = FileChannel.open(getLogFile(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(entry.answerLength);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, entry.answerOffset + buffer.position()) < 0) {
+                    throw new EOFException("Answer extends past the end of the log");
+                }
+            }
+            return Optional.of(new QuestionResponse(new String(buffer.array(), StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            log.warn("Failed to read persisted answer for {}: {}", contentHash, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Persists the answer of a question about a document's content
+     * The write happens in the background; the answer becomes visible to lookup() once it is on disk
+     * It is dropped if the content was evicted after the given generation was taken
+     * @param contentHash the SHA-256 of the document content
+     * @param type the document type
+     * @param question the question
+     * @param response the answer
+     * @param computedAtGeneration the generation taken before the document was read
+     */
+    public void put(String contentHash, DocumentType type, String question, QuestionResponse response,
+                    long computedAtGeneration) {
+        if (!enabled || contentHash == null || response == null || response.getAnswer() == null) {
+            return;
+        }
+        enqueue(new Record(PUT_RECORD, System.currentTimeMillis(), contentHash, answerKey(type, question),
+                response.getAnswer(), computedAtGeneration));
+    }
+
+    /**
+     * Removes all persisted answers about a document's content, including answers still being computed
+     * @param contentHash the SHA-256 of the document content
+     */
+    public void evictContent(String contentHash) {
+        if (!enabled || contentHash == null) {
+            return;
+        }
+        evictionGenerations.put(contentHash, generation.incrementAndGet());
+        index.remove(contentHash);
+        enqueue(new Record(REMOVE_RECORD, System.currentTimeMillis(), contentHash, null, null, 0));
+    }
+
+    private String answerKey(DocumentType type, String question) {
+        return type + ANSWER_KEY_SEPARATOR + QuestionNormalizer.normalize(question);
+    }
+
+    private boolean isStale(Record record) {
+        Long evictedAt = evictionGenerations.get(record.contentHash);
+        return record.type == PUT_RECORD && evictedAt != null && record.computedAtGeneration < evictedAt;
+    }
+
+    private void enqueue(Record record) {
+        pendingWrites.add(record);
+        if (writeScheduled.compareAndSet(false, true)) {
+            try {
+                qaCacheWriteExecutor.execute(this::writePending);
+            } catch (TaskRejectedException e) {
+                // Shutting down - the records are written by the next scheduled write, if any
+                writeScheduled.set(false);
+                log.warn("Persistent Q&A cache writer rejected a write: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Appends all pending records to the log in one write and indexes the answers
+     * Runs on the single writer thread, so appends never interleave
+     */
+    private void writePending() {
+        writeScheduled.set(false);
+        ensureLoaded();
+        List<Record> records = new ArrayList<>();
+        Record record;
+        while ((record = pendingWrites.poll()) != null) {
+            if (isStale(record)) {
+                log.debug("Dropping answer for evicted content {}", record.contentHash);
+                continue;
+            }
+            records.add(record);
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(getLogFile().getParent());
+            try (FileChannel channel = FileChannel.open(getLogFile(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                long position = channel.size();
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream output = new DataOutputStream(bytes);
+                List<Long> answerOffsets = new ArrayList<>();
+                for (Record pending : records) {
+                    answerOffsets.add(position + writeRecord(output, pending));
+                }
+                output.flush();
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                for (int i = 0; i < records.size(); i++) {
+                    apply(records.get(i), answerOffsets.get(i));
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to persist {} Q&A cache records: {}", records.size(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes one record
+     * @param output the output; its size() is the offset relative to where the output starts in the log
+     * @param record the record
+     * @return the offset of the answer bytes relative to where the output starts (the record end for tombstones)
+     * @throws IOException if writing fails
+     */
+    private long writeRecord(DataOutputStream output, Record record) throws IOException {
+        output.writeByte(record.type);
+        output.writeLong(record.writtenAt);
+        writeString(output, record.contentHash);
+        if (record.type == PUT_RECORD) {
+            writeString(output, record.question);
+            byte[] answer = record.answer.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(answer.length);
+            long answerOffset = output.size();
+            output.write(answer);
+            return answerOffset;
+        }
+        return output.size();
+    }
+
+    private void apply(Record record, long answerOffset) {
+        if (record.type == REMOVE_RECORD) {
+            index.remove(record.contentHash);
+        } else if (!isStale(record)) {
+            // An eviction since the staleness check above is followed by its tombstone in the log
+            int answerLength = record.answer.getBytes(StandardCharsets.UTF_8).length;
+            index.computeIfAbsent(record.contentHash, hash -> new ConcurrentHashMap<>())
+                    .put(record.question, new Entry(answerOffset, answerLength, record.writtenAt));
+        }
+    }
+
+    /**
+     * Builds the index from the log on first use
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            try {
+                load();
+            } catch (IOException e) {
+                log.error("Failed to load persistent Q&A cache {}: {}", getLogFile(), e.getMessage(), e);
+            }
+            loaded = true;
+        }
+    }
+
+    private void load() throws IOException {
+        Path logFile = getLogFile();
+        if (!Files.exists(logFile)) {
+            return;
+        }
+
+        long position = 0;
+        try (InputStream file = Files.newInputStream(logFile);
+             DataInputStream input = new DataInputStream(new BufferedInputStream(file))) {
+            while (true) {
+                long recordStart = position;
+                try {
+                    byte type = input.readByte();
+                    long writtenAt = input.readLong();
+                    String contentHash = readString(input);
+                    position += 1 + 8 + 4 + utf8Length(contentHash);
+                    if (type == REMOVE_RECORD) {
+                        index.remove(contentHash);
+                    } else if (type == PUT_RECORD) {
+                        String question = readString(input);
+                        int answerLength = input.readInt();
+                        position += 4 + utf8Length(question) + 4;
+                        input.readFully(new byte[answerLength]);
+                        if (!isExpired(writtenAt)) {
+                            index.computeIfAbsent(contentHash, hash -> new ConcurrentHashMap<>())
+                                    .put(question, new Entry(position, answerLength, writtenAt));
+                        }
+                        position += answerLength;
+                    } else {
+                        throw new IOException("Unknown record type " + type + " at offset " + recordStart);
+                    }
+                } catch (EOFException e) {
+                    if (recordStart < Files.size(logFile)) {
+                        log.warn("Truncating torn record at offset {} of {}", recordStart, logFile);
+                        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                            channel.truncate(recordStart);
+                        }
+                    }
+                    position = recordStart;
+                    break;
+                }
+            }
+        }
+
+        int entries = index.values().stream().mapToInt(Map::size).sum();
+        long liveBytes = index.entrySet().stream()
+                .flatMap(document -> document.getValue().entrySet().stream()
+                        .map(answer -> (long) RECORD_OVERHEAD_BYTES + utf8Length(document.getKey())
+                                + utf8Length(answer.getKey()) + answer.getValue().answerLength))
+                .mapToLong(Long::longValue)
+                .sum();
+        log.info("Loaded {} persisted Q&A answers for {} documents from {}", entries, index.size(), logFile);
+        if (position > COMPACTION_MIN_BYTES && liveBytes < position * COMPACTION_LIVE_RATIO) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the log with only the indexed answers, dropping expired, replaced and removed ones
+     * Called while loading, before any other reader or writer uses the log
+     */
+    private void compact() throws IOException {
+        Path logFile = getLogFile();
+        Path compactedFile = logFile.resolveSibling(logFile.getFileName() + ".compact");
+        Map<String, Map<String, Entry>> compactedIndex = new ConcurrentHashMap<>();
+        try (FileChannel source = FileChannel.open(logFile, StandardOpenOption.READ);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(compactedFile)))) {
+            for (Map.Entry<String, Map<String, Entry>> document : index.entrySet()) {
+                for (Map.Entry<String, Entry> answer : document.getValue().entrySet()) {
+                    Entry entry = answer.getValue();
+                    ByteBuffer buffer = ByteBuffer.allocate(entry.answerLength);
+                    while (buffer.hasRemaining()) {
+                        if (source.read(buffer, entry.answerOffset + buffer.position()) < 0) {
+                            throw new EOFException("Answer extends past the end of the log");
+                        }
+                    }
+                    Record record = new Record(PUT_RECORD, entry.writtenAt, document.getKey(), answer.getKey(),
+                            new String(buffer.array(), StandardCharsets.UTF_8), 0);
+                    long answerOffset = writeRecord(output, record);
+                    compactedIndex.computeIfAbsent(document.getKey(), hash -> new ConcurrentHashMap<>())
+                            .put(answer.getKey(), new Entry(answerOffset, entry.answerLength, entry.writtenAt));
+                }
+            }
+        }
+
+        long before = Files.size(logFile);
+        Files.move(compactedFile, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index.clear();
+        index.putAll(compactedIndex);
+        log.info("Compacted persistent Q&A cache from {} to {} bytes", before, Files.size(logFile));
+    }
+
+    private boolean isExpired(long writtenAt) {
+        return System.currentTimeMillis() - writtenAt > ttl.toMillis();
+    }
+
+    private Path getLogFile() {
+        return Paths.get(logPath).toAbsolutePath().normalize();
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Location of a persisted answer in the log
+     */
+    private static class Entry {
+        private final long answerOffset;
+        private final int answerLength;
+        private final long writtenAt;
+
+        private Entry(long answerOffset, int answerLength, long writtenAt) {
+            this.answerOffset = answerOffset;
+            this.answerLength = answerLength;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    /**
+     * A log record waiting to be written: an answer, or a tombstone removing all answers of a content hash
+     */
+    private static class Record {
+        private final byte type;
+        private final long writtenAt;
+        private final String contentHash;
+        private final String question;
+        private final String answer;
+        private final long computedAtGeneration;  // Not written to the log
+
+        private Record(byte type, long writtenAt, String contentHash, String question, String answer,
+                       long computedAtGeneration) {
+            this.type = type;
+            this.writtenAt = writtenAt;
+            this.contentHash = contentHash;
+            this.question = question;
+            this.answer = answer;
+            this.computedAtGeneration = computedAtGeneration;
+        }
+    }
+}
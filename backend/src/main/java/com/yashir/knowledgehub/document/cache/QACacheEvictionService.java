@@ -0,0 +1,58 @@
+package com.yashir.knowledgehub.document.cache;
+
+import com.yashir.knowledgehub.document.model.Document;
+import com.yashir.knowledgehub.document.repository.DocumentRepository;
+import com.yashir.knowledgehub.llm.service.prompt.PromptBudgeter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service for evicting the cached Q&A answers of a single document
+ * Used when a document is deleted (or replaced) so other documents keep their cached answers
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class QACacheEvictionService {
+
+    private final DocumentScopedCaffeineCache qaCache;
+    private final SemanticQACache semanticQACache;
+    private final PersistentQACache persistentQACache;
+    private final DocumentRepository documentRepository;
+    private final PromptBudgeter promptBudgeter;
+
+    /**
+     * Evicts all cache tiers for a document, and the token counts cached for its prompts
+     * Persisted answers are keyed by content and shared with duplicate uploads, so they are only
+     * removed with the last document of that content; inside a transaction that happens after the commit,
+     * so an answer computed from the document while it is still readable is dropped rather than persisted
+     * @param document the document, before it is deleted
+     */
+    public void evictDocument(Document document) {
+        Long documentId = document.getId();
+        int entries = qaCache.countDocumentEntries(documentId);
+        qaCache.evictDocument(documentId);
+        semanticQACache.evictDocument(documentId);
+        promptBudgeter.evictDocument(documentId);
+        if (document.getContentHash() != null && documentRepository.countByContentHash(document.getContentHash()) <= 1) {
+            evictContentAfterCommit(document.getContentHash());
+        }
+        log.debug("Evicted {} cached Q&A entries for document {}", entries, documentId);
+    }
+
+    private void evictContentAfterCommit(String contentHash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            persistentQACache.evictContent(contentHash);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                persistentQACache.evictContent(contentHash);
+            }
+        });
+    }
+}
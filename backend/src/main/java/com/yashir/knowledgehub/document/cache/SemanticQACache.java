@@ -0,0 +1,284 @@
+package com.yashir.knowledgehub.document.cache;
+
+import com.yashir.knowledgehub.document.dto.QuestionResponse;
+import com.yashir.knowledgehub.document.dto.SemanticCacheStatsResponse;
+import com.yashir.knowledgehub.document.util.QuestionNormalizer;
+import com.yashir.knowledgehub.llm.service.EmbeddingServiceInterface;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Second Q&A cache tier that matches paraphrased questions
+ * Sits behind the exact-key Caffeine cache (CacheConfig.QA_CACHE_NAME): it is consulted only when
+ * the normalized key misses. Each question is stored with a compact embedding signature in a
+ * per-document index, and a lookup returns the cached answer of the most similar earlier question
+ * when the cosine similarity reaches the configured threshold
+ * Similar wording is not enough: a cached question only matches if it has the same numbers, single-letter
+ * identifiers and negation ("section 3" vs "section 4", "plan A" vs "plan B", "allowed" vs "not allowed"),
+ * which the similarity of the signatures alone does not tell apart
+ * The threshold is checked against paraphrases and near misses by SemanticQACacheEvaluationTest
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SemanticQACache {
+
+    private static final int HISTOGRAM_BUCKETS = 10;
+
+    private static final String NEGATED = "<not>";
+
+    // Negation words, with the apostrophe of contractions removed
+    private static final Set<String> NEGATION_WORDS = Set.of(
+            "no", "not", "non", "never", "none", "nothing", "nobody", "neither", "nor", "without", "cannot",
+            "cant", "dont", "doesnt", "didnt", "isnt", "arent", "wasnt", "werent", "wont", "wouldnt",
+            "shouldnt", "couldnt", "hasnt", "havent", "hadnt", "mustnt", "neednt"
+    );
+
+    // Single letters that are words rather than identifiers
+    private static final Set<String> SINGLE_LETTER_WORDS = Set.of("a", "i");
+
+    // Words that only rephrase the question ("Is overtime being paid?", "Describe the dress code"),
+    // left out of the signature on top of QuestionNormalizer's stop words
+    private static final Set<String> FILLER_WORDS = Set.of("being", "whats", "describe", "explain", "able");
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private final EmbeddingServiceInterface embeddingService;
+
+    // documentId -> cached questions of that document, oldest first
+    private final Map<Long, Deque<Entry>> entriesByDocument = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // Distribution of the best similarity seen per lookup, in buckets of 0.1
+    private final AtomicLongArray similarityHistogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+    @Value("${qa.semantic-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${qa.semantic-cache.threshold:0.85}")
+    private double threshold;
+
+    @Value("${qa.semantic-cache.max-entries-per-document:200}")
+    private int maxEntriesPerDocument;
+
+    @Value("${qa.semantic-cache.ttl:24h}")
+    private Duration ttl;
+
+    /**
+     * Looks up the answer of the most similar cached question for a document
+     * @param documentId the document ID
+     * @param question the question
+     * @return the cached response if a question above the similarity threshold exists
+     */
+    public Optional<QuestionResponse> lookup(Long documentId, String question) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Deque<Entry> entries = entriesByDocument.get(documentId);
+        if (entries == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        float[] signature = signatureOf(question);
+        Set<String> exactTerms = exactTermsOf(question);
+        long now = System.currentTimeMillis();
+        Entry best = null;
+        float bestSimilarity = -1;
+
+        synchronized (entries) {
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (now - entry.createdAt > ttl.toMillis()) {
+                    iterator.remove();
+                    continue;
+                }
+                if (!entry.exactTerms.equals(exactTerms)) {
+                    continue;
+                }
+                float similarity = dot(signature, entry.signature);
+                if (similarity > bestSimilarity) {
+                    bestSimilarity = similarity;
+                    best = entry;
+                }
+            }
+        }
+
+        if (best == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        recordSimilarity(bestSimilarity);
+        if (bestSimilarity >= threshold) {
+            hits.incrementAndGet();
+            log.debug("Semantic cache hit for document {} (similarity {}): '{}' matched '{}'",
+                    documentId, bestSimilarity, question, best.question);
+            return Optional.of(best.response);
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Stores an answer for a question, evicting the oldest entry of the document when full
+     * @param documentId the document ID
+     * @param question the question
+     * @param response the answer response
+     */
+    public void put(Long documentId, String question, QuestionResponse response) {
+        if (!enabled) {
+            return;
+        }
+
+        Entry entry = new Entry(question, signatureOf(question), exactTermsOf(question), response, System.currentTimeMillis());
+        Deque<Entry> entries = entriesByDocument.computeIfAbsent(documentId, id -> new ArrayDeque<>());
+        synchronized (entries) {
+            entries.addLast(entry);
+            while (entries.size() > maxEntriesPerDocument) {
+                entries.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached questions of a document
+     * @param documentId the document ID
+     */
+    public void evictDocument(Long documentId) {
+        entriesByDocument.remove(documentId);
+    }
+
+    /**
+     * Gets hit/miss counts and the similarity distribution for threshold tuning
+     * @return the cache statistics
+     */
+    public SemanticCacheStatsResponse getStats() {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < HISTOGRAM_BUCKETS; bucket++) {
+            String label = String.format("%.1f-%.1f", bucket / 10.0, (bucket + 1) / 10.0);
+            histogram.put(label, similarityHistogram.get(bucket));
+        }
+
+        int entryCount = 0;
+        for (Deque<Entry> entries : entriesByDocument.values()) {
+            synchronized (entries) {
+                entryCount += entries.size();
+            }
+        }
+        return new SemanticCacheStatsResponse(hits.get(), misses.get(), threshold, entryCount, histogram);
+    }
+
+    /**
+     * Embeds the stems of a question's content words, so inflections ("refunds", "approving") and
+     * filler words do not lower the similarity of paraphrases
+     * @param question the question
+     * @return the signature
+     */
+    private float[] signatureOf(String question) {
+        StringBuilder stems = new StringBuilder();
+        for (String word : QuestionNormalizer.normalize(question).split(" ")) {
+            if (!FILLER_WORDS.contains(word)) {
+                stems.append(stem(word)).append(' ');
+            }
+        }
+        return embeddingService.embed(stems.toString().trim());
+    }
+
+    /**
+     * Strips common English inflection suffixes from a word, e.g. "policies" and "policy" both become "polic"
+     * Words with digits are kept as they are
+     * @param word the lowercase word
+     * @return the stem
+     */
+    private String stem(String word) {
+        if (word.length() <= MIN_STEM_LENGTH || word.chars().anyMatch(Character::isDigit)) {
+            return word;
+        }
+        String stem = word;
+        if (stem.endsWith("ies")) {
+            stem = stem.substring(0, stem.length() - 3) + "y";
+        } else if (stem.endsWith("ing") && stem.length() > MIN_STEM_LENGTH + 2) {
+            stem = stem.substring(0, stem.length() - 3);
+        } else if (stem.endsWith("ed") && stem.length() > MIN_STEM_LENGTH + 1) {
+            stem = stem.substring(0, stem.length() - 2);
+        } else if (stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        if ((stem.endsWith("e") || stem.endsWith("y")) && stem.length() > MIN_STEM_LENGTH) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    /**
+     * Gets the terms two questions must share for a semantic match: numbers, single-letter identifiers
+     * and whether the question is negated
+     * @param question the question
+     * @return the exact-match terms
+     */
+    private Set<String> exactTermsOf(String question) {
+        Set<String> terms = new HashSet<>();
+        String text = question.toLowerCase(Locale.ROOT)
+                .replaceAll("['\u2019]", "")
+                .replaceAll("(?<=\\d),(?=\\d)", "");
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (NEGATION_WORDS.contains(word)) {
+                terms.add(NEGATED);
+            } else if (word.chars().anyMatch(Character::isDigit)
+                    || (word.length() == 1 && !SINGLE_LETTER_WORDS.contains(word))) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    private void recordSimilarity(float similarity) {
+        int bucket = (int) Math.floor(Math.max(0, similarity) * HISTOGRAM_BUCKETS);
+        similarityHistogram.incrementAndGet(Math.min(bucket, HISTOGRAM_BUCKETS - 1));
+    }
+
+    private float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static final class Entry {
+        private final String question;
+        private final float[] signature;
+        private final Set<String> exactTerms;
+        private final QuestionResponse response;
+        private final long createdAt;
+
+        private Entry(String question, float[] signature, Set<String> exactTerms, QuestionResponse response, long createdAt) {
+            this.question = question;
+            this.signature = signature;
+            this.exactTerms = exactTerms;
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.yashir.knowledgehub.document.cache;
+
+import com.yashir.knowledgehub.document.dto.InFlightStatsResponse;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key into one
+ * The first caller for a key (the leader) computes the value on its own thread; callers arriving
+ * while it runs wait for and share its result or exception instead of computing again
+ * Only in-flight computations are tracked - finished results must be cached by the loader itself,
+ * before it returns, so no caller arriving afterwards misses both the cache and the in-flight entry
+ * Computations that do not run on the caller's thread (e.g. streams) are registered with start and
+ * ended with complete, fail or abandon; an abandoned computation is taken over by the callers waiting for it
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Computes the value of a key, or waits for the computation already in flight for it
+     * @param key the key
+     * @param loader computes the value; runs only on the leader's thread
+     * @return the value
+     * @throws RuntimeException the exception thrown by the leader's loader
+     */
+    public V execute(K key, Supplier<V> loader) {
+        while (true) {
+            Flight<V> flight = start(key);
+            if (flight.leader()) {
+                try {
+                    V value = loader.get();
+                    complete(key, flight, value);
+                    return value;
+                } catch (RuntimeException | Error e) {
+                    fail(key, flight, e);
+                    throw e;
+                }
+            }
+            try {
+                return await(flight.result());
+            } catch (CancellationException e) {
+                // The leader abandoned the computation - compute it again
+            }
+        }
+    }
+
+    /**
+     * Starts the computation of a key whose leader completes it itself, or joins the one already in flight
+     * A leader must end the computation with complete, fail or abandon; a joined computation counts as a coalesced call
+     * @param key the key
+     * @return the computation, and whether the caller is its leader
+     */
+    public Flight<V> start(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return new Flight<>(existing, false);
+        }
+        leaders.incrementAndGet();
+        return new Flight<>(future, true);
+    }
+
+    /**
+     * Ends a started computation with its value
+     * The value must already be cached, since the computation stops being in flight here
+     * @param key the key
+     * @param flight the computation, as returned by start to its leader
+     * @param value the value
+     */
+    public void complete(K key, Flight<V> flight, V value) {
+        flight.result().complete(value);
+        inFlight.remove(key, flight.result());
+    }
+
+    /**
+     * Ends a started computation with an exception, which the callers waiting for it get as well
+     * @param key the key
+     * @param flight the computation, as returned by start to its leader
+     * @param error the exception
+     */
+    public void fail(K key, Flight<V> flight, Throwable error) {
+        flight.result().completeExceptionally(error);
+        inFlight.remove(key, flight.result());
+    }
+
+    /**
+     * Ends a started computation without a result, e.g. when its stream is cancelled
+     * Callers waiting for it get a CancellationException; those waiting in execute compute the value again
+     * @param key the key
+     * @param flight the computation, as returned by start to its leader
+     */
+    public void abandon(K key, Flight<V> flight) {
+        inFlight.remove(key, flight.result());
+        flight.result().cancel(false);
+    }
+
+    /**
+     * Joins the computation in flight for a key, if there is one
+     * A returned computation counts as a coalesced call
+     * @param key the key
+     * @return the pending result, or empty if no computation is in flight
+     */
+    public Optional<CompletableFuture<V>> join(K key) {
+        CompletableFuture<V> existing = inFlight.get(key);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+        }
+        return Optional.ofNullable(existing);
+    }
+
+    /**
+     * Gets the number of computations, coalesced calls and computations in flight
+     * @return the statistics
+     */
+    public InFlightStatsResponse getStats() {
+        return new InFlightStatsResponse(leaders.get(), coalesced.get(), inFlight.size());
+    }
+
+    /**
+     * A computation in flight for a key
+     * @param result completes with the computation's value or exception
+     * @param leader whether the caller started the computation and must end it
+     * @param <V> the value type
+     */
+    public record Flight<V>(CompletableFuture<V> result, boolean leader) {
+    }
+
+    private V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Rethrow the leader's exception itself so callers see the same error type
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
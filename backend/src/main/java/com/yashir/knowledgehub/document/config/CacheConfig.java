@@ -1,17 +1,27 @@
 package com.yashir.knowledgehub.document.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yashir.knowledgehub.document.cache.DocumentScopedCaffeineCache;
+import com.yashir.knowledgehub.document.cache.SemanticQACache;
+import com.yashir.knowledgehub.document.cache.SingleFlight;
+import com.yashir.knowledgehub.document.dto.QuestionResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Cache configuration for Q&A service
- * Uses Caffeine for in-memory caching with TTL
+ * Uses Caffeine for in-memory caching with TTL, backed by a disk tier (PersistentQACache) that survives restarts
+ * Caffeine statistics of the Q&A cache are published by Spring Boot as cache.* metrics (tag cache=qaCache)
  */
 @Configuration
 @EnableCaching
@@ -20,21 +30,82 @@ public class CacheConfig {
     public static final String QA_CACHE_NAME = "qaCache";
 
     /**
-     * Configures Caffeine cache manager for Q&A responses
+     * Configures the Caffeine-backed Q&A cache, indexed by document ID
      * Cache settings:
      * - Maximum 1000 entries
      * - TTL: 24 hours
      * - Eviction policy: Time-based expiration
+     * - Per-document eviction via a secondary documentId -> keys index
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(QA_CACHE_NAME);
-        cacheManager.setCaffeine(Caffeine.newBuilder()
+    public DocumentScopedCaffeineCache qaCache() {
+        return DocumentScopedCaffeineCache.create(QA_CACHE_NAME, Caffeine.newBuilder()
                 .maximumSize(1000) // Maximum 1000 cached Q&A pairs
                 .expireAfterWrite(24, TimeUnit.HOURS) // Cache expires after 24 hours
                 .recordStats() // Enable cache statistics
         );
+    }
+
+    /**
+     * Configures coalescing of concurrent Q&A cache misses with the same cache key
+     * so they share one context extraction and LLM call
+     */
+    @Bean
+    public SingleFlight<String, QuestionResponse> qaSingleFlight() {
+        return new SingleFlight<>();
+    }
+
+    /**
+     * Publishes the counters of the Q&A tiers that are not Spring caches:
+     * coalesced concurrent misses (qa.single-flight.*) and paraphrase lookups (qa.semantic-cache.*)
+     */
+    @Bean
+    public MeterBinder qaCacheMetrics(SingleFlight<String, QuestionResponse> qaSingleFlight,
+                                      SemanticQACache semanticQACache) {
+        return registry -> {
+            FunctionCounter.builder("qa.single-flight.calls", qaSingleFlight, flight -> flight.getStats().getCalls())
+                    .description("Answers computed by a leading request")
+                    .register(registry);
+            FunctionCounter.builder("qa.single-flight.coalesced", qaSingleFlight, flight -> flight.getStats().getCoalesced())
+                    .description("Requests that waited for an identical answer already in flight")
+                    .register(registry);
+            Gauge.builder("qa.single-flight.in-flight", qaSingleFlight, flight -> flight.getStats().getInFlight())
+                    .description("Answers currently being computed")
+                    .register(registry);
+            FunctionCounter.builder("qa.semantic-cache.requests", semanticQACache, cache -> cache.getStats().getHits())
+                    .description("Semantic cache lookups")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("qa.semantic-cache.requests", semanticQACache, cache -> cache.getStats().getMisses())
+                    .description("Semantic cache lookups")
+                    .tag("result", "miss")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Configures the write-behind thread of the persistent Q&A cache
+     * One thread, so log appends never interleave; pending writes are flushed on shutdown
+     */
+    @Bean
+    public ThreadPoolTaskExecutor qaCacheWriteExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("qa-cache-writer-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Configures the cache manager exposing the Q&A cache to Spring's caching annotations
+     */
+    @Bean
+    public CacheManager cacheManager(DocumentScopedCaffeineCache qaCache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(qaCache));
         return cacheManager;
     }
 }
-
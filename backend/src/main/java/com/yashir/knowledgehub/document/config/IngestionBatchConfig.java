@@ -0,0 +1,48 @@
+package com.yashir.knowledgehub.document.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduler configuration for the ingestion batch collectors
+ * The threads of a scheduler close batch windows and process the batches, so their number bounds the batched
+ * LLM requests (classification) or database writes (document persistence) in flight
+ * Each collector has its own scheduler, so batches waiting on the LLM do not hold up the inserts
+ */
+@Configuration
+public class IngestionBatchConfig {
+
+    @Value("${ingestion.batch.threads:4}")
+    private int threads;
+
+    @Value("${ingestion.persist.threads:2}")
+    private int persistThreads;
+
+    /**
+     * Configures the scheduler of the classification batches
+     */
+    @Bean
+    public ThreadPoolTaskScheduler ingestionBatchScheduler() {
+        return createScheduler(threads, "ingestion-batch-");
+    }
+
+    /**
+     * Configures the scheduler of the document insert batches
+     */
+    @Bean
+    public ThreadPoolTaskScheduler documentBatchScheduler() {
+        return createScheduler(persistThreads, "document-batch-");
+    }
+
+    private ThreadPoolTaskScheduler createScheduler(int poolSize, String threadNamePrefix) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        scheduler.initialize();
+        return scheduler;
+    }
+}
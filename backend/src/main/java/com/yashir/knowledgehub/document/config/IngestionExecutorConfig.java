@@ -0,0 +1,38 @@
+package com.yashir.knowledgehub.document.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor configuration for background document ingestion
+ * Extraction and classification run on a bounded pool so uploads return immediately
+ * and a burst of uploads cannot exhaust memory or LLM quota
+ */
+@Configuration
+public class IngestionExecutorConfig {
+
+    @Value("${ingestion.executor.threads:4}")
+    private int threads;
+
+    @Value("${ingestion.executor.queue-capacity:100}")
+    private int queueCapacity;
+
+    /**
+     * Configures the ingestion executor
+     * Rejects new jobs (TaskRejectedException) once all threads are busy and the queue is full
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ingestionExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ingestion-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
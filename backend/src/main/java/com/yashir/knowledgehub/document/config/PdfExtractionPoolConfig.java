@@ -0,0 +1,29 @@
+package com.yashir.knowledgehub.document.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pool configuration for parallel PDF text extraction
+ * A dedicated fork-join pool keeps page-range tasks off the common pool and bounds the CPU
+ * used by extraction, however many documents are being ingested at once
+ */
+@Configuration
+public class PdfExtractionPoolConfig {
+
+    @Value("${extraction.pdf.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * Configures the PDF extraction pool
+     * Parallelism 0 uses one worker per available processor
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool pdfExtractionPool() {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(workers);
+    }
+}
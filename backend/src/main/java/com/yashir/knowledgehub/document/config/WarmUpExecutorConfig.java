@@ -0,0 +1,34 @@
+package com.yashir.knowledgehub.document.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor configuration for answer warm-up after ingestion
+ * A single low-priority thread with a bounded queue, so warm-up never competes with uploads or user
+ * questions for CPU and only ever sends one LLM request at a time
+ */
+@Configuration
+public class WarmUpExecutorConfig {
+
+    @Value("${qa.warm-up.queue-capacity:50}")
+    private int queueCapacity;
+
+    /**
+     * Configures the warm-up executor
+     * Documents arriving while the queue is full are not warmed up
+     */
+    @Bean
+    public ThreadPoolTaskExecutor warmUpExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.setThreadNamePrefix("qa-warm-up-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,37 @@
+package com.yashir.knowledgehub.document.controller;
+
+import com.yashir.knowledgehub.document.dto.CorpusQuestionRequest;
+import com.yashir.knowledgehub.document.dto.CorpusQuestionResponse;
+import com.yashir.knowledgehub.document.service.CorpusQAService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for questions asked across all documents
+ * Handles only HTTP concerns and delegates business logic to service layer
+ */
+@RestController
+@RequestMapping("/api/ask")
+@RequiredArgsConstructor
+public class CorpusQuestionController {
+
+    private final CorpusQAService corpusQAService;
+
+    /**
+     * Answers a question using the most relevant passages from all documents
+     * Available to all authenticated users
+     * @param request the question request
+     * @return ResponseEntity containing the answer and source document IDs
+     */
+    @PostMapping
+    public ResponseEntity<CorpusQuestionResponse> ask(
+            @Valid @RequestBody CorpusQuestionRequest request) {
+        CorpusQuestionResponse response = corpusQAService.answerQuestion(request);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,9 +1,15 @@
 package com.yashir.knowledgehub.document.controller;
 
+import com.yashir.knowledgehub.document.dto.BatchQuestionRequest;
+import com.yashir.knowledgehub.document.dto.BatchQuestionResponse;
+import com.yashir.knowledgehub.document.dto.BulkUploadRequest;
+import com.yashir.knowledgehub.document.dto.BulkUploadResponse;
 import com.yashir.knowledgehub.document.dto.DocumentResponse;
 import com.yashir.knowledgehub.document.dto.DocumentUploadRequest;
+import com.yashir.knowledgehub.document.dto.IngestionJobResponse;
 import com.yashir.knowledgehub.document.dto.QuestionRequest;
 import com.yashir.knowledgehub.document.dto.QuestionResponse;
+import com.yashir.knowledgehub.document.ingestion.IngestionJobRegistry;
 import com.yashir.knowledgehub.document.service.ContentTypeService;
 import com.yashir.knowledgehub.document.service.DocumentQAService;
 import com.yashir.knowledgehub.document.service.DocumentServiceInterface;
@@ -16,7 +22,10 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -29,9 +38,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DocumentController {
 
+    private static final String STREAM_TOKEN_EVENT = "token";
+    private static final String STREAM_DONE_EVENT = "done";
+    private static final String STREAM_ERROR_EVENT = "error";
+
     private final DocumentServiceInterface documentService;
     private final ContentTypeService contentTypeService;
     private final DocumentQAService documentQAService;
+    private final IngestionJobRegistry ingestionJobRegistry;
 
     /**
      * Retrieves all documents
@@ -47,20 +61,70 @@ public class DocumentController {
 
     /**
      * Uploads a new document
+     * The file is stored and processed in the background; track progress with the returned job ID
      * Requires ADMIN role
      * @param request the document upload request with file and validation
      * @param uploadedBy the name of the user uploading the document (from header)
-     * @return ResponseEntity containing the uploaded document with HTTP 201 status
+     * @return ResponseEntity containing the ingestion job with HTTP 202 status
      */
     @PostMapping("/upload")
     @RequireRole(UserRole.ADMIN)
-    public ResponseEntity<DocumentResponse> uploadDocument(
+    public ResponseEntity<IngestionJobResponse> uploadDocument(
             @Valid @ModelAttribute DocumentUploadRequest request,
             @RequestHeader(value = "X-User-Name", required = false) String uploadedBy) {
         // Default to "Unknown User" if header is not provided
         String uploaderName = uploadedBy != null ? uploadedBy : "Unknown User";
-        DocumentResponse response = documentService.uploadDocument(request, uploaderName);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        IngestionJobResponse response = documentService.uploadDocument(request, uploaderName);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/documents/jobs/" + response.getJobId())
+                .body(response);
+    }
+
+    /**
+     * Uploads many documents at once, given as separate files and/or ZIP archives
+     * Entries are stored in order and processed in parallel in the background; when the ingestion
+     * queue is full the request waits instead of rejecting entries
+     * Requires ADMIN role
+     * @param request the files to upload
+     * @param uploadedBy the name of the user uploading the documents (from header)
+     * @return ResponseEntity containing one result per file or archive entry with HTTP 202 status
+     */
+    @PostMapping("/upload/bulk")
+    @RequireRole(UserRole.ADMIN)
+    public ResponseEntity<BulkUploadResponse> uploadDocuments(
+            @Valid @ModelAttribute BulkUploadRequest request,
+            @RequestHeader(value = "X-User-Name", required = false) String uploadedBy) {
+        String uploaderName = uploadedBy != null ? uploadedBy : "Unknown User";
+        BulkUploadResponse response = documentService.uploadDocuments(request, uploaderName);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Gets the status of a document ingestion job
+     * Requires ADMIN role
+     * @param jobId the job ID returned by upload
+     * @return ResponseEntity containing the job status
+     */
+    @GetMapping("/jobs/{jobId}")
+    @RequireRole(UserRole.ADMIN)
+    public ResponseEntity<IngestionJobResponse> getIngestionJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(ingestionJobRegistry.getJob(jobId));
+    }
+
+    /**
+     * Streams the status changes of a document ingestion job as Server-Sent Events
+     * Emits the current status first; the stream ends when the job is READY or FAILED
+     * Requires ADMIN role
+     * @param jobId the job ID returned by upload
+     * @return the stream of job status events, named after the status
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @RequireRole(UserRole.ADMIN)
+    public Flux<ServerSentEvent<IngestionJobResponse>> watchIngestionJob(@PathVariable String jobId) {
+        return ingestionJobRegistry.watchJob(jobId)
+                .map(job -> ServerSentEvent.builder(job)
+                        .event(job.getStatus())
+                        .build());
     }
 
     /**
@@ -111,5 +175,67 @@ public class DocumentController {
         QuestionResponse response = documentQAService.answerQuestion(request);
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Answers several questions about a specific document
+     * Cached answers are reused and the remaining questions are answered together with one shared context
+     * Available to all authenticated users
+     * @param request the batch request containing documentId and the questions
+     * @return ResponseEntity containing one answer per question, in question order
+     */
+    @PostMapping("/ask/batch")
+    public ResponseEntity<BatchQuestionResponse> askQuestions(
+            @Valid @RequestBody BatchQuestionRequest request) {
+        return ResponseEntity.ok(documentQAService.answerQuestions(request));
+    }
+
+    /**
+     * Answers a question about a specific document as a Server-Sent Events stream
+     * Emits a "token" event per answer piece as the LLM generates it, then a single "done" event
+     * carrying the full answer; if the answer fails once the stream has started, an "error" event
+     * carrying the error message ends the stream instead of the "done" event
+     * The response is committed only when the answer's first signal arrives, so a question the Q&A bulkhead
+     * rejects (or that fails before its first piece) gets an error status from the exception handlers,
+     * e.g. 503 with Retry-After, instead of an "error" event on a 200 response
+     * Available to all authenticated users
+     * @param request the question request containing documentId and question
+     * @return the stream of answer events, once the first piece is available
+     */
+    @PostMapping(value = "/ask/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<QuestionResponse>>>> askQuestionStream(
+            @Valid @RequestBody QuestionRequest request) {
+        // The remaining pieces are subscribed when the body is written, after the returned Mono completes
+        return documentQAService.streamAnswer(request)
+                .switchOnFirst((first, pieces) -> first.isOnError()
+                        ? Mono.<ResponseEntity<Flux<ServerSentEvent<QuestionResponse>>>>error(first.getThrowable())
+                        : Mono.just(ResponseEntity.ok()
+                                .contentType(MediaType.TEXT_EVENT_STREAM)
+                                .body(toAnswerEvents(pieces))), false)
+                .singleOrEmpty();
+    }
+
+    /**
+     * Maps answer pieces to "token" events, followed by a "done" or "error" event
+     * @param pieces the answer pieces
+     * @return the answer events
+     */
+    private Flux<ServerSentEvent<QuestionResponse>> toAnswerEvents(Flux<String> pieces) {
+        StringBuilder fullAnswer = new StringBuilder();
+        Flux<ServerSentEvent<QuestionResponse>> tokens = pieces
+                .doOnNext(fullAnswer::append)
+                .map(token -> ServerSentEvent.builder(new QuestionResponse(token))
+                        .event(STREAM_TOKEN_EVENT)
+                        .build());
+        Flux<ServerSentEvent<QuestionResponse>> done = Flux.defer(() -> Flux.just(
+                ServerSentEvent.builder(new QuestionResponse(fullAnswer.toString()))
+                        .event(STREAM_DONE_EVENT)
+                        .build()));
+        return tokens.concatWith(done)
+                .onErrorResume(e -> Flux.just(
+                        ServerSentEvent.builder(new QuestionResponse(e.getMessage() != null
+                                        ? e.getMessage()
+                                        : "An unexpected error occurred"))
+                                .event(STREAM_ERROR_EVENT)
+                                .build()));
+    }
+}
@@ -0,0 +1,49 @@
+package com.yashir.knowledgehub.document.controller;
+
+import com.yashir.knowledgehub.document.cache.SemanticQACache;
+import com.yashir.knowledgehub.document.cache.SingleFlight;
+import com.yashir.knowledgehub.document.dto.InFlightStatsResponse;
+import com.yashir.knowledgehub.document.dto.QuestionResponse;
+import com.yashir.knowledgehub.document.dto.SemanticCacheStatsResponse;
+import com.yashir.knowledgehub.security.annotation.RequireRole;
+import com.yashir.knowledgehub.user.model.UserRole;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST Controller for Q&A cache diagnostics
+ * Handles only HTTP concerns and delegates to the cache components
+ */
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class QACacheController {
+
+    private final SemanticQACache semanticQACache;
+    private final SingleFlight<String, QuestionResponse> qaSingleFlight;
+
+    /**
+     * Retrieves semantic cache hit/miss counts and similarity distribution
+     * Requires ADMIN role
+     * @return ResponseEntity containing the semantic cache statistics
+     */
+    @GetMapping("/semantic/stats")
+    @RequireRole(UserRole.ADMIN)
+    public ResponseEntity<SemanticCacheStatsResponse> getSemanticCacheStats() {
+        return ResponseEntity.ok(semanticQACache.getStats());
+    }
+
+    /**
+     * Retrieves the number of answers computed and of identical concurrent questions coalesced into them
+     * Requires ADMIN role
+     * @return ResponseEntity containing the in-flight coalescing statistics
+     */
+    @GetMapping("/in-flight/stats")
+    @RequireRole(UserRole.ADMIN)
+    public ResponseEntity<InFlightStatsResponse> getInFlightStats() {
+        return ResponseEntity.ok(qaSingleFlight.getStats());
+    }
+}
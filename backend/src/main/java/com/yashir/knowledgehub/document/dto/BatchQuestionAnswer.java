@@ -0,0 +1,17 @@
+package com.yashir.knowledgehub.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the answer to one question of a batch
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchQuestionAnswer {
+    private String question;
+    private String answer;
+    private boolean cached;  // Answered from a cache tier without a new LLM call
+}
@@ -0,0 +1,28 @@
+package com.yashir.knowledgehub.document.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a batch of questions about one document
+ * Used by views that ask many questions at once (e.g. an FAQ)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchQuestionRequest {
+
+    @NotNull(message = "Document ID is required")
+    private Long documentId;
+
+    @NotEmpty(message = "At least one question is required")
+    @Size(max = 100, message = "Too many questions in one batch")
+    private List<@NotBlank(message = "Question cannot be empty") String> questions;
+}
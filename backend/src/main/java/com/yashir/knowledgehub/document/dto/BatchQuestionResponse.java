@@ -0,0 +1,17 @@
+package com.yashir.knowledgehub.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the answers to a batch of questions
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchQuestionResponse {
+    private List<BatchQuestionAnswer> answers;  // In the order of the questions
+}
@@ -0,0 +1,19 @@
+package com.yashir.knowledgehub.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of one file or archive entry of a bulk upload
+ * Accepted entries carry the ingestion job to track; rejected entries carry the reason
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUploadEntryResult {
+    private String fileName;
+    private String jobId;  // Null if the entry was rejected
+    private String status;  // Job status when the response was built, or REJECTED
+    private String error;
+}
@@ -0,0 +1,18 @@
+package com.yashir.knowledgehub.document.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+/**
+ * DTO for uploading many documents in one request
+ * Each file is either a document or a ZIP archive of documents
+ */
+@Data
+public class BulkUploadRequest {
+
+    @NotEmpty(message = "At least one file is required")
+    private List<MultipartFile> files;
+}
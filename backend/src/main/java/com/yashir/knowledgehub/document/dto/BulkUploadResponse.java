@@ -0,0 +1,19 @@
+package com.yashir.knowledgehub.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a bulk upload, with one entry per uploaded file or archive entry
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUploadResponse {
+    private int accepted;
+    private int rejected;
+    private List<BulkUploadEntryResult> entries;
+}
@@ -0,0 +1,19 @@
+package com.yashir.knowledgehub.document.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for corpus-wide question request
+ * Used when asking a question across all documents
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorpusQuestionRequest {
+
+    @NotBlank(message = "Question cannot be empty")
+    private String question;
+}
@@ -0,0 +1,19 @@
+package com.yashir.knowledgehub.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for corpus-wide question response
+ * Contains the answer and the IDs of the documents whose passages were used
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CorpusQuestionResponse {
+    private String answer;
+    private List<Long> sourceDocumentIds;
+}
@@ -0,0 +1,18 @@
+package com.yashir.knowledgehub.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for in-flight Q&A coalescing statistics
+ * Coalesced calls are questions answered by sharing a concurrent identical question's LLM call
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InFlightStatsResponse {
+    private long calls;  // Answers computed (LLM calls made on a cache miss)
+    private long coalesced;  // Requests that waited for a computation already in flight
+    private int inFlight;  // Computations currently running
+}
@@ -0,0 +1,23 @@
+package com.yashir.knowledgehub.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for document ingestion job status
+ * Returned when a document is accepted for processing and on each status change
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionJobResponse {
+    private String jobId;
+    private String status;
+    private String fileName;
+    private DocumentResponse document;  // Set once the job is READY
+    private String error;  // Set when the job FAILED
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,22 @@
+package com.yashir.knowledgehub.document.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO for semantic Q&A cache statistics
+ * Similarity histogram counts the best similarity found per lookup, used to tune the threshold
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SemanticCacheStatsResponse {
+    private long hits;
+    private long misses;
+    private double threshold;
+    private int entries;
+    private Map<String, Long> similarityHistogram;
+}
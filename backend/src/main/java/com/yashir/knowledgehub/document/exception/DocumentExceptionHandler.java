@@ -34,5 +34,14 @@ public class DocumentExceptionHandler extends GlobalExceptionHandler {
         );
         return new ResponseEntity<>(error, HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
 
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleIngestionQueueFullException(IngestionQueueFullException ex) {
+        ErrorResponse error = buildErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            "Ingestion Queue Full",
+            ex.getMessage()
+        );
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
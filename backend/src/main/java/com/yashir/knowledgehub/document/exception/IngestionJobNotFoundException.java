@@ -0,0 +1,13 @@
+package com.yashir.knowledgehub.document.exception;
+
+import com.yashir.knowledgehub.exception.BaseNotFoundException;
+
+/**
+ * Exception thrown when an ingestion job is not found (unknown or expired)
+ */
+public class IngestionJobNotFoundException extends BaseNotFoundException {
+
+    public IngestionJobNotFoundException(String jobId) {
+        super("Ingestion job not found with id: " + jobId);
+    }
+}
@@ -0,0 +1,11 @@
+package com.yashir.knowledgehub.document.exception;
+
+/**
+ * Exception thrown when the ingestion queue cannot accept another document
+ */
+public class IngestionQueueFullException extends RuntimeException {
+
+    public IngestionQueueFullException() {
+        super("Too many documents are being processed. Please try again shortly.");
+    }
+}
@@ -0,0 +1,148 @@
+package com.yashir.knowledgehub.document.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Base class for collecting items submitted by concurrent ingestion jobs into batches processed together
+ * A batch is processed once batchSize() items are pending, or when the window that opened with its
+ * first item (window()) closes, whichever comes first; batches are processed on the scheduler
+ * @param <T> the type of the submitted items
+ * @param <R> the type of the per-item results
+ */
+@Slf4j
+public abstract class BatchCollector<T, R> {
+
+    private final List<PendingItem<T, R>> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @return the number of pending items that triggers processing of a batch
+     */
+    protected abstract int batchSize();
+
+    /**
+     * @return how long the first item of a batch waits for more items
+     */
+    protected abstract Duration window();
+
+    /**
+     * @return the scheduler that closes windows and processes batches
+     */
+    protected abstract ThreadPoolTaskScheduler scheduler();
+
+    /**
+     * Processes one batch
+     * @param items the items, in submission order
+     * @return one result per item, in the same order
+     */
+    protected abstract List<R> process(List<T> items);
+
+    /**
+     * @return whether the items of a failed batch are processed again one at a time, so only the items that
+     *         also fail on their own fail; by default a failed batch fails all of its items
+     */
+    protected boolean retryItemsOfFailedBatch() {
+        return false;
+    }
+
+    /**
+     * Queues an item for the next batch
+     * @param item the item
+     * @return a future completed with the item's result once its batch has been processed,
+     *         or completed exceptionally if processing the batch failed
+     */
+    public CompletableFuture<R> submit(T item) {
+        PendingItem<T, R> pendingItem = new PendingItem<>(item);
+        List<PendingItem<T, R>> fullBatch = null;
+        synchronized (this) {
+            pending.add(pendingItem);
+            if (pending.size() >= batchSize()) {
+                fullBatch = drain();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler().schedule(this::flush, Instant.now().plus(window()));
+            }
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return pendingItem.result;
+    }
+
+    /**
+     * Processes the pending items when the batch window closes
+     */
+    private void flush() {
+        List<PendingItem<T, R>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        }
+        processBatch(batch);
+    }
+
+    /**
+     * Takes all pending items and cancels the window timer
+     * Must be called while holding the lock
+     * @return the batch
+     */
+    private List<PendingItem<T, R>> drain() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        List<PendingItem<T, R>> batch = new ArrayList<>(pending);
+        pending.clear();
+        return batch;
+    }
+
+    private void dispatch(List<PendingItem<T, R>> batch) {
+        try {
+            scheduler().execute(() -> processBatch(batch));
+        } catch (TaskRejectedException e) {
+            log.warn("Batch scheduler rejected a batch of {}, processing it on the caller thread", batch.size());
+            processBatch(batch);
+        }
+    }
+
+    private void processBatch(List<PendingItem<T, R>> batch) {
+        List<T> items = batch.stream().map(pendingItem -> pendingItem.item).toList();
+        try {
+            List<R> results = process(items);
+            if (results.size() != batch.size()) {
+                throw new IllegalStateException("Expected " + batch.size() + " results, got " + results.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() > 1 && retryItemsOfFailedBatch()) {
+                log.warn("Failed to process a batch of {}, retrying its items one at a time: {}", batch.size(), e.getMessage());
+                batch.forEach(pendingItem -> processBatch(List.of(pendingItem)));
+                return;
+            }
+            log.error("Failed to process a batch of {}: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(pendingItem -> pendingItem.result.completeExceptionally(e));
+        }
+    }
+
+    private static class PendingItem<T, R> {
+        private final T item;
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+
+        private PendingItem(T item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.yashir.knowledgehub.document.ingestion;
+
+import com.yashir.knowledgehub.document.dto.DocumentResponse;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-memory state of one document ingestion
+ * Mutated only through IngestionJobRegistry, which publishes every change to subscribers
+ */
+@Getter
+public class IngestionJob {
+
+    private final String id;
+    private final String fileName;
+    private final String filePath;
+    private final String contentHash;
+    private final String uploadedBy;
+    private final LocalDateTime createdAt;
+
+    private volatile IngestionJobStatus status = IngestionJobStatus.QUEUED;
+    private volatile DocumentResponse document;
+    private volatile String error;
+    private volatile LocalDateTime updatedAt;
+
+    IngestionJob(String id, String fileName, String filePath, String contentHash, String uploadedBy) {
+        this.id = id;
+        this.fileName = fileName;
+        this.filePath = filePath;
+        this.contentHash = contentHash;
+        this.uploadedBy = uploadedBy;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = createdAt;
+    }
+
+    void update(IngestionJobStatus status, DocumentResponse document, String error) {
+        this.status = status;
+        this.document = document;
+        this.error = error;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
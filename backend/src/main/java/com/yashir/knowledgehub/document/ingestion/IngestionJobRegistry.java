@@ -0,0 +1,167 @@
+package com.yashir.knowledgehub.document.ingestion;
+
+import com.yashir.knowledgehub.document.dto.DocumentResponse;
+import com.yashir.knowledgehub.document.dto.IngestionJobResponse;
+import com.yashir.knowledgehub.document.exception.DocumentAlreadyExistsException;
+import com.yashir.knowledgehub.document.exception.IngestionJobNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of document ingestion jobs
+ * Tracks the status of each job and publishes status changes as a stream per job
+ * Finished jobs are kept for the configured retention period so clients can still read the result
+ */
+@Component
+public class IngestionJobRegistry {
+
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    // jobId -> status updates; replays the latest status to late subscribers
+    private final Map<String, Sinks.Many<IngestionJobResponse>> updates = new ConcurrentHashMap<>();
+
+    // fileName -> jobId of unfinished jobs, so the same file cannot be ingested twice concurrently
+    private final Map<String, String> activeFileNames = new ConcurrentHashMap<>();
+
+    @Value("${ingestion.job-retention:1h}")
+    private Duration jobRetention;
+
+    /**
+     * Creates a QUEUED job, reserving the file name until the job finishes
+     * @param fileName the original file name
+     * @param filePath the stored file path
+     * @param contentHash the SHA-256 of the stored file
+     * @param uploadedBy the name of the uploading user
+     * @return the new job
+     * @throws DocumentAlreadyExistsException if a job for the same file name is still running
+     */
+    public IngestionJob create(String fileName, String filePath, String contentHash, String uploadedBy) {
+        purgeFinishedJobs();
+
+        String jobId = UUID.randomUUID().toString();
+        if (fileName != null && activeFileNames.putIfAbsent(fileName, jobId) != null) {
+            throw new DocumentAlreadyExistsException(fileName);
+        }
+
+        IngestionJob job = new IngestionJob(jobId, fileName, filePath, contentHash, uploadedBy);
+        Sinks.Many<IngestionJobResponse> sink = Sinks.many().replay().latest();
+        updates.put(jobId, sink);
+        jobs.put(jobId, job);
+        sink.tryEmitNext(toResponse(job));
+        return job;
+    }
+
+    /**
+     * Checks whether an unfinished job exists for a file name
+     * @param fileName the original file name
+     * @return true if the file is being ingested
+     */
+    public boolean isInProgress(String fileName) {
+        return fileName != null && activeFileNames.containsKey(fileName);
+    }
+
+    /**
+     * Gets the current state of a job
+     * @param jobId the job ID
+     * @return the job status response
+     * @throws IngestionJobNotFoundException if the job does not exist or has expired
+     */
+    public IngestionJobResponse getJob(String jobId) {
+        return toResponse(findJob(jobId));
+    }
+
+    /**
+     * Streams the status changes of a job, starting with its current status
+     * The stream completes once the job is READY or FAILED
+     * @param jobId the job ID
+     * @return the status updates
+     * @throws IngestionJobNotFoundException if the job does not exist or has expired
+     */
+    public Flux<IngestionJobResponse> watchJob(String jobId) {
+        findJob(jobId);
+        Sinks.Many<IngestionJobResponse> sink = updates.get(jobId);
+        return sink != null ? sink.asFlux() : Flux.just(getJob(jobId));
+    }
+
+    /**
+     * Moves a job to an intermediate status
+     * @param job the job
+     * @param status the new status
+     */
+    public void updateStatus(IngestionJob job, IngestionJobStatus status) {
+        publish(job, status, null, null);
+    }
+
+    /**
+     * Marks a job READY with the created document
+     * @param job the job
+     * @param document the created document
+     */
+    public void complete(IngestionJob job, DocumentResponse document) {
+        publish(job, IngestionJobStatus.READY, document, null);
+    }
+
+    /**
+     * Marks a job FAILED
+     * @param job the job
+     * @param error the failure reason
+     */
+    public void fail(IngestionJob job, String error) {
+        publish(job, IngestionJobStatus.FAILED, null, error);
+    }
+
+    private synchronized void publish(IngestionJob job, IngestionJobStatus status,
+                                      DocumentResponse document, String error) {
+        job.update(status, document, error);
+        Sinks.Many<IngestionJobResponse> sink = updates.get(job.getId());
+        if (sink == null) {
+            return;
+        }
+
+        sink.tryEmitNext(toResponse(job));
+        if (status.isTerminal()) {
+            sink.tryEmitComplete();
+            if (job.getFileName() != null) {
+                activeFileNames.remove(job.getFileName(), job.getId());
+            }
+        }
+    }
+
+    private IngestionJob findJob(String jobId) {
+        IngestionJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new IngestionJobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(jobRetention);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.getStatus().isTerminal() && job.getUpdatedAt().isBefore(cutoff);
+            if (expired) {
+                updates.remove(job.getId());
+            }
+            return expired;
+        });
+    }
+
+    private IngestionJobResponse toResponse(IngestionJob job) {
+        return new IngestionJobResponse(
+                job.getId(),
+                job.getStatus().name(),
+                job.getFileName(),
+                job.getDocument(),
+                job.getError(),
+                job.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,23 @@
+package com.yashir.knowledgehub.document.ingestion;
+
+/**
+ * Processing states of an uploaded document
+ * QUEUED -> EXTRACTING -> CLASSIFYING -> READY, or FAILED from any state
+ * Classification of a bounded preview is queued before full text extraction starts; the job is CLASSIFYING
+ * once the text is extracted and it waits for its classification batch
+ */
+public enum IngestionJobStatus {
+    QUEUED,
+    EXTRACTING,
+    CLASSIFYING,
+    READY,
+    FAILED;
+
+    /**
+     * Checks whether the job has finished
+     * @return true for READY and FAILED
+     */
+    public boolean isTerminal() {
+        return this == READY || this == FAILED;
+    }
+}
@@ -11,14 +11,16 @@ import java.time.LocalDateTime;
  * Document entity representing an uploaded document
  */
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = @Index(name = "idx_documents_content_hash", columnList = "contentHash"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Document {
     
+    // Sequence IDs (allocated in blocks) keep JDBC batch inserts possible; IDENTITY forces one insert per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "documents_seq")
+    @SequenceGenerator(name = "documents_seq", sequenceName = "documents_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -34,6 +36,9 @@ public class Document {
     @Column(nullable = false, length = 500)
     private String filePath;
 
+    @Column(length = 64)
+    private String contentHash;  // SHA-256 of the file content, shared by duplicate uploads
+
     @Column(nullable = false, length = 50)
     private String uploadedBy;
 
@@ -4,6 +4,8 @@ import com.yashir.knowledgehub.document.model.Document;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 /**
  * Repository interface for Document entity
  */
@@ -16,5 +18,19 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
      * @return true if document exists, false otherwise
      */
     boolean existsByFileName(String fileName);
+
+    /**
+     * Finds a document with the given content hash (an earlier upload of the same content)
+     * @param contentHash the SHA-256 of the file content
+     * @return the first matching document, if any
+     */
+    Optional<Document> findFirstByContentHash(String contentHash);
+
+    /**
+     * Counts the documents with the given content hash
+     * @param contentHash the SHA-256 of the file content
+     * @return the number of documents sharing the content
+     */
+    long countByContentHash(String contentHash);
 }
 
@@ -0,0 +1,232 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process BM25 inverted index over document chunks
+ * Readers share a read lock; indexing and removal take the write lock
+ */
+@Component
+public class Bm25Index {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> (chunk -> term frequency in chunk)
+    private final Map<String, Map<IndexedChunk, Integer>> postings = new HashMap<>();
+
+    // documentId -> indexed chunks of that document
+    private final Map<Long, List<IndexedChunk>> documentChunks = new HashMap<>();
+
+    private int totalChunkCount;
+    private long totalChunkLength;
+
+    /**
+     * Adds all chunks of a document to the index, replacing any previously indexed chunks
+     * @param documentId the document ID
+     * @param chunks the document chunks
+     */
+    public void indexDocument(Long documentId, List<TextChunk> chunks) {
+        lock.writeLock().lock();
+        try {
+            removeDocumentLocked(documentId);
+
+            List<IndexedChunk> indexed = new ArrayList<>(chunks.size());
+            for (TextChunk chunk : chunks) {
+                List<String> terms = TextTokenizer.tokenize(chunk.getText());
+                Map<String, Integer> termFrequencies = new HashMap<>();
+                for (String term : terms) {
+                    termFrequencies.merge(term, 1, Integer::sum);
+                }
+
+                IndexedChunk indexedChunk = new IndexedChunk(chunk, terms.size(), termFrequencies);
+                termFrequencies.forEach((term, tf) ->
+                        postings.computeIfAbsent(term, t -> new HashMap<>()).put(indexedChunk, tf));
+
+                totalChunkCount++;
+                totalChunkLength += terms.size();
+                indexed.add(indexedChunk);
+            }
+            documentChunks.put(documentId, indexed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all chunks of a document from the index
+     * @param documentId the document ID
+     */
+    public void removeDocument(Long documentId) {
+        lock.writeLock().lock();
+        try {
+            removeDocumentLocked(documentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a document has been indexed
+     * @param documentId the document ID
+     * @return true if the document has indexed chunks
+     */
+    public boolean containsDocument(Long documentId) {
+        lock.readLock().lock();
+        try {
+            return documentChunks.containsKey(documentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the chunks of a document in document order
+     * @param documentId the document ID
+     * @return the document chunks, or an empty list if the document is not indexed
+     */
+    public List<TextChunk> getDocumentChunks(Long documentId) {
+        lock.readLock().lock();
+        try {
+            List<IndexedChunk> indexed = documentChunks.getOrDefault(documentId, Collections.emptyList());
+            List<TextChunk> chunks = new ArrayList<>(indexed.size());
+            for (IndexedChunk indexedChunk : indexed) {
+                chunks.add(indexedChunk.chunk);
+            }
+            return chunks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Scores chunks against a query using BM25
+     * @param query the query text
+     * @param documentId restricts results to one document, or null to search all documents
+     * @param topK the maximum number of results
+     * @return the best scoring chunks, highest score first
+     */
+    public List<ScoredChunk> search(String query, Long documentId, int topK) {
+        Set<String> queryTerms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        if (queryTerms.isEmpty() || topK <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int chunkCount = totalChunkCount;
+            if (chunkCount == 0) {
+                return Collections.emptyList();
+            }
+            double averageLength = (double) totalChunkLength / chunkCount;
+
+            // A search scoped to one document scores only that document's chunks, not every posting of the corpus;
+            // idf still comes from the whole corpus so scores match an unscoped search
+            List<IndexedChunk> scopedChunks = null;
+            if (documentId != null) {
+                scopedChunks = documentChunks.get(documentId);
+                if (scopedChunks == null) {
+                    return Collections.emptyList();
+                }
+            }
+
+            Map<IndexedChunk, Double> scores = new HashMap<>();
+            for (String term : queryTerms) {
+                Map<IndexedChunk, Integer> termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+
+                double idf = Math.log(1 + (chunkCount - termPostings.size() + 0.5) / (termPostings.size() + 0.5));
+                if (scopedChunks == null) {
+                    termPostings.forEach((indexedChunk, tf) ->
+                            scores.merge(indexedChunk, termScore(idf, tf, indexedChunk, averageLength), Double::sum));
+                    continue;
+                }
+                for (IndexedChunk indexedChunk : scopedChunks) {
+                    Integer tf = indexedChunk.termFrequencies.get(term);
+                    if (tf != null) {
+                        scores.merge(indexedChunk, termScore(idf, tf, indexedChunk, averageLength), Double::sum);
+                    }
+                }
+            }
+
+            return selectTopK(scores, topK);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double termScore(double idf, int tf, IndexedChunk indexedChunk, double averageLength) {
+        double norm = K1 * (1 - B + B * indexedChunk.length / averageLength);
+        return idf * (tf * (K1 + 1)) / (tf + norm);
+    }
+
+    private List<ScoredChunk> selectTopK(Map<IndexedChunk, Double> scores, int topK) {
+        PriorityQueue<ScoredChunk> heap = new PriorityQueue<>((a, b) -> Double.compare(a.getScore(), b.getScore()));
+        scores.forEach((indexedChunk, score) -> {
+            heap.offer(new ScoredChunk(indexedChunk.chunk, score));
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        });
+
+        List<ScoredChunk> results = new ArrayList<>(heap);
+        results.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return results;
+    }
+
+    private void removeDocumentLocked(Long documentId) {
+        List<IndexedChunk> removed = documentChunks.remove(documentId);
+        if (removed == null) {
+            return;
+        }
+
+        Set<String> affectedTerms = new HashSet<>();
+        for (IndexedChunk indexedChunk : removed) {
+            affectedTerms.addAll(indexedChunk.termFrequencies.keySet());
+            totalChunkCount--;
+            totalChunkLength -= indexedChunk.length;
+        }
+        for (String term : affectedTerms) {
+            Map<IndexedChunk, Integer> termPostings = postings.get(term);
+            if (termPostings == null) {
+                continue;
+            }
+            removed.forEach(termPostings::remove);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Chunk entry in the index with its term count and term frequencies (used for scoped search and removal)
+     * Uses identity equality so identical text in different chunks stays distinct
+     */
+    private static final class IndexedChunk {
+        private final TextChunk chunk;
+        private final int length;
+        private final Map<String, Integer> termFrequencies;
+
+        private IndexedChunk(TextChunk chunk, int length, Map<String, Integer> termFrequencies) {
+            this.chunk = chunk;
+            this.length = length;
+            this.termFrequencies = termFrequencies;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import com.yashir.knowledgehub.llm.service.EmbeddingServiceInterface;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for chunk-based retrieval of relevant document passages
+ * Documents are chunked and indexed once at upload; questions retrieve the top-k chunks
+ * that fit within the configured context token budget
+ * Retrieval mode (retrieval.mode):
+ * - bm25: keyword scoring only
+ * - vector: embedding similarity only (catches paraphrased questions)
+ * - hybrid: both rankings merged with reciprocal rank fusion
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkRetrievalService {
+
+    // Standard reciprocal rank fusion constant; dampens the influence of top ranks
+    private static final int RRF_K = 60;
+
+    private static final String MODE_BM25 = "bm25";
+    private static final String MODE_VECTOR = "vector";
+
+    private final DocumentChunker documentChunker;
+    private final Bm25Index bm25Index;
+    private final HnswVectorIndex vectorIndex;
+    private final EmbeddingServiceInterface embeddingService;
+
+    @Value("${retrieval.mode:hybrid}")
+    private String retrievalMode;
+
+    @Value("${retrieval.top-k:8}")
+    private int topK;
+
+    @Value("${retrieval.corpus-top-k:12}")
+    private int corpusTopK;
+
+    @Value("${retrieval.token-budget:3000}")
+    private int tokenBudget;
+
+    /**
+     * Chunks and indexes a document, replacing any previously indexed chunks
+     * @param documentId the document ID
+     * @param content the document text, read incrementally and not closed
+     * @throws IOException if reading the text fails
+     */
+    public void indexDocument(Long documentId, Reader content) throws IOException {
+        List<TextChunk> chunks = documentChunker.chunk(documentId, content);
+        bm25Index.indexDocument(documentId, chunks);
+
+        if (!MODE_BM25.equalsIgnoreCase(retrievalMode)) {
+            List<float[]> vectors = new ArrayList<>(chunks.size());
+            chunks.forEach(chunk -> vectors.add(embeddingService.embed(chunk.getText())));
+            vectorIndex.indexDocument(documentId, chunks, vectors);
+        }
+        log.debug("Indexed document {} as {} chunks", documentId, chunks.size());
+    }
+
+    /**
+     * Removes a document from the retrieval index
+     * @param documentId the document ID
+     */
+    public void removeDocument(Long documentId) {
+        bm25Index.removeDocument(documentId);
+        vectorIndex.removeDocument(documentId);
+    }
+
+    /**
+     * Checks whether a document is present in the retrieval index
+     * @param documentId the document ID
+     * @return true if the document is indexed
+     */
+    public boolean isIndexed(Long documentId) {
+        return bm25Index.containsDocument(documentId);
+    }
+
+    /**
+     * Retrieves the most relevant chunks of a document for a question
+     * Chunks are selected by score until the token budget is reached and returned in document order
+     * If no chunk matches the question, the leading chunks of the document are used instead
+     * @param documentId the document ID
+     * @param question the question
+     * @return the selected chunks in document order
+     */
+    public List<TextChunk> retrieve(Long documentId, String question) {
+        List<ScoredChunk> scored = rank(documentId, question, topK);
+
+        List<TextChunk> candidates = new ArrayList<>();
+        if (scored.isEmpty()) {
+            candidates.addAll(bm25Index.getDocumentChunks(documentId));
+        } else {
+            scored.forEach(scoredChunk -> candidates.add(scoredChunk.getChunk()));
+        }
+
+        List<TextChunk> selected = fitToBudget(candidates, tokenBudget);
+        selected.sort(Comparator.comparingInt(TextChunk::getChunkIndex));
+        return selected;
+    }
+
+    /**
+     * Retrieves the chunks of a document relevant to any of several questions, for a prompt answering all of them
+     * Rankings are merged round-robin, so every question gets its best chunk before any gets its second best
+     * The budget grows with the number of questions (the token budget per question) up to maxTokens
+     * @param documentId the document ID
+     * @param questions the questions
+     * @param maxTokens the most tokens the prompt has room for
+     * @return the selected chunks in document order
+     */
+    public List<TextChunk> retrieveForQuestions(Long documentId, List<String> questions, int maxTokens) {
+        List<List<ScoredChunk>> rankings = questions.stream()
+                .map(question -> rank(documentId, question, topK))
+                .toList();
+
+        Map<Integer, TextChunk> candidates = new LinkedHashMap<>();
+        for (int rank = 0; rank < topK; rank++) {
+            for (List<ScoredChunk> ranking : rankings) {
+                if (rank < ranking.size()) {
+                    TextChunk chunk = ranking.get(rank).getChunk();
+                    candidates.putIfAbsent(chunk.getChunkIndex(), chunk);
+                }
+            }
+        }
+        if (candidates.isEmpty()) {
+            bm25Index.getDocumentChunks(documentId).forEach(chunk -> candidates.put(chunk.getChunkIndex(), chunk));
+        }
+
+        int budget = (int) Math.min(maxTokens, (long) tokenBudget * questions.size());
+        List<TextChunk> selected = fitToBudget(new ArrayList<>(candidates.values()), budget);
+        selected.sort(Comparator.comparingInt(TextChunk::getChunkIndex));
+        return selected;
+    }
+
+    /**
+     * Retrieves the most relevant chunks across all indexed documents for a question
+     * Chunks are selected by score until the token budget is reached
+     * @param question the question
+     * @return the selected chunks, best first (may span several documents)
+     */
+    public List<TextChunk> retrieveAcrossDocuments(String question) {
+        List<TextChunk> candidates = new ArrayList<>();
+        rank(null, question, corpusTopK).forEach(scoredChunk -> candidates.add(scoredChunk.getChunk()));
+        return fitToBudget(candidates, tokenBudget);
+    }
+
+    /**
+     * Ranks chunks for a question according to the retrieval mode
+     * @param documentId the document ID, or null to rank chunks of all documents
+     * @param question the question
+     * @param limit the maximum number of results
+     * @return the top chunks, best first
+     */
+    private List<ScoredChunk> rank(Long documentId, String question, int limit) {
+        if (MODE_BM25.equalsIgnoreCase(retrievalMode)) {
+            return bm25Index.search(question, documentId, limit);
+        }
+
+        float[] queryVector = embeddingService.embed(question);
+        List<ScoredChunk> semantic = documentId != null
+                ? vectorIndex.searchDocument(documentId, queryVector, limit)
+                : vectorIndex.search(queryVector, limit);
+        if (MODE_VECTOR.equalsIgnoreCase(retrievalMode)) {
+            return semantic;
+        }
+        return fuse(bm25Index.search(question, documentId, limit), semantic, limit);
+    }
+
+    /**
+     * Merges two rankings with reciprocal rank fusion: score = sum of 1 / (RRF_K + rank)
+     * Scores from BM25 and cosine similarity are not comparable, ranks are
+     * @param keyword the BM25 ranking
+     * @param semantic the vector ranking
+     * @param limit the maximum number of results
+     * @return the fused ranking, best first
+     */
+    private List<ScoredChunk> fuse(List<ScoredChunk> keyword, List<ScoredChunk> semantic, int limit) {
+        Map<String, TextChunk> chunksByKey = new LinkedHashMap<>();
+        Map<String, Double> fusedScores = new HashMap<>();
+        for (List<ScoredChunk> ranking : List.of(keyword, semantic)) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                TextChunk chunk = ranking.get(rank).getChunk();
+                String key = chunk.getDocumentId() + ":" + chunk.getChunkIndex();
+                chunksByKey.putIfAbsent(key, chunk);
+                fusedScores.merge(key, 1.0 / (RRF_K + rank + 1), Double::sum);
+            }
+        }
+
+        List<ScoredChunk> fused = new ArrayList<>(chunksByKey.size());
+        chunksByKey.forEach((key, chunk) -> fused.add(new ScoredChunk(chunk, fusedScores.get(key))));
+        fused.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return fused.size() > limit ? new ArrayList<>(fused.subList(0, limit)) : fused;
+    }
+
+    /**
+     * Takes chunks in the given order until the token budget is exhausted
+     * The first chunk is always included so the context is never empty
+     * @param candidates the candidate chunks in priority order
+     * @param budget the token budget
+     * @return the chunks that fit the budget
+     */
+    private List<TextChunk> fitToBudget(List<TextChunk> candidates, int budget) {
+        List<TextChunk> selected = new ArrayList<>();
+        int usedTokens = 0;
+        for (TextChunk chunk : candidates) {
+            int chunkTokens = chunk.getTokenCount();
+            if (!selected.isEmpty() && usedTokens + chunkTokens > budget) {
+                break;
+            }
+            selected.add(chunk);
+            usedTokens += chunkTokens;
+        }
+        return selected;
+    }
+}
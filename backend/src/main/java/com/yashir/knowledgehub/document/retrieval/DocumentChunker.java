@@ -0,0 +1,129 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import com.yashir.knowledgehub.llm.service.prompt.TokenCounter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits document text into overlapping chunks for retrieval
+ * Chunk boundaries are moved back to the nearest whitespace so words are not cut in half
+ * Text is consumed as a stream, so documents are chunked without loading their whole text
+ * Each chunk carries its token count, so retrieval fits chunks to the token budget without re-tokenizing them
+ */
+@Component
+@RequiredArgsConstructor
+public class DocumentChunker {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    @Value("${retrieval.chunk.size:1500}")
+    private int chunkSize;
+
+    @Value("${retrieval.chunk.overlap:200}")
+    private int chunkOverlap;
+
+    private final TokenCounter tokenCounter;
+
+    /**
+     * Splits a text stream into overlapping chunks
+     * Only a window of about one chunk of text is held at a time: characters before the next chunk start
+     * are dropped as the window advances, so memory does not grow with the document length
+     * @param documentId the document ID the chunks belong to
+     * @param text the document text, read to the end but not closed
+     * @return the chunks in document order, or an empty list if text is blank
+     * @throws IOException if reading the text fails
+     */
+    public List<TextChunk> chunk(Long documentId, Reader text) throws IOException {
+        List<TextChunk> chunks = new ArrayList<>();
+        StringBuilder window = new StringBuilder(chunkSize + READ_BUFFER_SIZE);
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        // Document position of window[0]; one character before the chunk start is kept for skipToWordStart
+        int windowOffset = 0;
+        boolean endOfText = false;
+        int start = 0;
+        int chunkIndex = 0;
+
+        while (true) {
+            // Read until the window covers a full chunk plus one character, so "end < length" means more text follows
+            while (!endOfText && windowOffset + window.length() <= start + chunkSize) {
+                int read = text.read(buffer);
+                if (read == -1) {
+                    endOfText = true;
+                } else {
+                    window.append(buffer, 0, read);
+                }
+            }
+
+            int length = windowOffset + window.length();
+            if (start >= length) {
+                break;
+            }
+
+            int end = Math.min(start + chunkSize, length);
+            if (end < length) {
+                end = windowOffset + findBreak(window, start - windowOffset, end - windowOffset);
+            }
+
+            String chunkText = window.substring(start - windowOffset, end - windowOffset).trim();
+            if (!chunkText.isEmpty()) {
+                chunks.add(new TextChunk(documentId, chunkIndex++, chunkText, tokenCounter.count(chunkText)));
+            }
+
+            if (end >= length) {
+                break;
+            }
+            // Step forward keeping the configured overlap, but always make progress
+            start = Math.max(end - chunkOverlap, start + 1);
+            start = windowOffset + skipToWordStart(window, start - windowOffset, end - windowOffset);
+
+            int keepFrom = start - 1 - windowOffset;
+            if (keepFrom > 0) {
+                window.delete(0, keepFrom);
+                windowOffset += keepFrom;
+            }
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Moves the chunk end back to the last whitespace in the second half of the chunk
+     * @param text the document text
+     * @param start the chunk start
+     * @param end the tentative chunk end
+     * @return the adjusted chunk end
+     */
+    private int findBreak(CharSequence text, int start, int end) {
+        int minEnd = start + chunkSize / 2;
+        for (int i = end; i > minEnd; i--) {
+            if (Character.isWhitespace(text.charAt(i - 1))) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Advances the chunk start to the beginning of the next word so overlap does not begin mid-word
+     * @param text the document text
+     * @param start the tentative chunk start
+     * @param limit the position not to advance past
+     * @return the adjusted chunk start
+     */
+    private int skipToWordStart(CharSequence text, int start, int limit) {
+        if (start == 0 || Character.isWhitespace(text.charAt(start - 1))) {
+            return start;
+        }
+        int i = start;
+        while (i < limit && !Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i < limit ? i : start;
+    }
+}
@@ -0,0 +1,515 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import com.yashir.knowledgehub.llm.service.EmbeddingServiceInterface;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Approximate nearest neighbour index over chunk embeddings using an HNSW graph
+ * (Hierarchical Navigable Small World, Malkov and Yashunin)
+ *
+ * Vectors live off-heap in memory-mapped segments (MappedVectorStore); the graph adjacency lists
+ * are small int arrays on the heap. Inserts are serialized by a writer lock, while searches take
+ * no lock at all: adjacency lists are replaced copy-on-write and published through
+ * AtomicReferenceArray, so readers always see a consistent list while uploads are being inserted.
+ * Deleted documents are tombstoned and filtered from results but still used for navigation.
+ * Once tombstones make up retrieval.vector.compaction-ratio of the stored vectors, the live vectors are
+ * re-inserted into a fresh graph and store, which replaces the old one in a single volatile write;
+ * searches already running finish on the old graph
+ */
+@Component
+@Slf4j
+public class HnswVectorIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Below this many tombstones a rebuild costs more than the space it reclaims
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 256;
+
+    private final Path directory;
+    private final int dimension;
+    private final int segmentSize;
+    private final int maxConnections;
+    private final int maxConnectionsLayerZero;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final double compactionRatio;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Random random = new Random(42);
+    private int generation;
+
+    // Current graph; replaced as a whole by compaction, so searches read it once and use that snapshot
+    private volatile Graph graph;
+
+    public HnswVectorIndex(EmbeddingServiceInterface embeddingService,
+                           @Value("${retrieval.vector.directory:uploads/vectors}") String directory,
+                           @Value("${retrieval.vector.max-connections:16}") int maxConnections,
+                           @Value("${retrieval.vector.ef-construction:100}") int efConstruction,
+                           @Value("${retrieval.vector.ef-search:64}") int efSearch,
+                           @Value("${retrieval.vector.segment-size:16384}") int segmentSize,
+                           @Value("${retrieval.vector.compaction-ratio:0.3}") double compactionRatio) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.dimension = embeddingService.getDimension();
+        this.segmentSize = segmentSize;
+        this.maxConnections = maxConnections;
+        this.maxConnectionsLayerZero = maxConnections * 2;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(maxConnections);
+        this.compactionRatio = compactionRatio;
+        this.graph = newGraph();
+    }
+
+    /**
+     * Inserts the chunks of a document, tombstoning any previously inserted chunks of that document
+     * @param documentId the document ID
+     * @param chunks the document chunks
+     * @param vectors the normalized embedding of each chunk, in the same order
+     */
+    public void indexDocument(Long documentId, List<TextChunk> chunks, List<float[]> vectors) {
+        writeLock.lock();
+        try {
+            Graph current = graph;
+            tombstone(current, documentId);
+
+            int[] ids = new int[chunks.size()];
+            for (int i = 0; i < chunks.size(); i++) {
+                ids[i] = current.insert(chunks.get(i), vectors.get(i));
+            }
+            current.documentNodes.put(documentId, ids);
+            compactIfNeeded();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store vectors for document " + documentId, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Tombstones all chunks of a document so they no longer appear in results
+     * @param documentId the document ID
+     */
+    public void removeDocument(Long documentId) {
+        writeLock.lock();
+        try {
+            tombstone(graph, documentId);
+            compactIfNeeded();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact the vector index", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether a document has live chunks in the index
+     * @param documentId the document ID
+     * @return true if the document is indexed
+     */
+    public boolean containsDocument(Long documentId) {
+        return graph.documentNodes.containsKey(documentId);
+    }
+
+    /**
+     * Finds the chunks closest to a query vector across all documents
+     * @param query the normalized query vector
+     * @param topK the maximum number of results
+     * @return the most similar live chunks, highest similarity first
+     */
+    public List<ScoredChunk> search(float[] query, int topK) {
+        Graph current = graph;
+        int entry = current.entryPoint;
+        if (entry < 0 || topK <= 0) {
+            return Collections.emptyList();
+        }
+
+        for (int layer = current.node(entry).level; layer > 0; layer--) {
+            entry = current.greedySearch(query, entry, layer);
+        }
+
+        PriorityQueue<Candidate> nearest = current.searchLayer(query, entry, Math.max(efSearch, topK), 0);
+        List<ScoredChunk> results = new ArrayList<>();
+        List<Candidate> ordered = new ArrayList<>(nearest);
+        ordered.sort((a, b) -> Float.compare(b.similarity, a.similarity));
+        for (Candidate candidate : ordered) {
+            Node node = current.node(candidate.id);
+            if (!node.deleted) {
+                results.add(new ScoredChunk(node.chunk, candidate.similarity));
+                if (results.size() == topK) {
+                    break;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Finds the chunks of one document closest to a query vector
+     * A single document has few chunks, so this is an exact scan rather than a graph search
+     * @param documentId the document ID
+     * @param query the normalized query vector
+     * @param topK the maximum number of results
+     * @return the most similar chunks of the document, highest similarity first
+     */
+    public List<ScoredChunk> searchDocument(Long documentId, float[] query, int topK) {
+        Graph current = graph;
+        int[] ids = current.documentNodes.get(documentId);
+        if (ids == null || topK <= 0) {
+            return Collections.emptyList();
+        }
+
+        PriorityQueue<Candidate> best = new PriorityQueue<>((a, b) -> Float.compare(a.similarity, b.similarity));
+        for (int id : ids) {
+            best.offer(new Candidate(id, current.vectorStore.dot(id, query)));
+            if (best.size() > topK) {
+                best.poll();
+            }
+        }
+
+        List<ScoredChunk> results = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Candidate candidate = best.poll();
+            results.add(0, new ScoredChunk(current.node(candidate.id).chunk, candidate.similarity));
+        }
+        return results;
+    }
+
+    /**
+     * Gets the number of vectors held in the store, live and tombstoned
+     * @return the stored vector count
+     */
+    public int getStoredVectorCount() {
+        return graph.vectorStore.size();
+    }
+
+    /**
+     * Gets the number of tombstoned vectors not yet reclaimed by compaction
+     * @return the tombstone count
+     */
+    public int getTombstoneCount() {
+        writeLock.lock();
+        try {
+            return graph.tombstones;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        graph.vectorStore.close();
+    }
+
+    // Writer side (writer lock held)
+
+    private void tombstone(Graph current, Long documentId) {
+        int[] ids = current.documentNodes.remove(documentId);
+        if (ids == null) {
+            return;
+        }
+        for (int id : ids) {
+            current.node(id).deleted = true;
+        }
+        current.tombstones += ids.length;
+    }
+
+    private void compactIfNeeded() throws IOException {
+        Graph current = graph;
+        if (current.tombstones >= MIN_TOMBSTONES_TO_COMPACT
+                && current.tombstones >= current.vectorStore.size() * compactionRatio) {
+            compact();
+        }
+    }
+
+    /**
+     * Re-inserts the live vectors into a new graph and store, then switches searches over to it
+     * The old store's files are deleted; its mappings stay readable until searches still using them finish
+     */
+    private void compact() throws IOException {
+        Graph old = graph;
+        Graph compacted = newGraph();
+        for (Map.Entry<Long, int[]> document : old.documentNodes.entrySet()) {
+            int[] oldIds = document.getValue();
+            int[] ids = new int[oldIds.length];
+            for (int i = 0; i < oldIds.length; i++) {
+                ids[i] = compacted.insert(old.node(oldIds[i]).chunk, old.vectorStore.get(oldIds[i]));
+            }
+            compacted.documentNodes.put(document.getKey(), ids);
+        }
+        graph = compacted;
+        old.vectorStore.close();
+        log.info("Compacted vector index from {} to {} vectors", old.vectorStore.size(), compacted.vectorStore.size());
+    }
+
+    private Graph newGraph() {
+        Path storeDirectory = directory.resolve("generation-" + generation++);
+        try {
+            return new Graph(new MappedVectorStore(storeDirectory, dimension, segmentSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create vector store in " + storeDirectory, e);
+        }
+    }
+
+    private int randomLevel() {
+        return (int) Math.floor(-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private int maxConnectionsFor(int layer) {
+        return layer == 0 ? maxConnectionsLayerZero : maxConnections;
+    }
+
+    /**
+     * One HNSW graph with the store holding its vectors and the vector IDs of each document
+     * Vector IDs are only meaningful within their graph
+     */
+    private final class Graph {
+
+        private final MappedVectorStore vectorStore;
+
+        // Node slots indexed by vector ID; replaced with a larger copy by the writer when full
+        private volatile Node[] nodes = new Node[INITIAL_CAPACITY];
+        private volatile int entryPoint = -1;
+
+        // documentId -> vector IDs of its live chunks
+        private final Map<Long, int[]> documentNodes = new ConcurrentHashMap<>();
+
+        // Written and read by the writer only
+        private int tombstones;
+
+        private Graph(MappedVectorStore vectorStore) {
+            this.vectorStore = vectorStore;
+        }
+
+        // Insertion (writer lock held)
+
+        private int insert(TextChunk chunk, float[] vector) throws IOException {
+            int id = vectorStore.append(vector);
+            int level = randomLevel();
+            Node node = new Node(chunk, level);
+            ensureCapacity(id);
+            nodes[id] = node;
+
+            int entry = entryPoint;
+            if (entry < 0) {
+                entryPoint = id;
+                return id;
+            }
+
+            int topLevel = node(entry).level;
+            for (int layer = topLevel; layer > level; layer--) {
+                entry = greedySearch(vector, entry, layer);
+            }
+
+            for (int layer = Math.min(level, topLevel); layer >= 0; layer--) {
+                PriorityQueue<Candidate> candidates = searchLayer(vector, entry, efConstruction, layer);
+                int[] neighbours = selectNeighbours(candidates, maxConnectionsFor(layer));
+                node.neighbours.set(layer, neighbours);
+
+                for (int neighbour : neighbours) {
+                    linkBack(neighbour, id, layer);
+                }
+                entry = closest(candidates);
+            }
+
+            if (level > topLevel) {
+                entryPoint = id;
+            }
+            return id;
+        }
+
+        /**
+         * Adds a reverse edge, pruning the neighbour's list to its closest connections when it overflows
+         * The new list is built aside and swapped in atomically so readers never observe a partial list
+         */
+        private void linkBack(int neighbourId, int newId, int layer) {
+            Node neighbour = node(neighbourId);
+            int[] current = neighbour.neighbours.get(layer);
+            int[] updated = new int[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = newId;
+
+            int limit = maxConnectionsFor(layer);
+            if (updated.length > limit) {
+                float[] base = vectorStore.get(neighbourId);
+                PriorityQueue<Candidate> ranked = new PriorityQueue<>((a, b) -> Float.compare(a.similarity, b.similarity));
+                for (int id : updated) {
+                    ranked.offer(new Candidate(id, vectorStore.dot(id, base)));
+                }
+                updated = selectNeighbours(ranked, limit);
+            }
+            neighbour.neighbours.set(layer, updated);
+        }
+
+        /**
+         * Selects up to limit neighbours with the heuristic of the HNSW paper (algorithm 4): a candidate is kept
+         * only if it is closer to the base vector than to every neighbour already kept
+         * Plain closest-first selection links a vector only to its own cluster, which leaves clusters disconnected
+         * and searches stuck in the cluster of the entry point; the heuristic keeps the edges between clusters
+         * @param candidates the candidates with their similarity to the base vector
+         * @param limit the maximum number of neighbours
+         * @return the neighbour IDs, closest first
+         */
+        private int[] selectNeighbours(PriorityQueue<Candidate> candidates, int limit) {
+            List<Candidate> ordered = new ArrayList<>(candidates);
+            ordered.sort((a, b) -> Float.compare(b.similarity, a.similarity));
+            if (ordered.size() <= limit) {
+                return ordered.stream().mapToInt(candidate -> candidate.id).toArray();
+            }
+
+            int[] selected = new int[limit];
+            int count = 0;
+            for (Candidate candidate : ordered) {
+                if (count == limit) {
+                    break;
+                }
+                float[] vector = vectorStore.get(candidate.id);
+                boolean diverse = true;
+                for (int i = 0; i < count && diverse; i++) {
+                    diverse = vectorStore.dot(selected[i], vector) < candidate.similarity;
+                }
+                if (diverse) {
+                    selected[count++] = candidate.id;
+                }
+            }
+            return Arrays.copyOf(selected, count);
+        }
+
+        private void ensureCapacity(int id) {
+            Node[] current = nodes;
+            if (id >= current.length) {
+                Node[] grown = new Node[current.length * 2];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                nodes = grown;
+            }
+        }
+
+        // Search (lock-free)
+
+        private int greedySearch(float[] query, int entry, int layer) {
+            int current = entry;
+            float currentSimilarity = vectorStore.dot(current, query);
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int neighbour : node(current).neighboursAt(layer)) {
+                    float similarity = vectorStore.dot(neighbour, query);
+                    if (similarity > currentSimilarity) {
+                        current = neighbour;
+                        currentSimilarity = similarity;
+                        improved = true;
+                    }
+                }
+            }
+            return current;
+        }
+
+        /**
+         * Beam search on one layer
+         * @return a min-heap (worst first) of up to ef nearest candidates
+         */
+        private PriorityQueue<Candidate> searchLayer(float[] query, int entry, int ef, int layer) {
+            BitSet visited = new BitSet();
+            visited.set(entry);
+
+            Candidate start = new Candidate(entry, vectorStore.dot(entry, query));
+            PriorityQueue<Candidate> toExplore = new PriorityQueue<>((a, b) -> Float.compare(b.similarity, a.similarity));
+            PriorityQueue<Candidate> nearest = new PriorityQueue<>((a, b) -> Float.compare(a.similarity, b.similarity));
+            toExplore.offer(start);
+            nearest.offer(start);
+
+            while (!toExplore.isEmpty()) {
+                Candidate current = toExplore.poll();
+                if (nearest.size() >= ef && current.similarity < nearest.peek().similarity) {
+                    break;
+                }
+
+                for (int neighbour : node(current.id).neighboursAt(layer)) {
+                    if (visited.get(neighbour)) {
+                        continue;
+                    }
+                    visited.set(neighbour);
+
+                    float similarity = vectorStore.dot(neighbour, query);
+                    if (nearest.size() < ef || similarity > nearest.peek().similarity) {
+                        Candidate candidate = new Candidate(neighbour, similarity);
+                        toExplore.offer(candidate);
+                        nearest.offer(candidate);
+                        if (nearest.size() > ef) {
+                            nearest.poll();
+                        }
+                    }
+                }
+            }
+            return nearest;
+        }
+
+        /**
+         * Reads the node slot through the volatile array reference so nodes published by the writer are visible
+         */
+        private Node node(int id) {
+            return nodes[id];
+        }
+    }
+
+    private static int closest(PriorityQueue<Candidate> candidates) {
+        Candidate best = null;
+        for (Candidate candidate : candidates) {
+            if (best == null || candidate.similarity > best.similarity) {
+                best = candidate;
+            }
+        }
+        return best.id;
+    }
+
+    private static final class Node {
+        private static final int[] EMPTY = new int[0];
+
+        private final TextChunk chunk;
+        private final int level;
+        private final AtomicReferenceArray<int[]> neighbours;
+        private volatile boolean deleted;
+
+        private Node(TextChunk chunk, int level) {
+            this.chunk = chunk;
+            this.level = level;
+            this.neighbours = new AtomicReferenceArray<>(level + 1);
+            for (int layer = 0; layer <= level; layer++) {
+                neighbours.set(layer, EMPTY);
+            }
+        }
+
+        private int[] neighboursAt(int layer) {
+            return layer < neighbours.length() ? neighbours.get(layer) : EMPTY;
+        }
+    }
+
+    private static final class Candidate {
+        private final int id;
+        private final float similarity;
+
+        private Candidate(int id, float similarity) {
+            this.id = id;
+            this.similarity = similarity;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only store of fixed-dimension float vectors kept off-heap in memory-mapped segment files
+ * A single writer appends vectors; any number of readers may read concurrently.
+ * A vector becomes visible to readers only after size() has been advanced past it
+ */
+public class MappedVectorStore implements AutoCloseable {
+
+    private final Path directory;
+    private final int dimension;
+    private final int vectorsPerSegment;
+    private final List<FloatBuffer> segments = new ArrayList<>();
+
+    // Published snapshot of segments for readers; replaced whenever a segment is added
+    private volatile FloatBuffer[] segmentView = new FloatBuffer[0];
+    private volatile int size;
+
+    /**
+     * Creates a store writing its segment files into the given directory
+     * @param directory the directory for segment files (created if missing)
+     * @param dimension the vector dimension
+     * @param vectorsPerSegment the number of vectors per mapped segment
+     * @throws IOException if the directory cannot be created
+     */
+    public MappedVectorStore(Path directory, int dimension, int vectorsPerSegment) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.dimension = dimension;
+        this.vectorsPerSegment = vectorsPerSegment;
+    }
+
+    /**
+     * Appends a vector; must only be called by one writer at a time
+     * @param vector the vector to append, of length dimension
+     * @return the ID of the stored vector
+     * @throws IOException if a new segment cannot be mapped
+     */
+    public int append(float[] vector) throws IOException {
+        int id = size;
+        int segmentIndex = id / vectorsPerSegment;
+        if (segmentIndex == segments.size()) {
+            addSegment(segmentIndex);
+        }
+
+        FloatBuffer segment = segments.get(segmentIndex);
+        int offset = (id % vectorsPerSegment) * dimension;
+        for (int i = 0; i < dimension; i++) {
+            segment.put(offset + i, vector[i]);
+        }
+
+        // Volatile write publishes the vector contents to readers
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * Computes the dot product between a stored vector and a query vector
+     * @param id the stored vector ID
+     * @param query the query vector
+     * @return the dot product (cosine similarity for normalized vectors)
+     */
+    public float dot(int id, float[] query) {
+        FloatBuffer segment = segmentView[id / vectorsPerSegment];
+        int offset = (id % vectorsPerSegment) * dimension;
+        float sum = 0;
+        for (int i = 0; i < dimension; i++) {
+            sum += segment.get(offset + i) * query[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Copies a stored vector onto the heap
+     * @param id the stored vector ID
+     * @return a copy of the vector
+     */
+    public float[] get(int id) {
+        FloatBuffer segment = segmentView[id / vectorsPerSegment];
+        int offset = (id % vectorsPerSegment) * dimension;
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = segment.get(offset + i);
+        }
+        return vector;
+    }
+
+    /**
+     * Gets the number of published vectors
+     * @return the vector count
+     */
+    public int size() {
+        return size;
+    }
+
+    private void addSegment(int segmentIndex) throws IOException {
+        // The directory may have been removed since construction (the uploads folder is wiped on startup)
+        Files.createDirectories(directory);
+        Path segmentFile = directory.resolve("segment-" + segmentIndex + ".vec");
+        long bytes = (long) vectorsPerSegment * dimension * Float.BYTES;
+
+        try (FileChannel channel = FileChannel.open(segmentFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            segments.add(mapped.order(ByteOrder.nativeOrder()).asFloatBuffer());
+        }
+        segmentView = segments.toArray(new FloatBuffer[0]);
+    }
+
+    /**
+     * Deletes the segment files and their directory; must only be called by the writer
+     * Mappings are released when the buffers are garbage collected, so searches still reading this store
+     * (e.g. one retired by compaction) finish on the unlinked files
+     */
+    @Override
+    public void close() {
+        segments.clear();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            // Segment files live under the uploads folder, which is cleaned on startup anyway
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A chunk returned from a retrieval query together with its relevance score
+ */
+@Data
+@AllArgsConstructor
+public class ScoredChunk {
+    private TextChunk chunk;
+    private double score;
+}
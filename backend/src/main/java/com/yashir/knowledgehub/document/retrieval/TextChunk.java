@@ -0,0 +1,17 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A passage of document text produced by DocumentChunker
+ * Chunk index preserves the original document order of the passage
+ */
+@Data
+@AllArgsConstructor
+public class TextChunk {
+    private Long documentId;
+    private int chunkIndex;
+    private String text;
+    private int tokenCount;  // Tokens of the text, counted once when the document is chunked
+}
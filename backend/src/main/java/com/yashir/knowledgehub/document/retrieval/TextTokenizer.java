@@ -0,0 +1,56 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class for splitting text into lowercase index terms
+ * Shared by indexing and querying so both sides produce identical terms
+ */
+public class TextTokenizer {
+
+    // Common English stop words that carry no retrieval signal, and the fragments left by splitting "'s" and "n't"
+    // Numbers and other single characters are kept: "section 3" and "plan B" must not match "section 4" and "plan C"
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "s", "t", "an", "and", "are", "as", "at", "be", "by", "for", "from",
+            "has", "he", "in", "is", "it", "its", "of", "on", "or", "that", "the",
+            "to", "was", "were", "will", "with", "what", "which", "who", "whom",
+            "this", "these", "those", "tell", "me", "about", "can", "you",
+            "please", "how", "do", "does", "did", "would", "could", "should"
+    );
+
+    /**
+     * Splits text into lowercase terms on non letter/digit boundaries and removes stop words
+     * @param text the text to tokenize
+     * @return the list of terms in text order (may contain duplicates)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                addTerm(terms, current);
+            }
+        }
+        if (current.length() > 0) {
+            addTerm(terms, current);
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, StringBuilder current) {
+        String term = current.toString();
+        current.setLength(0);
+        if (!STOP_WORDS.contains(term)) {
+            terms.add(term);
+        }
+    }
+}
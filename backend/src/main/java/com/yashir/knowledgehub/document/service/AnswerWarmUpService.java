@@ -0,0 +1,170 @@
+package com.yashir.knowledgehub.document.service;
+
+import com.yashir.knowledgehub.document.dto.QuestionRequest;
+import com.yashir.knowledgehub.document.model.Document;
+import com.yashir.knowledgehub.document.model.DocumentType;
+import com.yashir.knowledgehub.document.util.HeadingDetector;
+import com.yashir.knowledgehub.document.util.QuestionNormalizer;
+import com.yashir.knowledgehub.llm.exception.LLMCapacityExceededException;
+import com.yashir.knowledgehub.llm.exception.LLMUnavailableException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service that answers likely questions about a newly ingested document in the background
+ * Questions come from templates per document type plus the document's headings; they are answered through
+ * DocumentQAService, so the answers land under the same QuestionNormalizer keys in every cache tier and the
+ * first user asking one of them is served from memory
+ * Runs on a single low-priority thread and is disabled by default (qa.warm-up.enabled), since every
+ * question costs an LLM call
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnswerWarmUpService {
+
+    private static final List<String> COMMON_QUESTIONS = List.of(
+            "What is this document about?",
+            "What are the main points of this document?"
+    );
+
+    private static final Map<DocumentType, List<String>> TYPE_QUESTIONS = Map.of(
+            DocumentType.POLICY, List.of(
+                    "What is the purpose of this policy?",
+                    "Who does this policy apply to?",
+                    "What are the main rules and requirements?",
+                    "What happens if the policy is not followed?",
+                    "When does this policy take effect?"),
+            DocumentType.REPORT, List.of(
+                    "What are the key findings?",
+                    "What period does this report cover?",
+                    "What are the conclusions and recommendations?",
+                    "Which metrics are reported?"),
+            DocumentType.MANUAL, List.of(
+                    "What is this manual for?",
+                    "How do I get started?",
+                    "What are the main steps?",
+                    "How do I troubleshoot common problems?"),
+            DocumentType.UNDEFINED, List.of()
+    );
+
+    private static final String HEADING_QUESTION_TEMPLATE = "What does the document say about %s?";
+
+    private final DocumentQAService documentQAService;
+    private final ExtractedTextStore extractedTextStore;
+    private final ThreadPoolTaskExecutor warmUpExecutor;
+
+    @Value("${qa.warm-up.enabled:false}")
+    private boolean enabled;
+
+    @Value("${qa.warm-up.max-questions:10}")
+    private int maxQuestions;
+
+    @Value("${qa.warm-up.max-heading-questions:5}")
+    private int maxHeadingQuestions;
+
+    @Value("${qa.warm-up.heading-scan-chars:200000}")
+    private int headingScanChars;
+
+    /**
+     * Queues a document for warm-up; does nothing if warm-up is disabled or its queue is full
+     * @param document the ingested document, with its extracted text in the store
+     */
+    public void warmUp(Document document) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            warmUpExecutor.execute(() -> answerLikelyQuestions(document));
+        } catch (TaskRejectedException e) {
+            log.debug("Warm-up queue full, skipping document {}", document.getId());
+        }
+    }
+
+    private void answerLikelyQuestions(Document document) {
+        List<String> questions = buildQuestions(document);
+        log.debug("Warm-up questions for document {}: {}", document.getId(), questions);
+        int answered = 0;
+        for (String question : questions) {
+            try {
+                documentQAService.answerQuestion(new QuestionRequest(document.getId(), question));
+                answered++;
+            } catch (LLMUnavailableException | LLMCapacityExceededException e) {
+                // The LLM failed or is saturated - the remaining questions would fail too, and nothing was cached
+                log.warn("Warm-up of document {} stopped, the LLM cannot answer: {}", document.getId(), e.getMessage());
+                break;
+            } catch (RuntimeException e) {
+                // The document may have been deleted meanwhile - stop warming it
+                log.debug("Warm-up of document {} stopped: {}", document.getId(), e.getMessage());
+                break;
+            }
+        }
+        log.info("Warmed up {} of {} likely questions for document {}", answered, questions.size(), document.getId());
+    }
+
+    /**
+     * Builds the warm-up questions of a document: common and type templates first, then headings
+     * Questions with the same cache key are asked only once
+     * @param document the document
+     * @return at most qa.warm-up.max-questions questions
+     */
+    private List<String> buildQuestions(Document document) {
+        Map<String, String> questionsByKey = new LinkedHashMap<>();
+        List<String> candidates = new ArrayList<>(COMMON_QUESTIONS);
+        candidates.addAll(TYPE_QUESTIONS.getOrDefault(document.getType(), List.of()));
+        for (String heading : findHeadings(document.getId())) {
+            candidates.add(String.format(HEADING_QUESTION_TEMPLATE, heading));
+        }
+
+        for (String question : candidates) {
+            if (questionsByKey.size() >= maxQuestions) {
+                break;
+            }
+            questionsByKey.putIfAbsent(QuestionNormalizer.normalize(question), question);
+        }
+        return new ArrayList<>(questionsByKey.values());
+    }
+
+    /**
+     * Finds headings in the beginning of a document's extracted text
+     * A heading is a short line without closing punctuation that is numbered, in capitals or in title case
+     * @param documentId the document ID
+     * @return at most qa.warm-up.max-heading-questions headings, in document order
+     */
+    private List<String> findHeadings(Long documentId) {
+        List<String> headings = new ArrayList<>();
+        Optional<Reader> stored = extractedTextStore.openReader(documentId);
+        if (stored.isEmpty()) {
+            return headings;
+        }
+
+        try (BufferedReader reader = new BufferedReader(stored.get())) {
+            long scanned = 0;
+            String line;
+            while (headings.size() < maxHeadingQuestions && scanned < headingScanChars
+                    && (line = reader.readLine()) != null) {
+                scanned += line.length() + 1;
+                String heading = HeadingDetector.toHeading(line.strip());
+                if (heading != null && !headings.contains(heading)) {
+                    headings.add(heading);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Failed to scan headings of document {}: {}", documentId, e.getMessage());
+        }
+        return headings;
+    }
+}
@@ -0,0 +1,66 @@
+package com.yashir.knowledgehub.document.service;
+
+import com.yashir.knowledgehub.document.ingestion.BatchCollector;
+import com.yashir.knowledgehub.document.model.DocumentType;
+import com.yashir.knowledgehub.llm.service.LLMServiceFactory;
+import com.yashir.knowledgehub.llm.service.dto.DocumentPreview;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects pending document classifications into batches sent as one LLM request
+ * (classification.batch.size previews, or what arrived within classification.batch.window)
+ * During bulk ingestion this turns N classification round trips into N / size, with the shared prompt
+ * instructions sent once per batch
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClassificationBatchCollector extends BatchCollector<DocumentPreview, DocumentType> {
+
+    private final LLMServiceFactory llmServiceFactory;
+
+    private final ThreadPoolTaskScheduler ingestionBatchScheduler;
+
+    @Value("${classification.batch.size:8}")
+    private int batchSize;
+
+    @Value("${classification.batch.window:200ms}")
+    private Duration window;
+
+    @Override
+    protected int batchSize() {
+        return batchSize;
+    }
+
+    @Override
+    protected Duration window() {
+        return window;
+    }
+
+    @Override
+    protected ThreadPoolTaskScheduler scheduler() {
+        return ingestionBatchScheduler;
+    }
+
+    /**
+     * Classifies a batch with the configured LLM service
+     * Documents the service returned no type for are UNDEFINED
+     */
+    @Override
+    protected List<DocumentType> process(List<DocumentPreview> previews) {
+        List<DocumentType> types = new ArrayList<>(llmServiceFactory.getLLMService().identifyDocumentTypes(previews));
+        log.debug("Classified a batch of {} documents: {}", previews.size(), types);
+        while (types.size() < previews.size()) {
+            types.add(DocumentType.UNDEFINED);
+        }
+        return types.subList(0, previews.size());
+    }
+}
@@ -0,0 +1,128 @@
+package com.yashir.knowledgehub.document.service;
+
+import com.yashir.knowledgehub.document.dto.CorpusQuestionRequest;
+import com.yashir.knowledgehub.document.dto.CorpusQuestionResponse;
+import com.yashir.knowledgehub.document.model.Document;
+import com.yashir.knowledgehub.document.model.DocumentType;
+import com.yashir.knowledgehub.document.repository.DocumentRepository;
+import com.yashir.knowledgehub.document.retrieval.ChunkRetrievalService;
+import com.yashir.knowledgehub.document.retrieval.TextChunk;
+import com.yashir.knowledgehub.llm.service.LLMServiceFactory;
+import com.yashir.knowledgehub.llm.service.LLMServiceInterface;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for answering questions across all documents
+ * Searches the retrieval index built at upload, merges the best passages from several documents
+ * into one budgeted context and makes a single LLM call per question
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CorpusQAService {
+
+    private static final String NO_DOCUMENTS_ANSWER = "No relevant documents were found for this question.";
+
+    private final DocumentRepository documentRepository;
+    private final ChunkRetrievalService chunkRetrievalService;
+    private final LLMServiceFactory llmServiceFactory;
+
+    /**
+     * Answers a question using passages from all documents
+     * Not transactional: the documents are read in the repository's own short transaction, so no connection
+     * is held while the LLM call waits for a Q&A slot and an answer
+     * @param request the question request
+     * @return the answer and the IDs of the documents used as sources
+     */
+    public CorpusQuestionResponse answerQuestion(CorpusQuestionRequest request) {
+        // 1. Retrieve the best passages across all documents, grouped by document in rank order
+        Map<Long, List<TextChunk>> chunksByDocument = groupByDocument(
+                chunkRetrievalService.retrieveAcrossDocuments(request.getQuestion()));
+
+        // 2. Load the source documents (skips documents deleted since they were retrieved)
+        Map<Long, Document> documents = documentRepository.findAllById(chunksByDocument.keySet()).stream()
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+        chunksByDocument.keySet().retainAll(documents.keySet());
+
+        if (chunksByDocument.isEmpty()) {
+            return new CorpusQuestionResponse(NO_DOCUMENTS_ANSWER, List.of());
+        }
+
+        // 3. Build one context from all selected passages
+        String context = buildCorpusContext(chunksByDocument, documents);
+        log.debug("Corpus Q&A context from {} documents: {} chars", chunksByDocument.size(), context.length());
+
+        // 4. Single LLM call for the whole question
+        LLMServiceInterface llmService = llmServiceFactory.getLLMService();
+        String answer = llmService.answerQuestion(request.getQuestion(), context, resolveType(documents.values()));
+
+        return new CorpusQuestionResponse(answer, new ArrayList<>(chunksByDocument.keySet()));
+    }
+
+    /**
+     * Groups chunks by document, keeping documents in order of their best ranked chunk
+     * and chunks within a document in document order
+     * @param chunks the retrieved chunks, best first
+     * @return the chunks grouped by document ID
+     */
+    private Map<Long, List<TextChunk>> groupByDocument(List<TextChunk> chunks) {
+        Map<Long, List<TextChunk>> grouped = new LinkedHashMap<>();
+        for (TextChunk chunk : chunks) {
+            grouped.computeIfAbsent(chunk.getDocumentId(), id -> new ArrayList<>()).add(chunk);
+        }
+        grouped.values().forEach(list -> list.sort(Comparator.comparingInt(TextChunk::getChunkIndex)));
+        return grouped;
+    }
+
+    /**
+     * Builds context string with a titled section of excerpts per source document
+     * @param chunksByDocument the selected chunks grouped by document
+     * @param documents the source documents by ID
+     * @return formatted context string
+     */
+    private String buildCorpusContext(Map<Long, List<TextChunk>> chunksByDocument, Map<Long, Document> documents) {
+        StringBuilder context = new StringBuilder();
+        context.append("The following excerpts come from ").append(chunksByDocument.size())
+                .append(" document(s). Mention the document title when you use its information.\n\n");
+
+        chunksByDocument.forEach((documentId, chunks) -> {
+            context.append("Document Title: ").append(documents.get(documentId).getName()).append("\n");
+            context.append("---\n");
+            for (int i = 0; i < chunks.size(); i++) {
+                if (i > 0) {
+                    context.append("\n[...]\n");
+                }
+                context.append(chunks.get(i).getText());
+            }
+            context.append("\n---\n\n");
+        });
+        return context.toString();
+    }
+
+    /**
+     * Uses the document type for type-specific prompt instructions only when all sources share it
+     * @param documents the source documents
+     * @return the shared document type, or UNDEFINED for mixed sources
+     */
+    private DocumentType resolveType(Iterable<Document> documents) {
+        DocumentType shared = null;
+        for (Document document : documents) {
+            if (shared == null) {
+                shared = document.getType();
+            } else if (shared != document.getType()) {
+                return DocumentType.UNDEFINED;
+            }
+        }
+        return shared != null ? shared : DocumentType.UNDEFINED;
+    }
+}
@@ -0,0 +1,66 @@
+package com.yashir.knowledgehub.document.service;
+
+import com.yashir.knowledgehub.document.ingestion.BatchCollector;
+import com.yashir.knowledgehub.document.model.Document;
+import com.yashir.knowledgehub.document.repository.DocumentRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Collects new document rows of concurrent ingestion jobs and inserts them together
+ * Each batch is saved in one transaction; with sequence IDs and hibernate.jdbc.batch_size the rows
+ * go to the database as JDBC batch inserts instead of one statement and transaction per document
+ * If a batch fails (e.g. one row violates a column constraint) its rows are retried one per transaction,
+ * so only the jobs whose own row fails are failed
+ * Batches are written on their own scheduler (documentBatchScheduler), so slow classification batches never
+ * delay the inserts
+ */
+@Component
+@RequiredArgsConstructor
+public class DocumentBatchWriter extends BatchCollector<Document, Document> {
+
+    private final DocumentRepository documentRepository;
+    private final ThreadPoolTaskScheduler documentBatchScheduler;
+
+    @Value("${ingestion.persist.batch-size:50}")
+    private int batchSize;
+
+    @Value("${ingestion.persist.window:50ms}")
+    private Duration window;
+
+    @Override
+    protected int batchSize() {
+        return batchSize;
+    }
+
+    @Override
+    protected Duration window() {
+        return window;
+    }
+
+    @Override
+    protected ThreadPoolTaskScheduler scheduler() {
+        return documentBatchScheduler;
+    }
+
+    @Override
+    protected List<Document> process(List<Document> documents) {
+        try {
+            return documentRepository.saveAll(documents);
+        } catch (RuntimeException e) {
+            // IDs taken from the sequence were rolled back with the transaction; a retry must insert the rows anew
+            documents.forEach(document -> document.setId(null));
+            throw e;
+        }
+    }
+
+    @Override
+    protected boolean retryItemsOfFailedBatch() {
+        return true;
+    }
+}
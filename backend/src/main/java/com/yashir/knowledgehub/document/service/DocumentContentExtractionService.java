@@ -1,80 +1,191 @@
 package com.yashir.knowledgehub.document.service;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.util.unit.DataSize;
 
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageTree;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.UnsupportedFileFormatException;
 import org.apache.poi.hwpf.HWPFDocument;
-import org.apache.poi.hwpf.extractor.WordExtractor;
+import org.apache.poi.hwpf.usermodel.Range;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.xwpf.usermodel.IBodyElement;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFSDT;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
 
+import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for extracting text content from various document formats
  * Follows Single Responsibility Principle - handles only content extraction
  * Used by both DocumentTypeIdentificationService and DocumentQAService to avoid code duplication
+ * Files are read from disk through random-access readers and text is returned as segments pulled on demand,
+ * so consumers can process a document incrementally without holding its whole text
+ * PDFs with many pages are split into page ranges that are extracted in parallel on a dedicated
+ * fork-join pool (PdfExtractionPoolConfig)
+ * Bounded previews (extractPreview) parse only the pages or paragraphs they need
+ * Extractions are timed as document.extraction, tagged with file format, file size class, operation
+ * (full or preview) and outcome; full extractions count only the time spent opening and reading segments,
+ * not the time the consumer spends on them
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class DocumentContentExtractionService {
 
     /**
-     * Extracts text content from a MultipartFile (used during upload)
-     * @param file the uploaded file
-     * @param fileName the file name
-     * @return the extracted text content, or empty string if extraction fails or file type is unsupported
+     * Version of the extraction logic
+     * Increment when extraction output changes so stored text from older versions is re-extracted
+     */
+    public static final int EXTRACTOR_VERSION = 2;
+
+    private static final int TEXT_READ_BUFFER_SIZE = 8192;
+
+    private static final String PDF_READ_MODE_MAPPED = "mapped";
+
+    private static final String PREVIEW_SAMPLE_SEPARATOR = "\n[...]\n";
+
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    private static final String EXTRACTION_TIMER = "document.extraction";
+    private static final String EXTRACTION_SIZE_SUMMARY = "document.extracted.size";
+    private static final String OPERATION_FULL = "full";
+    private static final String OPERATION_PREVIEW = "preview";
+
+    // Upper bounds of the file size classes used as a metric tag, and their labels (one more than bounds)
+    private static final long[] SIZE_CLASS_BOUNDS = {100L << 10, 1L << 20, 10L << 20, 100L << 20};
+    private static final String[] SIZE_CLASS_LABELS = {"<100KB", "<1MB", "<10MB", "<100MB", ">=100MB"};
+
+    @Value("${extraction.pdf.read-mode:buffered}")
+    private String pdfReadMode;
+
+    @Value("${extraction.pdf.scratch-main-memory:16MB}")
+    private DataSize pdfScratchMainMemory;
+
+    @Value("${extraction.pdf.scratch-dir:}")
+    private String pdfScratchDir;
+
+    @Value("${extraction.pdf.parallel-threshold-pages:64}")
+    private int pdfParallelThresholdPages;
+
+    @Value("${extraction.pdf.pages-per-task:16}")
+    private int pdfPagesPerTask;
+
+    private final ForkJoinPool pdfExtractionPool;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Opens the text of a stored file as segments in document order - used for ingestion and for Q&A on existing documents
+     * PDFs are split per page (per page range when extracted in parallel), Word documents per paragraph or table
+     * and text files into fixed-size blocks
+     * @param filePath the path to the stored file
+     * @param fileName the file name (for determining file type)
+     * @return the segments, empty if the file is missing or the file type is unsupported; must be closed
+     * @throws IOException if the file cannot be opened
      */
-    public String extractContentFromMultipartFile(MultipartFile file, String fileName) {
+    public TextSegmentIterator openSegments(Path filePath, String fileName) throws IOException {
         if (fileName == null) {
-            return "";
+            return TextSegmentIterator.empty();
+        }
+
+        if (!Files.exists(filePath)) {
+            log.warn("File not found at path: {}", filePath);
+            return TextSegmentIterator.empty();
         }
 
         String lowerFileName = fileName.toLowerCase();
+        long fileSize = Files.size(filePath);
+        long startNanos = System.nanoTime();
 
         // Handle PDF files
         if (lowerFileName.endsWith(".pdf")) {
-            return extractPdfContentFromMultipartFile(file);
+            return timed(openPdfSegments(filePath), "pdf", fileSize, startNanos);
         }
 
         // Handle Word documents (.doc and .docx)
         if (lowerFileName.endsWith(".doc")) {
-            return extractDocContentFromMultipartFile(file);
+            return timed(iterate(openDocParagraphs(filePath)), "doc", fileSize, startNanos);
         }
         if (lowerFileName.endsWith(".docx")) {
-            return extractDocxContentFromMultipartFile(file);
+            return timed(iterate(openDocxBodyElements(filePath)), "docx", fileSize, startNanos);
         }
 
         // Handle plain text files
         if (isTextFile(fileName)) {
-            try {
-                return new String(file.getBytes(), StandardCharsets.UTF_8);
-            } catch (IOException e) {
-                log.warn("Could not read content of file {}: {}", fileName, e.getMessage());
-                return "";
-            }
+            return timed(openTextSegments(filePath), "txt", fileSize, startNanos);
         }
 
         // Return empty for unsupported file types
-        return "";
+        log.warn("Unsupported file type for content extraction: {}", fileName);
+        return TextSegmentIterator.empty();
+    }
+
+    /**
+     * Opens the text of a stored file as a character stream
+     * Text is extracted lazily as the reader advances, so memory does not grow with the document length
+     * @param filePath the path to the stored file
+     * @param fileName the file name (for determining file type)
+     * @return the reader, empty if the file is missing or the file type is unsupported; must be closed
+     * @throws IOException if the file cannot be opened
+     */
+    public Reader openReader(Path filePath, String fileName) throws IOException {
+        return new TextSegmentReader(openSegments(filePath, fileName));
     }
 
     /**
-     * Extracts text content from a stored file (Path) - used for Q&A on existing documents
+     * Extracts a bounded preview of a stored file, e.g. for classification
+     * Parsing stops once the character budget is reached: only the first pages of a PDF, the first paragraphs
+     * of a Word document and the first bytes of a text file are read, so the cost does not grow with the document
+     * In sampled mode the budget is split between the beginning, the middle and the end of the document
+     * (joined by "[...]" markers); documents that fit the budget are returned whole in either mode
      * @param filePath the path to the stored file
      * @param fileName the file name (for determining file type)
-     * @return the extracted text content, or empty string if extraction fails or file type is unsupported
+     * @param maxChars the maximum preview length
+     * @param sampled whether to sample the beginning, middle and end instead of taking only the beginning
+     * @return the preview, or empty string if the file is missing or the file type is unsupported
      * @throws IOException if file reading fails
      */
-    public String extractContentFromPath(Path filePath, String fileName) throws IOException {
+    public String extractPreview(Path filePath, String fileName, int maxChars, boolean sampled) throws IOException {
         if (fileName == null) {
             return "";
         }
@@ -85,28 +196,45 @@ public class DocumentContentExtractionService {
         }
 
         String lowerFileName = fileName.toLowerCase();
-
-        // Handle PDF files
-        if (lowerFileName.endsWith(".pdf")) {
-            return extractPdfContentFromPath(filePath);
+        String format;
+        if (isTextFile(fileName)) {
+            format = "txt";
+        } else if (lowerFileName.endsWith(".pdf")) {
+            format = "pdf";
+        } else if (lowerFileName.endsWith(".doc")) {
+            format = "doc";
+        } else if (lowerFileName.endsWith(".docx")) {
+            format = "docx";
+        } else {
+            log.warn("Unsupported file type for content extraction: {}", fileName);
+            return "";
         }
 
-        // Handle Word documents (.doc and .docx)
-        if (lowerFileName.endsWith(".doc")) {
-            return extractDocContentFromPath(filePath);
-        }
-        if (lowerFileName.endsWith(".docx")) {
-            return extractDocxContentFromPath(filePath);
+        long fileSize = Files.size(filePath);
+        long startNanos = System.nanoTime();
+        boolean failed = true;
+        try {
+            String preview = previewByFormat(filePath, format, maxChars, sampled);
+            failed = false;
+            return preview;
+        } finally {
+            recordExtraction(format, OPERATION_PREVIEW, fileSize, System.nanoTime() - startNanos, failed);
         }
+    }
 
-        // Handle plain text files
-        if (isTextFile(fileName)) {
-            return new String(Files.readAllBytes(filePath), StandardCharsets.UTF_8);
+    private String previewByFormat(Path filePath, String format, int maxChars, boolean sampled) throws IOException {
+        if (format.equals("txt")) {
+            return previewTextFile(filePath, maxChars, sampled);
         }
 
-        // Return empty for unsupported file types
-        log.warn("Unsupported file type for content extraction: {}", fileName);
-        return "";
+        SegmentSource source = switch (format) {
+            case "pdf" -> openPdfPages(filePath);
+            case "doc" -> openDocParagraphs(filePath);
+            default -> openDocxBodyElements(filePath);
+        };
+        try (source) {
+            return sampled ? samplePreview(source, maxChars) : headPreview(source, maxChars);
+        }
     }
 
     /**
@@ -122,77 +250,564 @@ public class DocumentContentExtractionService {
         return lowerFileName.endsWith(".txt");
     }
 
-    // MultipartFile extraction methods
+    /**
+     * Random access to the segments (pages, paragraphs) of an opened document
+     * Backs both sequential reading and previews, which only parse the segments they ask for
+     */
+    private interface SegmentSource extends Closeable {
 
-    private String extractPdfContentFromMultipartFile(MultipartFile file) {
-        try (InputStream inputStream = file.getInputStream();
-             PDDocument document = Loader.loadPDF(inputStream.readAllBytes())) {
-            
-            PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            return text;
-        } catch (IOException e) {
-            log.warn("Could not extract text from PDF file: {}", e.getMessage());
-            return "";
+        int size();
+
+        String get(int index) throws IOException;
+    }
+
+    /**
+     * Iterates all segments of a source in order, closing the source when the iterator is closed
+     * @param source the segment source
+     * @return the segment iterator
+     */
+    private TextSegmentIterator iterate(SegmentSource source) {
+        Iterator<String> segments = new Iterator<>() {
+            private int nextIndex;
+
+            @Override
+            public boolean hasNext() {
+                return nextIndex < source.size();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return source.get(nextIndex++);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return TextSegmentIterator.of(segments, source);
+    }
+
+    // Metrics
+
+    /**
+     * Wraps opened segments so the extraction is recorded when they are closed
+     * @param segments the opened segments
+     * @param format the file format tag
+     * @param fileSize the size of the extracted file in bytes
+     * @param startNanos when opening the file started
+     * @return the timed segments
+     */
+    private TextSegmentIterator timed(TextSegmentIterator segments, String format, long fileSize, long startNanos) {
+        return new TimedSegments(segments, format, fileSize, System.nanoTime() - startNanos);
+    }
+
+    private void recordExtraction(String format, String operation, long fileSize, long nanos, boolean failed) {
+        Timer.builder(EXTRACTION_TIMER)
+                .description("Time spent extracting text from stored files")
+                .tag("format", format)
+                .tag("size", sizeClass(fileSize))
+                .tag("operation", operation)
+                .tag("outcome", failed ? "error" : "success")
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (OPERATION_FULL.equals(operation)) {
+            DistributionSummary.builder(EXTRACTION_SIZE_SUMMARY)
+                    .description("Size of files whose full text was extracted")
+                    .baseUnit("bytes")
+                    .tag("format", format)
+                    .register(meterRegistry)
+                    .record(fileSize);
         }
     }
 
-    private String extractDocContentFromMultipartFile(MultipartFile file) {
-        try (InputStream inputStream = file.getInputStream();
-             HWPFDocument document = new HWPFDocument(inputStream);
-             WordExtractor extractor = new WordExtractor(document)) {
-            
-            String text = extractor.getText();
-            return text;
-        } catch (IOException e) {
-            log.warn("Could not extract text from .doc file: {}", e.getMessage());
-            return "";
+    private static String sizeClass(long fileSize) {
+        for (int i = 0; i < SIZE_CLASS_BOUNDS.length; i++) {
+            if (fileSize < SIZE_CLASS_BOUNDS[i]) {
+                return SIZE_CLASS_LABELS[i];
+            }
         }
+        return SIZE_CLASS_LABELS[SIZE_CLASS_BOUNDS.length];
     }
 
-    private String extractDocxContentFromMultipartFile(MultipartFile file) {
-        try (InputStream inputStream = file.getInputStream();
-             XWPFDocument document = new XWPFDocument(inputStream);
-             XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
-            
-            String text = extractor.getText();
-            return text;
-        } catch (IOException e) {
-            log.warn("Could not extract text from .docx file: {}", e.getMessage());
-            return "";
+    /**
+     * Segments that add up the time spent in hasNext() and next() and record it, once, on close()
+     * A read failure marks the extraction as failed
+     */
+    private final class TimedSegments implements TextSegmentIterator {
+
+        private final TextSegmentIterator segments;
+        private final String format;
+        private final long fileSize;
+        private long nanos;
+        private boolean failed;
+        private boolean recorded;
+
+        private TimedSegments(TextSegmentIterator segments, String format, long fileSize, long openNanos) {
+            this.segments = segments;
+            this.format = format;
+            this.fileSize = fileSize;
+            this.nanos = openNanos;
+        }
+
+        @Override
+        public boolean hasNext() {
+            long start = System.nanoTime();
+            try {
+                return segments.hasNext();
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public String next() {
+            long start = System.nanoTime();
+            try {
+                return segments.next();
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                segments.close();
+            } finally {
+                if (!recorded) {
+                    recorded = true;
+                    recordExtraction(format, OPERATION_FULL, fileSize, nanos, failed);
+                }
+            }
         }
     }
 
+    // Preview methods
+
+    /**
+     * Takes segments from the start until the budget is reached; later segments are never parsed
+     * @param source the segment source
+     * @param maxChars the maximum preview length
+     * @return the preview
+     * @throws IOException if reading a segment fails
+     */
+    private String headPreview(SegmentSource source, int maxChars) throws IOException {
+        StringBuilder preview = new StringBuilder(maxChars);
+        appendSegments(source, 0, maxChars, preview);
+        return preview.toString();
+    }
+
+    /**
+     * Samples the beginning, middle and end of a document, a third of the budget each
+     * @param source the segment source
+     * @param maxChars the maximum preview length, including the sample separators
+     * @return the preview
+     * @throws IOException if reading a segment fails
+     */
+    private String samplePreview(SegmentSource source, int maxChars) throws IOException {
+        StringBuilder preview = new StringBuilder(maxChars);
+        int segmentCount = source.size();
+        int headEnd = appendSegments(source, 0, maxChars, preview);
+        if (headEnd >= segmentCount || segmentCount < 3) {
+            // The whole document fits, or there are too few segments to sample from
+            return preview.toString();
+        }
+
+        int sampleChars = sampleLength(maxChars);
+        preview.setLength(sampleChars);
+        preview.append(PREVIEW_SAMPLE_SEPARATOR);
+        int middleEnd = appendSegments(source, segmentCount / 2, sampleChars, preview);
+        preview.append(PREVIEW_SAMPLE_SEPARATOR);
+        preview.append(tailSample(source, middleEnd, sampleChars));
+        return preview.toString();
+    }
+
+    /**
+     * Appends segments starting at an index until maxChars more characters have been appended
+     * @param source the segment source
+     * @param fromIndex the first segment to append
+     * @param maxChars the maximum number of characters to append
+     * @param preview the preview being built
+     * @return the index after the last appended segment
+     * @throws IOException if reading a segment fails
+     */
+    private int appendSegments(SegmentSource source, int fromIndex, int maxChars, StringBuilder preview) throws IOException {
+        int limit = preview.length() + maxChars;
+        int index = fromIndex;
+        while (index < source.size() && preview.length() < limit) {
+            preview.append(source.get(index++));
+        }
+        if (preview.length() > limit) {
+            preview.setLength(limit);
+        }
+        return index;
+    }
+
+    /**
+     * Collects the last maxChars characters of a document, reading segments backwards from the end
+     * @param source the segment source
+     * @param fromIndex the first segment that may be included (segments before it are already sampled)
+     * @param maxChars the maximum sample length
+     * @return the tail sample
+     * @throws IOException if reading a segment fails
+     */
+    private String tailSample(SegmentSource source, int fromIndex, int maxChars) throws IOException {
+        Deque<String> segments = new ArrayDeque<>();
+        int length = 0;
+        for (int index = source.size() - 1; index >= fromIndex && length < maxChars; index--) {
+            String segment = source.get(index);
+            segments.addFirst(segment);
+            length += segment.length();
+        }
+        String tail = String.join("", segments);
+        return tail.substring(Math.max(0, tail.length() - maxChars));
+    }
+
+    /**
+     * Previews a text file with bounded reads at the start (and middle and end when sampled) of the file
+     * @param filePath the text file
+     * @param maxChars the maximum preview length
+     * @param sampled whether to sample the beginning, middle and end
+     * @return the preview
+     * @throws IOException if reading fails
+     */
+    private String previewTextFile(Path filePath, int maxChars, boolean sampled) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // UTF-8 uses at least one byte per character, so a file of at most maxChars bytes fits whole
+            if (!sampled || size <= maxChars) {
+                return readTextSample(channel, 0, maxChars);
+            }
+
+            int sampleChars = sampleLength(maxChars);
+            return readTextSample(channel, 0, sampleChars)
+                    + PREVIEW_SAMPLE_SEPARATOR + readTextSample(channel, size / 2, sampleChars)
+                    + PREVIEW_SAMPLE_SEPARATOR + readTextSample(channel, size - sampleChars, sampleChars);
+        }
+    }
+
+    /**
+     * Decodes at most maxChars characters starting at a byte offset
+     * The decoder reads the channel in small buffers, so only a few kilobytes are read whatever the file size
+     * @param channel the open file channel
+     * @param offset the byte offset to start at
+     * @param maxChars the maximum number of characters
+     * @return the decoded text
+     * @throws IOException if reading fails
+     */
+    private String readTextSample(FileChannel channel, long offset, int maxChars) throws IOException {
+        channel.position(offset);
+        // Not closed: closing the reader would close the shared channel
+        Reader reader = Channels.newReader(channel, newUtf8Decoder(), -1);
+        char[] buffer = new char[maxChars];
+        int count = 0;
+        int read;
+        while (count < maxChars && (read = reader.read(buffer, count, maxChars - count)) != -1) {
+            count += read;
+        }
+
+        // An offset inside a multi-byte character decodes to replacement characters first
+        int start = 0;
+        while (offset > 0 && start < count && buffer[start] == REPLACEMENT_CHARACTER) {
+            start++;
+        }
+        return new String(buffer, start, count - start);
+    }
+
+    private int sampleLength(int maxChars) {
+        return Math.max(0, (maxChars - 2 * PREVIEW_SAMPLE_SEPARATOR.length()) / 3);
+    }
+
     // Path extraction methods
 
-    private String extractPdfContentFromPath(Path filePath) throws IOException {
-        try (InputStream inputStream = Files.newInputStream(filePath);
-             PDDocument document = Loader.loadPDF(inputStream.readAllBytes())) {
-            
+    private TextSegmentIterator openPdfSegments(Path filePath) throws IOException {
+        SegmentSource pages = openPdfPages(filePath);
+        int pageCount = pages.size();
+        // Splitting only pays off when several workers can run; each range reloads the document
+        if (pageCount >= pdfParallelThresholdPages && pdfExtractionPool.getParallelism() >= 2) {
+            pages.close();
+            return new PdfPageRangeSegments(filePath, pageCount);
+        }
+        return iterate(pages);
+    }
+
+    private SegmentSource openPdfPages(Path filePath) throws IOException {
+        RandomAccessRead source = openPdfSource(filePath);
+        PDDocument document;
+        try {
+            document = Loader.loadPDF(source, pdfScratchMemory().streamCache);
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+
+        SinglePageTextStripper stripper = new SinglePageTextStripper();
+        return new SegmentSource() {
+            // Walks the page tree once for sequential reads; previews sampling the middle and end look pages up
+            private final Iterator<PDPage> pages = document.getPages().iterator();
+            private int nextPageIndex;
+
+            @Override
+            public int size() {
+                return document.getNumberOfPages();
+            }
+
+            @Override
+            public String get(int index) throws IOException {
+                PDPage page;
+                if (index == nextPageIndex) {
+                    page = pages.next();
+                    nextPageIndex++;
+                } else {
+                    page = document.getPage(index);
+                }
+                return stripper.getText(document, page);
+            }
+
+            @Override
+            public void close() throws IOException {
+                try (source; document) {
+                    // both closed by try-with-resources
+                }
+            }
+        };
+    }
+
+    /**
+     * Text stripper extracting one given page
+     * PDFTextStripper.getText walks the whole page tree on every call, even with start and end set to one page,
+     * so extracting a document page by page with it visits O(n²) pages
+     */
+    private static final class SinglePageTextStripper extends PDFTextStripper {
+
+        private PDPage page;
+
+        private SinglePageTextStripper() throws IOException {
+            // processPage checks the page number counted by processPages, which stays 0 when it is bypassed
+            setStartPage(0);
+        }
+
+        private String getText(PDDocument document, PDPage page) throws IOException {
+            this.page = page;
+            return getText(document);
+        }
+
+        @Override
+        protected void processPages(PDPageTree pages) throws IOException {
+            if (page.hasContents()) {
+                processPage(page);
+            }
+        }
+    }
+
+    /**
+     * Extracts the text of a single page range from a separately loaded document
+     * PDDocument is not thread-safe, so every range opens its own handle
+     * @param filePath the PDF file
+     * @param startPage the first page (1-based, inclusive)
+     * @param endPage the last page (inclusive)
+     * @return the text of the pages
+     * @throws IOException if the file cannot be read
+     */
+    private String extractPdfPageRange(Path filePath, int startPage, int endPage) throws IOException {
+        try (RandomAccessRead source = openPdfSource(filePath);
+             PDDocument document = Loader.loadPDF(source, pdfScratchMemory().streamCache)) {
             PDFTextStripper stripper = new PDFTextStripper();
-            String text = stripper.getText(document);
-            return text;
+            stripper.setStartPage(startPage);
+            stripper.setEndPage(endPage);
+            return stripper.getText(document);
         }
     }
 
-    private String extractDocContentFromPath(Path filePath) throws IOException {
-        try (InputStream inputStream = Files.newInputStream(filePath);
-             HWPFDocument document = new HWPFDocument(inputStream);
-             WordExtractor extractor = new WordExtractor(document)) {
-            
-            String text = extractor.getText();
-            return text;
+    /**
+     * Segments of a large PDF, extracted in page ranges of pagesPerTask pages on the extraction pool
+     * Ranges are submitted ahead of the consumer, at most twice the pool parallelism at a time, and returned
+     * in page order, so workers stay busy while only a bounded number of extracted ranges is held in memory
+     */
+    private final class PdfPageRangeSegments implements TextSegmentIterator {
+
+        private final Path filePath;
+        private final int pageCount;
+        private final int window;
+        private final Deque<ForkJoinTask<String>> inFlight = new ArrayDeque<>();
+        private int nextStartPage = 1;
+
+        private PdfPageRangeSegments(Path filePath, int pageCount) {
+            this.filePath = filePath;
+            this.pageCount = pageCount;
+            this.window = pdfExtractionPool.getParallelism() * 2;
+            submitAhead();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !inFlight.isEmpty();
         }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ForkJoinTask<String> range = inFlight.removeFirst();
+            submitAhead();
+            try {
+                return range.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("PDF extraction interrupted"));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw new UncheckedIOException(ioException);
+                }
+                throw new IllegalStateException("PDF page range extraction failed", e.getCause());
+            }
+        }
+
+        @Override
+        public void close() {
+            inFlight.forEach(range -> range.cancel(false));
+            inFlight.clear();
+        }
+
+        private void submitAhead() {
+            while (inFlight.size() < window && nextStartPage <= pageCount) {
+                int startPage = nextStartPage;
+                int endPage = Math.min(startPage + pdfPagesPerTask - 1, pageCount);
+                inFlight.addLast(pdfExtractionPool.submit(() -> extractPdfPageRange(filePath, startPage, endPage)));
+                nextStartPage = endPage + 1;
+            }
+        }
+    }
+
+    /**
+     * Opens a PDF for random access without reading it onto the heap
+     * - buffered: reads pages of the file through a small buffer
+     * - mapped: memory-maps the file, so the OS page cache holds the bytes instead of the heap
+     * @param filePath the PDF file
+     * @return the random-access source
+     * @throws IOException if the file cannot be opened
+     */
+    private RandomAccessRead openPdfSource(Path filePath) throws IOException {
+        if (PDF_READ_MODE_MAPPED.equalsIgnoreCase(pdfReadMode)) {
+            return new RandomAccessReadMemoryMappedFile(filePath);
+        }
+        return new RandomAccessReadBufferedFile(filePath.toFile());
     }
 
-    private String extractDocxContentFromPath(Path filePath) throws IOException {
-        try (InputStream inputStream = Files.newInputStream(filePath);
-             XWPFDocument document = new XWPFDocument(inputStream);
-             XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
-            
-            String text = extractor.getText();
-            return text;
+    /**
+     * Builds the scratch memory policy for streams PDFBox creates while parsing
+     * Up to the configured amount is kept in memory per document, the rest spills to temporary files
+     * @return the memory usage setting
+     */
+    private MemoryUsageSetting pdfScratchMemory() {
+        MemoryUsageSetting setting = MemoryUsageSetting.setupMixed(pdfScratchMainMemory.toBytes());
+        if (pdfScratchDir != null && !pdfScratchDir.isBlank()) {
+            setting.setTempDir(new File(pdfScratchDir));
         }
+        return setting;
     }
-}
 
+    private SegmentSource openDocParagraphs(Path filePath) throws IOException {
+        // A file-backed POIFS reads OLE2 blocks through the file channel on demand
+        POIFSFileSystem fileSystem = new POIFSFileSystem(filePath.toFile(), true);
+        HWPFDocument document;
+        try {
+            document = new HWPFDocument(fileSystem.getRoot());
+        } catch (IOException | RuntimeException e) {
+            fileSystem.close();
+            throw e;
+        }
+
+        Range range = document.getRange();
+        return new SegmentSource() {
+            @Override
+            public int size() {
+                return range.numParagraphs();
+            }
+
+            @Override
+            public String get(int index) {
+                // Same per-paragraph text as WordExtractor.getParagraphText, with field codes removed
+                String text = Range.stripFields(range.getParagraph(index).text());
+                return text.endsWith("\r") ? text + "\n" : text;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try (fileSystem; document) {
+                    // both closed by try-with-resources
+                }
+            }
+        };
+    }
+
+    private SegmentSource openDocxBodyElements(Path filePath) throws IOException {
+        // Opening the package from the file uses random ZIP access instead of inflating every part into memory
+        OPCPackage opcPackage;
+        try {
+            opcPackage = OPCPackage.open(filePath.toFile(), PackageAccess.READ);
+        } catch (InvalidFormatException | UnsupportedFileFormatException e) {
+            throw new IOException("Invalid .docx file: " + e.getMessage(), e);
+        }
+
+        XWPFDocument document;
+        try {
+            document = new XWPFDocument(opcPackage);
+        } catch (IOException | RuntimeException e) {
+            opcPackage.revert();
+            throw e;
+        }
+
+        List<IBodyElement> elements = document.getBodyElements();
+        return new SegmentSource() {
+            @Override
+            public int size() {
+                return elements.size();
+            }
+
+            @Override
+            public String get(int index) {
+                IBodyElement element = elements.get(index);
+                if (element instanceof XWPFParagraph paragraph) {
+                    return paragraph.getText() + "\n";
+                }
+                if (element instanceof XWPFTable table) {
+                    return table.getText() + "\n";
+                }
+                if (element instanceof XWPFSDT contentControl) {
+                    return contentControl.getContent().getText() + "\n";
+                }
+                return "";
+            }
+
+            @Override
+            public void close() {
+                // Read-only packages are released with revert(); close() would try to save
+                opcPackage.revert();
+            }
+        };
+    }
+
+    private TextSegmentIterator openTextSegments(Path filePath) throws IOException {
+        // Decode through the file channel in small buffers instead of reading all bytes first
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        Reader reader = Channels.newReader(channel, newUtf8Decoder(), -1);
+        return TextSegmentIterator.ofReader(reader, TEXT_READ_BUFFER_SIZE);
+    }
+
+    private CharsetDecoder newUtf8Decoder() {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+}
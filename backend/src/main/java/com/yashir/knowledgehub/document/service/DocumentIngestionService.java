@@ -0,0 +1,327 @@
+package com.yashir.knowledgehub.document.service;
+
+import com.yashir.knowledgehub.document.cache.QACacheEvictionService;
+import com.yashir.knowledgehub.document.dto.IngestionJobResponse;
+import com.yashir.knowledgehub.document.exception.IngestionQueueFullException;
+import com.yashir.knowledgehub.document.ingestion.IngestionJob;
+import com.yashir.knowledgehub.document.ingestion.IngestionJobRegistry;
+import com.yashir.knowledgehub.document.ingestion.IngestionJobStatus;
+import com.yashir.knowledgehub.document.mapper.DocumentMapperInterface;
+import com.yashir.knowledgehub.document.model.Document;
+import com.yashir.knowledgehub.document.model.DocumentType;
+import com.yashir.knowledgehub.document.repository.DocumentRepository;
+import com.yashir.knowledgehub.document.retrieval.ChunkRetrievalService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for processing uploaded documents in the background
+ * Runs classification, extraction, persistence and indexing of a stored file on the ingestion
+ * executor and reports progress through the IngestionJobRegistry
+ * Classification is batched with other uploads (ClassificationBatchCollector); the job is EXTRACTING while
+ * the full text is extracted and CLASSIFYING from then until its batch has been classified
+ * No transaction or request thread is held during the LLM round trip; the document row is
+ * written once classification is done, in a batch insert with the rows of concurrent jobs
+ * Each step is timed as ingestion.stage (queued, classification, extraction, persist, indexing) and each
+ * job from upload to completion or failure as ingestion.jobs
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentIngestionService {
+
+    private static final String STAGE_TIMER = "ingestion.stage";
+    private static final String JOB_TIMER = "ingestion.jobs";
+
+    private final IngestionJobRegistry jobRegistry;
+    private final ThreadPoolTaskExecutor ingestionExecutor;
+    private final FileStorageService fileStorageService;
+    private final DocumentContentExtractionService contentExtractionService;
+    private final DocumentTypeIdentificationService typeIdentificationService;
+    private final DocumentRepository documentRepository;
+    private final DocumentBatchWriter documentBatchWriter;
+    private final DocumentMapperInterface documentMapper;
+    private final ExtractedTextStore extractedTextStore;
+    private final ChunkRetrievalService chunkRetrievalService;
+    private final QACacheEvictionService qaCacheEvictionService;
+    private final AnswerWarmUpService answerWarmUpService;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Queues a stored file for ingestion
+     * @param job the QUEUED job created for the file
+     * @return the job status
+     * @throws IngestionQueueFullException if the executor cannot accept more work
+     */
+    public IngestionJobResponse submit(IngestionJob job) {
+        try {
+            ingestionExecutor.execute(() -> process(job));
+        } catch (TaskRejectedException e) {
+            log.warn("Ingestion queue full, rejecting {}", job.getFileName());
+            discardFile(job);
+            jobRegistry.fail(job, "Ingestion queue full");
+            recordJob(job, "rejected");
+            throw new IngestionQueueFullException();
+        }
+        return jobRegistry.getJob(job.getId());
+    }
+
+    /**
+     * Queues a stored file for ingestion, or starts it on the calling thread if the executor is full
+     * Used by bulk uploads, so a large archive slows its own request down instead of failing entries
+     * @param job the QUEUED job created for the file
+     * @return the job status
+     */
+    public IngestionJobResponse submitOrRun(IngestionJob job) {
+        try {
+            ingestionExecutor.execute(() -> process(job));
+        } catch (TaskRejectedException e) {
+            process(job);
+        }
+        return jobRegistry.getJob(job.getId());
+    }
+
+    /**
+     * Runs the ingestion pipeline for a job
+     * Classification is queued for the document's batch and the full text is extracted while the batch is
+     * pending; the remaining steps resume on the ingestion executor once the type is known, so the
+     * ingestion thread is not held while waiting for the batch
+     * Any failure marks the job FAILED and releases the stored file; a document row saved before the failure is removed
+     * @param job the job
+     */
+    private void process(IngestionJob job) {
+        String fileName = job.getFileName();
+        Path stagedText = null;
+        stageTimer("queued").record(Duration.between(job.getCreatedAt(), LocalDateTime.now()));
+        try {
+            Optional<Document> original = findOriginal(job).filter(doc -> extractedTextStore.contains(doc.getId()));
+            if (original.isPresent()) {
+                // 1-2. Same content was ingested before - reuse its extracted text and type
+                log.info("Reusing extraction and classification of document {} for duplicate upload {}",
+                        original.get().getId(), fileName);
+                finish(job, original.get().getType(), null, original.get().getId());
+                return;
+            }
+
+            // 1. Queue identification of the document type (Policy, Report, Manual) from a bounded preview of the file
+            Path filePath = fileStorageService.getFilePath(job.getFilePath());
+            jobRegistry.updateStatus(job, IngestionJobStatus.EXTRACTING);
+            long classificationStart = System.nanoTime();
+            CompletableFuture<DocumentType> documentType = typeIdentificationService.identifyDocumentType(filePath, fileName);
+
+            // 2. Stream the text extracted from the stored file straight into the text store, one segment
+            //    at a time - the document text is never held as a single string
+            long extractionStart = System.nanoTime();
+            try (Reader content = contentExtractionService.openReader(filePath, fileName)) {
+                stagedText = extractedTextStore.stage(content);
+            }
+            recordStage("extraction", extractionStart);
+
+            // 3-5. Continue once the document's classification batch is done; the status is published before
+            //      the callback is registered so it cannot overwrite the status set by the remaining steps
+            jobRegistry.updateStatus(job, IngestionJobStatus.CLASSIFYING);
+            Path extractedText = stagedText;
+            stagedText = null;
+            documentType.whenComplete((type, error) -> resume(() -> {
+                recordStage("classification", classificationStart);
+                if (error != null) {
+                    extractedTextStore.discard(extractedText);
+                    fail(job, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else {
+                    finish(job, type, extractedText, null);
+                }
+            }));
+        } catch (Exception e) {
+            fail(job, e);
+        } finally {
+            if (stagedText != null) {
+                extractedTextStore.discard(stagedText);
+            }
+        }
+    }
+
+    /**
+     * Queues the row of a classified document for the next batch insert
+     * @param job the job
+     * @param documentType the identified type
+     * @param stagedText the staged extracted text, or null when reusing the text of originalId
+     * @param originalId the earlier document with the same content, or null
+     */
+    private void finish(IngestionJob job, DocumentType documentType, Path stagedText, Long originalId) {
+        // 3. Save document metadata to database, batched with the documents of concurrent jobs
+        Document document = new Document();
+        document.setName(fileStorageService.extractDocumentName(job.getFileName()));
+        document.setType(documentType);
+        document.setFileName(job.getFileName());
+        document.setFilePath(job.getFilePath());
+        document.setContentHash(job.getContentHash());
+        document.setUploadedBy(job.getUploadedBy());
+        document.setUploadDate(LocalDateTime.now());
+        long persistStart = System.nanoTime();
+        documentBatchWriter.submit(document).whenComplete((savedDocument, error) -> resume(() -> {
+            recordStage("persist", persistStart);
+            if (error != null) {
+                if (stagedText != null) {
+                    extractedTextStore.discard(stagedText);
+                }
+                fail(job, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                publish(job, savedDocument, stagedText, originalId);
+            }
+        }));
+    }
+
+    /**
+     * Publishes and indexes the text of a saved document
+     * If either step fails the saved document is rolled back (rollBack), so a FAILED job leaves no row behind
+     * @param job the job
+     * @param savedDocument the saved document
+     * @param stagedText the staged extracted text, or null when reusing the text of originalId
+     * @param originalId the earlier document with the same content, or null
+     */
+    private void publish(IngestionJob job, Document savedDocument, Path stagedText, Long originalId) {
+        long indexingStart = System.nanoTime();
+        try {
+            // 4. Publish extracted text under the document ID so Q&A does not re-parse the file
+            if (stagedText != null) {
+                extractedTextStore.commit(stagedText, savedDocument.getId());
+                stagedText = null;
+            } else {
+                extractedTextStore.copy(originalId, savedDocument.getId());
+            }
+
+            // 5. Chunk and index text for retrieval at question time, streaming it back from the store
+            try (Reader content = extractedTextStore.openReader(savedDocument.getId())
+                    .orElseThrow(() -> new IOException("Extracted text missing for document " + savedDocument.getId()))) {
+                chunkRetrievalService.indexDocument(savedDocument.getId(), content);
+            }
+        } catch (Exception e) {
+            rollBack(job, savedDocument, e);
+            return;
+        } finally {
+            if (stagedText != null) {
+                extractedTextStore.discard(stagedText);
+            }
+        }
+
+        recordStage("indexing", indexingStart);
+        jobRegistry.complete(job, documentMapper.toDto(savedDocument));
+        recordJob(job, "success");
+
+        // 6. Optionally answer likely questions in the background so first askers hit the cache
+        answerWarmUpService.warmUp(savedDocument);
+        log.info("Ingested document {} ({}, sha256 {}) as {}",
+                savedDocument.getId(), job.getFileName(), job.getContentHash(), savedDocument.getType());
+    }
+
+    /**
+     * Removes a saved document whose text could not be published or indexed, then fails the job
+     * Its index entries, cached answers and stored text are removed like on delete, so the file can be uploaded again
+     * If the row cannot be deleted the document is kept and the job completes without a retrieval index:
+     * Q&A extracts and indexes the text from the stored file on first use
+     * @param job the job
+     * @param savedDocument the saved document
+     * @param error the publish or indexing failure
+     */
+    private void rollBack(IngestionJob job, Document savedDocument, Exception error) {
+        Long documentId = savedDocument.getId();
+        chunkRetrievalService.removeDocument(documentId);
+        qaCacheEvictionService.evictDocument(savedDocument);
+        try {
+            documentRepository.delete(savedDocument);
+        } catch (RuntimeException e) {
+            log.error("Failed to index document {} ({}) and to remove it ({}), keeping it unindexed: {}",
+                    documentId, job.getFileName(), e.getMessage(), error.getMessage(), error);
+            jobRegistry.complete(job, documentMapper.toDto(savedDocument));
+            recordJob(job, "unindexed");
+            return;
+        }
+        extractedTextStore.delete(documentId);
+        fail(job, error);
+    }
+
+    /**
+     * Runs a pipeline continuation on the ingestion executor, or on the calling thread if the executor is full
+     * @param step the continuation
+     */
+    private void resume(Runnable step) {
+        try {
+            ingestionExecutor.execute(step);
+        } catch (TaskRejectedException e) {
+            step.run();
+        }
+    }
+
+    private void fail(IngestionJob job, Throwable error) {
+        log.error("Failed to ingest document {}: {}", job.getFileName(), error.getMessage(), error);
+        discardFile(job);
+        jobRegistry.fail(job, "Failed to process document: " + error.getMessage());
+        recordJob(job, "failed");
+    }
+
+    private void recordStage(String stage, long startNanos) {
+        stageTimer(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in each step of the ingestion pipeline")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the time from upload (job creation) to the end of a job
+     * @param job the finished job
+     * @param outcome success, unindexed, failed or rejected
+     */
+    private void recordJob(IngestionJob job, String outcome) {
+        Timer.builder(JOB_TIMER)
+                .description("Time from upload to the end of ingestion")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.between(job.getCreatedAt(), LocalDateTime.now()));
+    }
+
+    /**
+     * Finds an earlier document with the same content as the job's file
+     * Only documents with the same file extension qualify, since extraction depends on the file type
+     * @param job the job
+     * @return the earlier document, if any
+     */
+    private Optional<Document> findOriginal(IngestionJob job) {
+        if (job.getContentHash() == null || job.getFileName() == null) {
+            return Optional.empty();
+        }
+        return documentRepository.findFirstByContentHash(job.getContentHash())
+                .filter(doc -> extensionOf(doc.getFileName()).equals(extensionOf(job.getFileName())));
+    }
+
+    private String extensionOf(String fileName) {
+        int lastDotIndex = fileName.lastIndexOf('.');
+        return lastDotIndex >= 0 ? fileName.substring(lastDotIndex).toLowerCase() : "";
+    }
+
+    private void discardFile(IngestionJob job) {
+        try {
+            fileStorageService.deleteFile(job.getFilePath());
+        } catch (IOException e) {
+            log.warn("Failed to delete file of failed ingestion: {}", job.getFilePath(), e);
+        }
+    }
+}
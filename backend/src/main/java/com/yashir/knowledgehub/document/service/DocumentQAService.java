@@ -1,37 +1,74 @@
 package com.yashir.knowledgehub.document.service;
 
-import com.yashir.knowledgehub.document.config.CacheConfig;
+import com.yashir.knowledgehub.document.cache.DocumentScopedCaffeineCache;
+import com.yashir.knowledgehub.document.cache.PersistentQACache;
+import com.yashir.knowledgehub.document.cache.SemanticQACache;
+import com.yashir.knowledgehub.document.cache.SingleFlight;
+import com.yashir.knowledgehub.document.dto.BatchQuestionAnswer;
+import com.yashir.knowledgehub.document.dto.BatchQuestionRequest;
+import com.yashir.knowledgehub.document.dto.BatchQuestionResponse;
 import com.yashir.knowledgehub.document.dto.QuestionRequest;
 import com.yashir.knowledgehub.document.dto.QuestionResponse;
 import com.yashir.knowledgehub.document.exception.DocumentNotFoundException;
 import com.yashir.knowledgehub.document.exception.DocumentProcessingException;
 import com.yashir.knowledgehub.document.model.Document;
 import com.yashir.knowledgehub.document.repository.DocumentRepository;
+import com.yashir.knowledgehub.document.retrieval.ChunkRetrievalService;
+import com.yashir.knowledgehub.document.retrieval.TextChunk;
+import com.yashir.knowledgehub.document.util.QuestionNormalizer;
 import com.yashir.knowledgehub.llm.service.LLMServiceFactory;
 import com.yashir.knowledgehub.llm.service.LLMServiceInterface;
+import com.yashir.knowledgehub.llm.service.prompt.PromptBudgeter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service for handling Question & Answer operations on documents
  * Handles document content extraction and LLM-based Q&A
+ * By default only the most relevant chunks of a document are sent to the LLM;
+ * set qa.context-mode to "full" to send the whole document instead, cut to the prompt's token budget (PromptBudgeter)
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DocumentQAService {
 
+    private static final String CONTEXT_MODE_FULL = "full";
+
+    @Value("${qa.context-mode:chunked}")
+    private String contextMode;
+
     private final DocumentRepository documentRepository;
     private final FileStorageService fileStorageService;
     private final DocumentContentExtractionService contentExtractionService;
+    private final ExtractedTextStore extractedTextStore;
+    private final ChunkRetrievalService chunkRetrievalService;
+    private final SemanticQACache semanticQACache;
+    private final PersistentQACache persistentQACache;
+    private final DocumentScopedCaffeineCache qaCache;
+    private final SingleFlight<String, QuestionResponse> qaSingleFlight;
     private final LLMServiceFactory llmServiceFactory;
+    private final PromptBudgeter promptBudgeter;
 
     /**
      * Answers a question about a specific document
@@ -39,84 +76,386 @@ public class DocumentQAService {
      * Cache key is generated using normalized question to catch variations
      * 
      * HOW CACHING WORKS:
-     * Spring Cache (@Cacheable) intercepts this method call using AOP:
-     * 1. Before method execution: Generates cache key and checks cache
-     * 2. If cache HIT: Returns cached value immediately (this method body NEVER executes)
-     * 3. If cache MISS: Executes this method, stores result in cache, then returns result
+     * 1. The exact-key cache is checked with the normalized question
+     * 2. If cache HIT: the cached answer is returned immediately
+     * 3. If cache MISS: concurrent misses for the same key are coalesced - only the first one builds
+     *    the context and calls the LLM, the others wait for and share its answer
+     * On an exact-key miss the persistent cache (answers kept across restarts, keyed by document content)
+     * and then the semantic cache (paraphrases of earlier questions) are checked
+     * No transaction is held while waiting; the document row is read in the repository's own transaction
      * 
      * @param request the question request containing document ID and question
      * @return the answer response (from cache if available, otherwise from OpenAI)
      */
-    @Transactional(readOnly = true)
-    @Cacheable(value = CacheConfig.QA_CACHE_NAME, 
-               key = "T(com.yashir.knowledgehub.document.util.QuestionNormalizer).generateCacheKey(#request.documentId, #request.question)")
     public QuestionResponse answerQuestion(QuestionRequest request) {
-        // NOTE: This code only executes on CACHE MISS
-        // If cache HIT occurs, Spring returns cached value and this method never runs
-        
+        String cacheKey = QuestionNormalizer.generateCacheKey(request.getDocumentId(), request.getQuestion());
+        Cache.ValueWrapper cached = qaCache.get(cacheKey);
+        if (cached != null && cached.get() instanceof QuestionResponse cachedResponse) {
+            return cachedResponse;
+        }
+
+        return qaSingleFlight.execute(cacheKey, () -> computeAnswer(request, cacheKey));
+    }
+
+    /**
+     * Answers a question that missed the exact-key cache
+     * Answers are stored in the exact-key cache before the in-flight entry is removed, so later requests hit it
+     * @param request the question request
+     * @param cacheKey the exact-key cache key of the question
+     * @return the answer response (from the persistent or semantic cache if available, otherwise from OpenAI)
+     */
+    private QuestionResponse computeAnswer(QuestionRequest request, String cacheKey) {
         // 1. Get document by ID
+        long cacheGeneration = persistentQACache.currentGeneration();
         Document document = documentRepository.findById(request.getDocumentId())
                 .orElseThrow(() -> new DocumentNotFoundException(request.getDocumentId()));
 
-        // 2. Extract document content from file
-        String documentContent = extractDocumentContent(document);
-        
-        // 3. Build context: document name + content
-        String documentContext = buildDocumentContext(document.getName(), documentContent);
+        // 2-3. Answer persisted for the same content (e.g. before a restart), or of a paraphrased earlier question
+        Optional<QuestionResponse> storedAnswer = findStoredAnswer(document, cacheKey, request.getQuestion());
+        if (storedAnswer.isPresent()) {
+            return storedAnswer.get();
+        }
 
-        // 4. Get LLM service and ask question (THIS IS THE EXPENSIVE OPERATION)
+        // 4. Build context: document name + relevant chunks (or full content)
+        String documentContext = buildContext(document, List.of(request.getQuestion()));
+        log.debug("Q&A context for document {} ({} mode): {} chars",
+                document.getId(), contextMode, documentContext.length());
+
+        // 5. Get LLM service and ask question (THIS IS THE EXPENSIVE OPERATION)
         LLMServiceInterface llmService = llmServiceFactory.getLLMService();
         String answer = llmService.answerQuestion(request.getQuestion(), documentContext, document.getType());
 
-        // 5. Return response (Spring Cache will automatically store this in cache)
-        return new QuestionResponse(answer);
+        // 6. Store and return response
+        QuestionResponse response = new QuestionResponse(answer);
+        storeAnswer(document, cacheGeneration, cacheKey, request.getQuestion(), response);
+        return response;
     }
 
     /**
-     * Extracts text content from a stored document file
-     * @param document the document entity
-     * @return the extracted text content
+     * Answers a question about a specific document, streaming the answer as it is generated
+     * Cached answers (exact key, persisted or semantic match) are emitted as a single piece, as is the answer of an
+     * identical question that another request is computing at the same time.
+     * Otherwise the stream is registered as the question's in-flight computation, so identical questions arriving
+     * meanwhile (streamed, single or batched) wait for its answer instead of calling the LLM again.
+     * The LLM tokens are forwarded as they arrive and, once the stream completes,
+     * the full answer is written to all cache tiers so later questions are served by answerQuestion
+     * Only a stream that completes with an answer is cached; one that fails (including after some tokens),
+     * is cancelled by the client or ends empty is not
+     * As in answerQuestion, no transaction is held: the document row is read in the repository's own transaction
+     * @param request the question request containing document ID and question
+     * @return a stream of answer pieces that concatenate to the full answer
+     */
+    public Flux<String> streamAnswer(QuestionRequest request) {
+        long cacheGeneration = persistentQACache.currentGeneration();
+        Document document = documentRepository.findById(request.getDocumentId())
+                .orElseThrow(() -> new DocumentNotFoundException(request.getDocumentId()));
+
+        String cacheKey = QuestionNormalizer.generateCacheKey(document.getId(), request.getQuestion());
+        Cache.ValueWrapper cached = qaCache.get(cacheKey);
+        if (cached != null && cached.get() instanceof QuestionResponse cachedResponse) {
+            return Flux.just(cachedResponse.getAnswer());
+        }
+
+        Optional<QuestionResponse> storedAnswer = findStoredAnswer(document, cacheKey, request.getQuestion());
+        if (storedAnswer.isPresent()) {
+            return Flux.just(storedAnswer.get().getAnswer());
+        }
+
+        // The same question is being answered for another request - emit its answer once it is ready
+        SingleFlight.Flight<QuestionResponse> flight = qaSingleFlight.start(cacheKey);
+        if (!flight.leader()) {
+            // Cancelling this stream must not cancel the shared computation
+            return Mono.fromFuture(flight.result(), true)
+                    .map(QuestionResponse::getAnswer)
+                    .flux()
+                    // The stream answering it was cancelled or ended empty - answer the question again,
+                    // off the thread that ended that stream since reading the document blocks
+                    .onErrorResume(CancellationException.class, e -> Flux.defer(() -> streamAnswer(request))
+                            .subscribeOn(Schedulers.boundedElastic()));
+        }
+
+        // This stream is in flight for the key until it ends, so identical questions wait for its answer
+        Flux<String> tokens;
+        try {
+            String documentContext = buildContext(document, List.of(request.getQuestion()));
+            log.debug("Streaming Q&A context for document {} ({} mode): {} chars",
+                    document.getId(), contextMode, documentContext.length());
+
+            LLMServiceInterface llmService = llmServiceFactory.getLLMService();
+            tokens = llmService.streamAnswer(request.getQuestion(), documentContext, document.getType());
+        } catch (RuntimeException e) {
+            qaSingleFlight.fail(cacheKey, flight, e);
+            throw e;
+        }
+
+        StringBuilder fullAnswer = new StringBuilder();
+        return tokens
+                .doOnNext(fullAnswer::append)
+                .doOnComplete(() -> {
+                    if (fullAnswer.toString().isBlank()) {
+                        qaSingleFlight.abandon(cacheKey, flight);
+                        return;
+                    }
+                    QuestionResponse response = new QuestionResponse(fullAnswer.toString());
+                    storeAnswer(document, cacheGeneration, cacheKey, request.getQuestion(), response);
+                    qaSingleFlight.complete(cacheKey, flight, response);
+                })
+                .doOnError(e -> qaSingleFlight.fail(cacheKey, flight, e))
+                .doOnCancel(() -> qaSingleFlight.abandon(cacheKey, flight));
+    }
+
+    /**
+     * Answers several questions about one document
+     * Each distinct question (by normalized cache key) is looked up in all cache tiers first and joins an
+     * identical question already being answered; the rest are registered as in flight, so identical questions
+     * arriving meanwhile wait for this request, and answered together, so the document context
+     * is built and sent once instead of once per question. Every new answer is stored under its own
+     * cache key, so later single questions hit the cache
+     * If the LLM request fails the whole request fails, none of its questions are cached and the questions
+     * waiting for it get the same error
+     * @param request the document ID and the questions
+     * @return the answers in the order of the questions
      */
-    private String extractDocumentContent(Document document) {
+    public BatchQuestionResponse answerQuestions(BatchQuestionRequest request) {
+        long cacheGeneration = persistentQACache.currentGeneration();
+        Document document = documentRepository.findById(request.getDocumentId())
+                .orElseThrow(() -> new DocumentNotFoundException(request.getDocumentId()));
+
+        Map<String, String> questionsByKey = new LinkedHashMap<>();
+        for (String question : request.getQuestions()) {
+            questionsByKey.putIfAbsent(QuestionNormalizer.generateCacheKey(document.getId(), question), question);
+        }
+
+        // 1. Cached, stored or in-flight answers; the other questions are registered as in flight for this request
+        Map<String, QuestionResponse> answers = new HashMap<>();
+        Map<String, CompletableFuture<QuestionResponse>> inFlight = new HashMap<>();
+        Map<String, SingleFlight.Flight<QuestionResponse>> ledFlights = new LinkedHashMap<>();
+        Map<String, QuestionResponse> cachedAnswers;
         try {
-            Path filePath = fileStorageService.getFilePath(document.getFilePath());
-            
-            if (!Files.exists(filePath)) {
-                throw new DocumentProcessingException("Document file not found: " + document.getFilePath());
+            questionsByKey.forEach((cacheKey, question) -> {
+                Cache.ValueWrapper cached = qaCache.get(cacheKey);
+                if (cached != null && cached.get() instanceof QuestionResponse cachedResponse) {
+                    answers.put(cacheKey, cachedResponse);
+                    return;
+                }
+                Optional<QuestionResponse> storedAnswer = findStoredAnswer(document, cacheKey, question);
+                if (storedAnswer.isPresent()) {
+                    answers.put(cacheKey, storedAnswer.get());
+                    return;
+                }
+                SingleFlight.Flight<QuestionResponse> flight = qaSingleFlight.start(cacheKey);
+                if (flight.leader()) {
+                    ledFlights.put(cacheKey, flight);
+                } else {
+                    inFlight.put(cacheKey, flight.result());
+                }
+            });
+            cachedAnswers = new HashMap<>(answers);
+
+            // 2. One LLM request for all remaining questions, sharing one context
+            answerMissedQuestions(document, cacheGeneration, questionsByKey, ledFlights, answers);
+        } catch (RuntimeException | Error e) {
+            // Identical questions waiting for this request get its error; answered ones are already completed
+            ledFlights.forEach((cacheKey, flight) -> qaSingleFlight.fail(cacheKey, flight, e));
+            throw e;
+        }
+
+        // 3. Answers computed for other requests meanwhile
+        inFlight.forEach((cacheKey, future) -> {
+            try {
+                answers.put(cacheKey, future.join());
+            } catch (CompletionException | CancellationException e) {
+                answers.put(cacheKey, answerQuestion(new QuestionRequest(document.getId(), questionsByKey.get(cacheKey))));
             }
+        });
+
+        List<BatchQuestionAnswer> entries = new ArrayList<>(request.getQuestions().size());
+        for (String question : request.getQuestions()) {
+            String cacheKey = QuestionNormalizer.generateCacheKey(document.getId(), question);
+            entries.add(new BatchQuestionAnswer(question, answers.get(cacheKey).getAnswer(), cachedAnswers.containsKey(cacheKey)));
+        }
+        return new BatchQuestionResponse(entries);
+    }
+
+    /**
+     * Answers the questions of a batch that missed every cache tier, with one LLM request if there are several
+     * Each answer is cached and then completes the question's in-flight computation
+     * @param document the document entity
+     * @param cacheGeneration the persistent cache generation taken before the document was read
+     * @param questionsByKey the batch's questions by cache key
+     * @param ledFlights the in-flight computations of the missed questions, led by this request
+     * @param answers receives the answers by cache key
+     */
+    private void answerMissedQuestions(Document document, long cacheGeneration, Map<String, String> questionsByKey,
+                                       Map<String, SingleFlight.Flight<QuestionResponse>> ledFlights,
+                                       Map<String, QuestionResponse> answers) {
+        List<String> missedKeys = new ArrayList<>(ledFlights.keySet());
+        if (missedKeys.size() == 1) {
+            String cacheKey = missedKeys.get(0);
+            QuestionResponse response = computeAnswer(
+                    new QuestionRequest(document.getId(), questionsByKey.get(cacheKey)), cacheKey);
+            answers.put(cacheKey, response);
+            qaSingleFlight.complete(cacheKey, ledFlights.get(cacheKey), response);
+        } else if (!missedKeys.isEmpty()) {
+            List<String> questions = missedKeys.stream().map(questionsByKey::get).toList();
+            String documentContext = buildContext(document, questions);
+            log.debug("Batch Q&A context for document {} ({} questions, {} mode): {} chars",
+                    document.getId(), questions.size(), contextMode, documentContext.length());
 
-            String fileName = document.getFileName();
-            if (fileName == null) {
-                throw new DocumentProcessingException("Document file name is null");
+            List<String> batchAnswers = llmServiceFactory.getLLMService()
+                    .answerQuestions(questions, documentContext, document.getType());
+            for (int i = 0; i < missedKeys.size(); i++) {
+                String cacheKey = missedKeys.get(i);
+                String answer = i < batchAnswers.size() ? batchAnswers.get(i) : null;
+                QuestionResponse response;
+                if (answer == null) {
+                    // Not answered in the batch response - ask on its own
+                    response = computeAnswer(new QuestionRequest(document.getId(), questions.get(i)), cacheKey);
+                } else {
+                    response = new QuestionResponse(answer);
+                    storeAnswer(document, cacheGeneration, cacheKey, questions.get(i), response);
+                }
+                answers.put(cacheKey, response);
+                qaSingleFlight.complete(cacheKey, ledFlights.get(cacheKey), response);
             }
+        }
+    }
 
-            // Use shared extraction service
-            String content = contentExtractionService.extractContentFromPath(filePath, fileName);
-            
-            if (content == null || content.isEmpty()) {
-                log.warn("No content extracted from document {}: {}", document.getId(), fileName);
+    /**
+     * Finds an answer kept by the tiers behind the exact-key cache: the answer persisted for the same content
+     * (e.g. before a restart), then the answer of a paraphrased earlier question
+     * A persisted answer is copied to the exact-key cache; a paraphrase match is not, so a wrong match is not
+     * pinned to the question's key and the question is matched again once more answers are cached
+     * @param document the document entity
+     * @param cacheKey the exact-key cache key of the question
+     * @param question the question
+     * @return the stored answer, if any
+     */
+    private Optional<QuestionResponse> findStoredAnswer(Document document, String cacheKey, String question) {
+        Optional<QuestionResponse> persistedAnswer = persistentQACache.lookup(document.getContentHash(), document.getType(), question);
+        if (persistedAnswer.isPresent()) {
+            qaCache.put(cacheKey, persistedAnswer.get());
+            return persistedAnswer;
+        }
+        return semanticQACache.lookup(document.getId(), question);
+    }
+
+    /**
+     * Stores a new answer in all cache tiers
+     * The persistent tier drops it if the document's content was evicted since the answer was started
+     * @param document the document entity
+     * @param cacheGeneration the persistent cache generation taken before the document was read
+     * @param cacheKey the exact-key cache key of the question
+     * @param question the question
+     * @param response the answer
+     */
+    private void storeAnswer(Document document, long cacheGeneration, String cacheKey, String question,
+                             QuestionResponse response) {
+        qaCache.put(cacheKey, response);
+        semanticQACache.put(document.getId(), question, response);
+        persistentQACache.put(document.getContentHash(), document.getType(), question, response, cacheGeneration);
+    }
+
+    /**
+     * Builds the LLM context for one or more questions according to the configured context mode
+     * In chunked mode the document is indexed lazily if it is missing from the retrieval index
+     * @param document the document entity
+     * @param questions the questions answered with the context
+     * @return formatted context string
+     */
+    private String buildContext(Document document, List<String> questions) {
+        try {
+            if (CONTEXT_MODE_FULL.equalsIgnoreCase(contextMode)) {
+                return buildDocumentContext(document, questions);
             }
-            
-            return content != null ? content : "";
 
+            if (!chunkRetrievalService.isIndexed(document.getId())) {
+                try (Reader content = openDocumentContent(document)) {
+                    chunkRetrievalService.indexDocument(document.getId(), content);
+                }
+            }
         } catch (IOException e) {
-            log.error("Failed to extract content from document {}: {}", document.getId(), e.getMessage(), e);
+            log.error("Failed to read content of document {}: {}", document.getId(), e.getMessage(), e);
             throw new DocumentProcessingException("Failed to extract document content: " + e.getMessage(), e);
         }
+        List<TextChunk> chunks = questions.size() == 1
+                ? chunkRetrievalService.retrieve(document.getId(), questions.get(0))
+                : chunkRetrievalService.retrieveForQuestions(document.getId(), questions,
+                        promptBudgeter.contextBudget(questions, document.getType()));
+        return buildExcerptContext(document.getName(), chunks);
+    }
+
+    /**
+     * Opens document text from the extracted text store
+     * Falls back to extracting from the stored file when no entry exists (e.g. extractor version changed)
+     * and stores the result for subsequent questions
+     * @param document the document entity
+     * @return a reader over the document text; the caller must close it
+     * @throws IOException if the text cannot be read
+     */
+    private Reader openDocumentContent(Document document) throws IOException {
+        Optional<Reader> stored = extractedTextStore.openReader(document.getId());
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        Path filePath = fileStorageService.getFilePath(document.getFilePath());
+        if (!Files.exists(filePath)) {
+            throw new DocumentProcessingException("Document file not found: " + document.getFilePath());
+        }
+
+        String fileName = document.getFileName();
+        if (fileName == null) {
+            throw new DocumentProcessingException("Document file name is null");
+        }
+
+        // Use shared extraction service, streaming the text into the store
+        try (Reader content = contentExtractionService.openReader(filePath, fileName)) {
+            extractedTextStore.save(document.getId(), content);
+        } catch (IOException e) {
+            log.warn("Failed to store extracted text for document {}: {}", document.getId(), e.getMessage());
+            return contentExtractionService.openReader(filePath, fileName);
+        }
+        return extractedTextStore.openReader(document.getId())
+                .orElseThrow(() -> new IOException("Extracted text missing for document " + document.getId()));
     }
 
     /**
      * Builds document context string combining title and content
+     * Content that does not fit the tokens the prompt has left for context is cut by the PromptBudgeter,
+     * which reads only the part of the document it keeps
+     * @param document the document entity
+     * @param questions the questions, whose prompt determines the token budget
+     * @return formatted context string
+     * @throws IOException if reading the content fails
+     */
+    private String buildDocumentContext(Document document, List<String> questions) throws IOException {
+        String header = "Document Title: " + document.getName() + "\n\nDocument Content:\n---\n";
+        String footer = "\n---\n";
+        int contentBudget = promptBudgeter.contextBudget(questions, document.getType())
+                - promptBudgeter.countTokens(header + footer);
+        String content = promptBudgeter.fitDocument(document.getId(), DocumentContentExtractionService.EXTRACTOR_VERSION,
+                () -> openDocumentContent(document), contentBudget);
+        return header + content + footer;
+    }
+
+    /**
+     * Builds document context string combining title and the selected excerpts
      * @param documentName the document name/title
-     * @param documentContent the document content
+     * @param chunks the selected chunks in document order
      * @return formatted context string
      */
-    private String buildDocumentContext(String documentName, String documentContent) {
+    private String buildExcerptContext(String documentName, List<TextChunk> chunks) {
         StringBuilder context = new StringBuilder();
         context.append("Document Title: ").append(documentName).append("\n\n");
-        context.append("Document Content:\n");
+        context.append("Document Content (relevant excerpts):\n");
         context.append("---\n");
-        context.append(documentContent);
+        for (int i = 0; i < chunks.size(); i++) {
+            if (i > 0) {
+                context.append("\n[...]\n");
+            }
+            context.append(chunks.get(i).getText());
+        }
         context.append("\n---\n");
         return context.toString();
     }
@@ -1,42 +1,70 @@
 package com.yashir.knowledgehub.document.service;
 
-import com.yashir.knowledgehub.document.config.CacheConfig;
+import com.yashir.knowledgehub.document.cache.QACacheEvictionService;
+import com.yashir.knowledgehub.document.dto.BulkUploadEntryResult;
+import com.yashir.knowledgehub.document.dto.BulkUploadRequest;
+import com.yashir.knowledgehub.document.dto.BulkUploadResponse;
 import com.yashir.knowledgehub.document.dto.DocumentResponse;
 import com.yashir.knowledgehub.document.dto.DocumentUploadRequest;
+import com.yashir.knowledgehub.document.dto.IngestionJobResponse;
+import com.yashir.knowledgehub.document.ingestion.IngestionJob;
+import com.yashir.knowledgehub.document.ingestion.IngestionJobRegistry;
 import com.yashir.knowledgehub.document.mapper.DocumentMapperInterface;
 import com.yashir.knowledgehub.document.model.Document;
-import com.yashir.knowledgehub.document.model.DocumentType;
 import com.yashir.knowledgehub.document.repository.DocumentRepository;
 import com.yashir.knowledgehub.document.exception.DocumentAlreadyExistsException;
 import com.yashir.knowledgehub.document.exception.DocumentNotFoundException;
 import com.yashir.knowledgehub.document.exception.DocumentProcessingException;
+import com.yashir.knowledgehub.document.retrieval.ChunkRetrievalService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 /**
  * Service implementation for Document operations
  * Handles only document business logic
+ * Uploads are stored and handed to DocumentIngestionService, which processes them in the background
+ * Bulk uploads accept many files and ZIP archives, whose entries are streamed without unpacking them first
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DocumentService implements DocumentServiceInterface {
 
+    private static final String ZIP_EXTENSION = ".zip";
+    private static final String MACOS_METADATA_FOLDER = "__MACOSX/";
+    private static final String REJECTED_STATUS = "REJECTED";
+
     private final DocumentRepository documentRepository;
     private final DocumentMapperInterface documentMapper;
     private final FileStorageService fileStorageService;
-    private final DocumentTypeIdentificationService typeIdentificationService;
+    private final DocumentIngestionService documentIngestionService;
+    private final IngestionJobRegistry ingestionJobRegistry;
+    private final ExtractedTextStore extractedTextStore;
+    private final ChunkRetrievalService chunkRetrievalService;
+    private final QACacheEvictionService qaCacheEvictionService;
+    private final ContentTypeService contentTypeService;
+
+    @Value("${ingestion.bulk.max-entries:50000}")
+    private int bulkMaxEntries;
+
+    @Value("${ingestion.bulk.max-entry-size:200MB}")
+    private DataSize bulkMaxEntrySize;
 
     @Override
     @Transactional(readOnly = true)
@@ -46,51 +74,147 @@ public class DocumentService implements DocumentServiceInterface {
     }
 
     @Override
-    @Transactional
-    public DocumentResponse uploadDocument(DocumentUploadRequest request, String uploadedBy) {
-        try {
-            // 1. Extract file from request
-            MultipartFile file = request.getFile();
+    public IngestionJobResponse uploadDocument(DocumentUploadRequest request, String uploadedBy) {
+        // 1. Extract file from request
+        MultipartFile file = request.getFile();
+        String fileName = file.getOriginalFilename();
+
+        // Validate that document with same file name doesn't already exist
+        validateDocumentDoesNotExist(fileName);
+
+        // 2. Save file to disk and register the job (reserves the file name until it finishes)
+        IngestionJob job;
+        try (InputStream content = file.getInputStream()) {
+            job = storeFile(fileName, content, Long.MAX_VALUE, uploadedBy);
+        } catch (IOException e) {
+            throw new DocumentProcessingException("Failed to save file: " + e.getMessage(), e);
+        }
+
+        // 3. Extract, classify and index in the background
+        return documentIngestionService.submit(job);
+    }
+
+    @Override
+    public BulkUploadResponse uploadDocuments(BulkUploadRequest request, String uploadedBy) {
+        List<BulkUploadEntryResult> entries = new ArrayList<>();
+        for (MultipartFile file : request.getFiles()) {
             String fileName = file.getOriginalFilename();
-            
-            // Validate that document with same file name doesn't already exist
+            try (InputStream content = file.getInputStream()) {
+                if (fileName != null && fileName.toLowerCase().endsWith(ZIP_EXTENSION)) {
+                    uploadArchive(fileName, content, uploadedBy, entries);
+                } else {
+                    entries.add(uploadEntry(fileName, content, Long.MAX_VALUE, uploadedBy));
+                }
+            } catch (IOException e) {
+                entries.add(rejectedEntry(fileName, "Failed to read file: " + e.getMessage()));
+            }
+        }
+
+        int accepted = (int) entries.stream().filter(entry -> entry.getJobId() != null).count();
+        log.info("Bulk upload by {}: {} entries accepted, {} rejected", uploadedBy, accepted, entries.size() - accepted);
+        return new BulkUploadResponse(accepted, entries.size() - accepted, entries);
+    }
+
+    /**
+     * Uploads the documents of a ZIP archive, reading the entries straight from the request stream
+     * Entries are stored one after another while their ingestion runs in parallel on the ingestion executor;
+     * folders in the archive are ignored and every entry is named by its file name
+     * @param archiveName the archive file name
+     * @param content the archive content
+     * @param uploadedBy the name of the uploading user
+     * @param entries the results, to which one result per archive entry is added
+     */
+    private void uploadArchive(String archiveName, InputStream content, String uploadedBy,
+                               List<BulkUploadEntryResult> entries) {
+        int entryCount = 0;
+        try (ZipInputStream archive = new ZipInputStream(content)) {
+            ZipEntry entry;
+            while ((entry = archive.getNextEntry()) != null) {
+                String fileName = entryFileName(entry.getName());
+                if (entry.isDirectory() || fileName.isEmpty() || fileName.startsWith(".")
+                        || entry.getName().startsWith(MACOS_METADATA_FOLDER)) {
+                    continue;
+                }
+                if (++entryCount > bulkMaxEntries) {
+                    entries.add(rejectedEntry(archiveName, "Archive has more than " + bulkMaxEntries + " entries"));
+                    return;
+                }
+                entries.add(uploadEntry(fileName, archive, bulkMaxEntrySize.toBytes(), uploadedBy));
+            }
+        } catch (IOException e) {
+            // A corrupt archive ends the upload of its remaining entries
+            log.warn("Failed to read archive {}: {}", archiveName, e.getMessage());
+            entries.add(rejectedEntry(archiveName, "Failed to read archive: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Stores one file of a bulk upload and queues it for ingestion
+     * Failures are reported in the result instead of failing the whole upload
+     * @param fileName the file name
+     * @param content the file content, read to its end but not closed
+     * @param maxSize the maximum file size in bytes
+     * @param uploadedBy the name of the uploading user
+     * @return the entry result
+     */
+    private BulkUploadEntryResult uploadEntry(String fileName, InputStream content, long maxSize, String uploadedBy) {
+        if (MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(contentTypeService.getContentType(fileName))) {
+            return rejectedEntry(fileName, "Unsupported file type");
+        }
+        try {
             validateDocumentDoesNotExist(fileName);
-            
-            // 2. Save file to disk
-            String filePath = fileStorageService.saveFile(file);
-            
-            // 3. Identify document type (Policy, Report, Manual)
-            DocumentType documentType = typeIdentificationService.identifyDocumentType(file);
-            
-            // 4. Extract document name from file name
-            String documentName = fileStorageService.extractDocumentName(fileName);
-            
-            // 5. Save document metadata to database
-            Document document = new Document();
-            document.setName(documentName);
-            document.setType(documentType);
-            document.setFileName(fileName);
-            document.setFilePath(filePath);
-            document.setUploadedBy(uploadedBy);
-            document.setUploadDate(LocalDateTime.now());
-            
-            Document savedDocument = documentRepository.save(document);
-            
-            // 6. Return DocumentResponse
-            return documentMapper.toDto(savedDocument);
-            
+            IngestionJob job = storeFile(fileName, content, maxSize, uploadedBy);
+            // Bulk uploads wait for room on the ingestion executor instead of being rejected with 503
+            IngestionJobResponse response = documentIngestionService.submitOrRun(job);
+            return new BulkUploadEntryResult(fileName, response.getJobId(), response.getStatus(), response.getError());
+        } catch (DocumentAlreadyExistsException e) {
+            return rejectedEntry(fileName, e.getMessage());
         } catch (IOException e) {
-            throw new DocumentProcessingException("Failed to save file: " + e.getMessage(), e);
+            return rejectedEntry(fileName, "Failed to save file: " + e.getMessage());
         }
     }
 
     /**
-     * Validates that a document with the given file name does not already exist
+     * Saves file content to disk and registers its ingestion job (reserves the file name until it finishes)
+     * Single pass over the content: streamed to disk and hashed, never buffered in memory;
+     * identical content is stored only once
+     * @param fileName the file name
+     * @param content the file content
+     * @param maxSize the maximum file size in bytes
+     * @param uploadedBy the name of the uploading user
+     * @return the QUEUED job
+     * @throws IOException if the file cannot be saved
+     * @throws DocumentAlreadyExistsException if a job for the same file name is still running
+     */
+    private IngestionJob storeFile(String fileName, InputStream content, long maxSize, String uploadedBy)
+            throws IOException {
+        StoredFile storedFile = fileStorageService.saveFile(content, maxSize);
+        try {
+            return ingestionJobRegistry.create(fileName, storedFile.getFilePath(),
+                    storedFile.getContentHash(), uploadedBy);
+        } catch (DocumentAlreadyExistsException e) {
+            // Lost a race with a concurrent upload of the same file name
+            fileStorageService.deleteFile(storedFile.getFilePath());
+            throw e;
+        }
+    }
+
+    private String entryFileName(String entryName) {
+        return entryName.substring(Math.max(entryName.lastIndexOf('/'), entryName.lastIndexOf('\\')) + 1);
+    }
+
+    private BulkUploadEntryResult rejectedEntry(String fileName, String error) {
+        return new BulkUploadEntryResult(fileName, null, REJECTED_STATUS, error);
+    }
+
+    /**
+     * Validates that a document with the given file name does not already exist or is being ingested
      * @param fileName the file name to validate
      * @throws DocumentAlreadyExistsException if a document with the file name already exists
      */
     private void validateDocumentDoesNotExist(String fileName) {
-        if (fileName != null && documentRepository.existsByFileName(fileName)) {
+        if (fileName != null && (documentRepository.existsByFileName(fileName)
+                || ingestionJobRegistry.isInProgress(fileName))) {
             throw new DocumentAlreadyExistsException(fileName);
         }
     }
@@ -128,20 +252,26 @@ public class DocumentService implements DocumentServiceInterface {
 
     @Override
     @Transactional
-    @CacheEvict(value = CacheConfig.QA_CACHE_NAME, allEntries = true)
     public void deleteDocument(Long documentId) {
         // Find document by ID
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new DocumentNotFoundException(documentId));
 
         try {
-            // Delete file from disk
+            // Release the file; it is deleted from disk once no other document shares its content
             fileStorageService.deleteFile(document.getFilePath());
         } catch (IOException e) {
             log.warn("Failed to delete file from disk: {}", document.getFilePath(), e);
             // Continue with database deletion even if file deletion fails
         }
 
+        // Delete stored extracted text and retrieval index entries
+        extractedTextStore.delete(documentId);
+        chunkRetrievalService.removeDocument(documentId);
+
+        // Evict only this document's cached answers
+        qaCacheEvictionService.evictDocument(document);
+
         // Delete document from database
         documentRepository.delete(document);
     }
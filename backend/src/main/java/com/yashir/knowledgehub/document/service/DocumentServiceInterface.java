@@ -1,7 +1,10 @@
 package com.yashir.knowledgehub.document.service;
 
+import com.yashir.knowledgehub.document.dto.BulkUploadRequest;
+import com.yashir.knowledgehub.document.dto.BulkUploadResponse;
 import com.yashir.knowledgehub.document.dto.DocumentResponse;
 import com.yashir.knowledgehub.document.dto.DocumentUploadRequest;
+import com.yashir.knowledgehub.document.dto.IngestionJobResponse;
 import org.springframework.core.io.Resource;
 
 import java.util.List;
@@ -11,7 +14,8 @@ import java.util.List;
  */
 public interface DocumentServiceInterface {
     List<DocumentResponse> getAllDocuments();
-    DocumentResponse uploadDocument(DocumentUploadRequest request, String uploadedBy);
+    IngestionJobResponse uploadDocument(DocumentUploadRequest request, String uploadedBy);
+    BulkUploadResponse uploadDocuments(BulkUploadRequest request, String uploadedBy);
     Resource downloadDocument(Long documentId);
     DocumentResponse getDocumentById(Long documentId);
     void deleteDocument(Long documentId);
@@ -1,43 +1,58 @@
 package com.yashir.knowledgehub.document.service;
 
 import com.yashir.knowledgehub.document.model.DocumentType;
-import com.yashir.knowledgehub.llm.service.LLMServiceFactory;
-import com.yashir.knowledgehub.llm.service.LLMServiceInterface;
+import com.yashir.knowledgehub.llm.service.dto.DocumentPreview;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for identifying document type using LLM
  * Delegates to configured LLM service (OpenAI or Mock)
+ * Classification reads only a bounded preview of the file (classification.preview.*), so its latency
+ * does not depend on the document length
+ * Previews are handed to the ClassificationBatchCollector, which classifies concurrent uploads together
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DocumentTypeIdentificationService {
 
-    private final LLMServiceFactory llmServiceFactory;
+    private static final String PREVIEW_MODE_SAMPLED = "sampled";
+
+    private final ClassificationBatchCollector classificationBatchCollector;
     private final DocumentContentExtractionService contentExtractionService;
 
+    @Value("${classification.preview.max-chars:3000}")
+    private int previewMaxChars;
+
+    @Value("${classification.preview.mode:sampled}")
+    private String previewMode;
+
     /**
-     * Identifies the document type based on file name and content using LLM
-     * @param file the uploaded file
-     * @return the identified document type
+     * Identifies the document type based on file name and a content preview using LLM
+     * The preview is extracted on the calling thread; the LLM call happens in the document's batch
+     * @param filePath the path to the stored file
+     * @param fileName the original file name
+     * @return a future completed with the identified document type
+     * @throws IOException if the file cannot be read
      */
-    public DocumentType identifyDocumentType(MultipartFile file) {
-        String fileName = file.getOriginalFilename() != null 
-            ? file.getOriginalFilename() 
-            : "unknown";
-        
-        // Extract file content using shared extraction service
-        String fileContent = contentExtractionService.extractContentFromMultipartFile(file, fileName);
-        
-        // Get the configured LLM service and use it to identify document type
-        LLMServiceInterface llmService = llmServiceFactory.getLLMService();
-        DocumentType documentType = llmService.identifyDocumentType(fileName, fileContent);
+    public CompletableFuture<DocumentType> identifyDocumentType(Path filePath, String fileName) throws IOException {
+        String contentPreview = contentExtractionService.extractPreview(
+                filePath, fileName, previewMaxChars, PREVIEW_MODE_SAMPLED.equalsIgnoreCase(previewMode));
+        log.debug("Classification preview of {} ({} mode): {} chars", fileName, previewMode, contentPreview.length());
+
+        if (fileName == null) {
+            fileName = "unknown";
+        }
         
-        return documentType;
+        // Queue for the next batch classified by the configured LLM service
+        return classificationBatchCollector.submit(new DocumentPreview(fileName, contentPreview));
     }
 }
 
@@ -0,0 +1,178 @@
+package com.yashir.knowledgehub.document.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Store for text extracted from uploaded documents
+ * Text is extracted once at upload time and persisted here so Q&A does not re-parse the original file
+ * Entries are keyed by document ID and versioned by DocumentContentExtractionService.EXTRACTOR_VERSION,
+ * so text produced by an older extractor is treated as missing and re-extracted on demand
+ * Text is written and read as character streams, so entries never have to fit in memory as one string
+ */
+@Service
+@Slf4j
+public class ExtractedTextStore {
+
+    private static final String STORE_DIR = "uploads/extracted";
+    private static final String FILE_EXTENSION = ".txt";
+
+    /**
+     * Writes extracted text to a staging file in the store directory without assigning it to a document
+     * Lets text be streamed to disk before the document ID is known; publish it with commit() or remove it with discard()
+     * @param content the extracted text, read to the end but not closed
+     * @return the staging file
+     * @throws IOException if writing the file fails
+     */
+    public Path stage(Reader content) throws IOException {
+        Path stagedFile = Files.createTempFile(getStorePath(), "staged-", ".tmp");
+        try (Writer writer = Files.newBufferedWriter(stagedFile, StandardCharsets.UTF_8)) {
+            content.transferTo(writer);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(stagedFile);
+            throw e;
+        }
+        return stagedFile;
+    }
+
+    /**
+     * Publishes staged text as the entry of a document under the current extractor version
+     * The staging file is moved into place, so readers never see partial content
+     * @param stagedFile the file returned by stage()
+     * @param documentId the document ID
+     * @throws IOException if moving the file fails
+     */
+    public void commit(Path stagedFile, Long documentId) throws IOException {
+        Path targetFile = getStorePath().resolve(buildFileName(documentId));
+        Files.move(stagedFile, targetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Deletes a staging file that will not be committed
+     * @param stagedFile the file returned by stage()
+     */
+    public void discard(Path stagedFile) {
+        try {
+            Files.deleteIfExists(stagedFile);
+        } catch (IOException e) {
+            log.warn("Failed to delete staged text {}: {}", stagedFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Saves extracted text for a document under the current extractor version
+     * @param documentId the document ID
+     * @param content the extracted text, read to the end but not closed
+     * @throws IOException if writing the file fails
+     */
+    public void save(Long documentId, Reader content) throws IOException {
+        Path stagedFile = stage(content);
+        try {
+            commit(stagedFile, documentId);
+        } finally {
+            Files.deleteIfExists(stagedFile);
+        }
+    }
+
+    /**
+     * Copies the stored text of one document to another, e.g. for a duplicate upload of the same file
+     * @param sourceDocumentId the document whose text is copied
+     * @param targetDocumentId the document receiving the text
+     * @throws IOException if the source entry is missing or copying fails
+     */
+    public void copy(Long sourceDocumentId, Long targetDocumentId) throws IOException {
+        Path storePath = getStorePath();
+        Path stagedFile = Files.createTempFile(storePath, "staged-", ".tmp");
+        try {
+            Files.copy(storePath.resolve(buildFileName(sourceDocumentId)), stagedFile, StandardCopyOption.REPLACE_EXISTING);
+            commit(stagedFile, targetDocumentId);
+        } finally {
+            Files.deleteIfExists(stagedFile);
+        }
+    }
+
+    /**
+     * Checks whether text is stored for a document under the current extractor version
+     * @param documentId the document ID
+     * @return true if an entry exists
+     */
+    public boolean contains(Long documentId) {
+        return Files.exists(resolveEntry(documentId));
+    }
+
+    /**
+     * Opens the extracted text of a document as a character stream
+     * @param documentId the document ID
+     * @return a reader over the stored text, or empty if no entry exists for the current extractor version;
+     *         the caller must close the reader
+     */
+    public Optional<Reader> openReader(Long documentId) {
+        Path file = resolveEntry(documentId);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("Could not read extracted text for document {}: {}", documentId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Deletes all stored text for a document, including entries from older extractor versions
+     * @param documentId the document ID
+     */
+    public void delete(Long documentId) {
+        Path storePath = Paths.get(STORE_DIR).toAbsolutePath().normalize();
+        if (!Files.exists(storePath)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(storePath, documentId + ".v*" + FILE_EXTENSION)) {
+            for (Path entry : entries) {
+                Files.deleteIfExists(entry);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete extracted text for document {}: {}", documentId, e.getMessage());
+        }
+    }
+
+    private Path resolveEntry(Long documentId) {
+        return Paths.get(STORE_DIR).toAbsolutePath().normalize().resolve(buildFileName(documentId));
+    }
+
+    /**
+     * Builds the file name for a document entry under the current extractor version
+     * @param documentId the document ID
+     * @return the file name, e.g. "42.v1.txt"
+     */
+    private String buildFileName(Long documentId) {
+        return documentId + ".v" + DocumentContentExtractionService.EXTRACTOR_VERSION + FILE_EXTENSION;
+    }
+
+    /**
+     * Gets the store directory, creating it if it doesn't exist
+     * @return the store directory path
+     * @throws IOException if the directory cannot be created
+     */
+    private Path getStorePath() throws IOException {
+        Path storePath = Paths.get(STORE_DIR).toAbsolutePath().normalize();
+        if (!Files.exists(storePath)) {
+            Files.createDirectories(storePath);
+        }
+        return storePath;
+    }
+}
@@ -2,60 +2,130 @@ package com.yashir.knowledgehub.document.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for handling file storage operations
+ * Files are stored content-addressed: the path is derived from the SHA-256 of the content, in a
+ * sharded tree (uploads/blobs/ab/cd/abcd...) so directories stay small at millions of files.
+ * Identical uploads share one blob; a reference count per blob makes deleteFile remove the blob
+ * only when its last document goes away. Counts are kept in memory, which matches the lifetime of
+ * the stored files (the uploads folder and the database are both reset on startup)
  */
 @Service
 @Slf4j
 public class FileStorageService {
 
     private static final String UPLOAD_DIR = "uploads";
+    private static final String BLOB_DIR = UPLOAD_DIR + "/blobs";
+    private static final String CONTENT_HASH_ALGORITHM = "SHA-256";
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    // Hex characters per directory level, and number of levels, of the sharded blob tree
+    private static final int SHARD_WIDTH = 2;
+    private static final int SHARD_LEVELS = 2;
+
+    // stored file path -> number of references (documents and in-progress ingestions)
+    private final Map<String, Integer> referenceCounts = new ConcurrentHashMap<>();
 
     /**
-     * Saves a file to disk and returns the file path
-     * @param file the file to save
-     * @return the path where the file was saved
-     * @throws IOException if file saving fails
+     * Saves file content to disk in a single pass, hashing the content as it is written
+     * The content is streamed into a temporary file and then moved to its content-addressed location,
+     * or discarded if a blob with the same content already exists. Either way the blob gains a reference
+     * that must be released with deleteFile
+     * The stream is read to the end (of an upload or archive entry) but not closed
+     * @param content the file content
+     * @param maxSize the maximum number of bytes to store
+     * @return the stored path and content hash
+     * @throws IOException if file saving fails or the content is larger than maxSize
      */
-    public String saveFile(MultipartFile file) throws IOException {
+    public StoredFile saveFile(InputStream content, long maxSize) throws IOException {
         // Create upload directory if it doesn't exist
         // This creates the directory relative to the current working directory (usually project root or backend folder)
         Path uploadPath = Paths.get(UPLOAD_DIR).toAbsolutePath().normalize();
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
-        }
+        Files.createDirectories(uploadPath);
+
+        // Stream to a temporary file, digesting the bytes on the way
+        MessageDigest digest = newContentDigest();
+        Path tempFile = Files.createTempFile(uploadPath, "upload-", ".tmp");
+        try {
+            long size = 0;
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new IOException("File exceeds the maximum size of " + maxSize + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    outputStream.write(buffer, 0, read);
+                }
+            }
 
-        // Generate unique file name to avoid conflicts
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = extractFileExtension(originalFileName);
-        String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
-        
-        // Save file
-        Path filePath = uploadPath.resolve(uniqueFileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        
-        return UPLOAD_DIR + "/" + uniqueFileName;
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            String filePath = buildBlobPath(contentHash);
+            acquire(filePath, tempFile);
+            return new StoredFile(filePath, contentHash);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
     }
 
     /**
-     * Extracts file extension from file name
-     * @param fileName the file name
-     * @return the file extension including the dot, or empty string if no extension
+     * Adds a reference to a blob, moving the temporary file into place if the blob does not exist yet
+     * Runs inside compute so a concurrent release of the same blob cannot delete it in between
+     * @param filePath the blob path
+     * @param tempFile the uploaded content
+     * @throws IOException if the file cannot be moved into place
      */
-    private String extractFileExtension(String fileName) {
-        if (fileName == null || !fileName.contains(".")) {
-            return "";
+    private void acquire(String filePath, Path tempFile) throws IOException {
+        try {
+            referenceCounts.compute(filePath, (path, count) -> {
+                Path blob = getFilePath(path);
+                if (!Files.exists(blob)) {
+                    try {
+                        Files.createDirectories(blob.getParent());
+                        Files.move(tempFile, blob, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return count != null ? count + 1 : 1;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private String buildBlobPath(String contentHash) {
+        StringBuilder path = new StringBuilder(BLOB_DIR);
+        for (int level = 0; level < SHARD_LEVELS; level++) {
+            path.append('/').append(contentHash, level * SHARD_WIDTH, (level + 1) * SHARD_WIDTH);
+        }
+        return path.append('/').append(contentHash).toString();
+    }
+
+    private MessageDigest newContentDigest() {
+        try {
+            return MessageDigest.getInstance(CONTENT_HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(CONTENT_HASH_ALGORITHM + " is not available", e);
         }
-        return fileName.substring(fileName.lastIndexOf("."));
     }
 
     /**
@@ -81,17 +151,29 @@ public class FileStorageService {
     }
 
     /**
-     * Deletes a file from disk
-     * @param filePath the file path to delete
+     * Releases one reference to a stored file, deleting it from disk when no references remain
+     * @param filePath the file path to release
      * @throws IOException if file deletion fails
      */
     public void deleteFile(String filePath) throws IOException {
-        Path path = getFilePath(filePath);
-        if (Files.exists(path)) {
-            Files.delete(path);
-        } else {
-            log.warn("File not found for deletion: {}", path);
+        try {
+            referenceCounts.compute(filePath, (path, count) -> {
+                if (count != null && count > 1) {
+                    return count - 1;
+                }
+
+                Path blob = getFilePath(path);
+                try {
+                    if (!Files.deleteIfExists(blob)) {
+                        log.warn("File not found for deletion: {}", blob);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
         }
     }
 }
-
@@ -0,0 +1,16 @@
+package com.yashir.knowledgehub.document.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Result of storing an uploaded file
+ * The content hash is computed while the upload is streamed to disk
+ * and determines the storage path, so identical uploads share one file
+ */
+@Data
+@AllArgsConstructor
+public class StoredFile {
+    private String filePath;  // Path as stored in the database
+    private String contentHash;  // Hex-encoded SHA-256 of the file content
+}
@@ -0,0 +1,97 @@
+package com.yashir.knowledgehub.document.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over the text of a document in extraction order, one segment at a time
+ * (a page or page range for PDF, a paragraph or table for Word documents, a fixed-size block for text files)
+ * Segments concatenate to the full extracted text; only the current segment has to be held in memory
+ * Read failures are thrown as UncheckedIOException; close() releases the underlying file
+ */
+public interface TextSegmentIterator extends Iterator<String>, Closeable {
+
+    /**
+     * Creates an iterator without segments, for missing or unsupported files
+     * @return the empty iterator
+     */
+    static TextSegmentIterator empty() {
+        return of(Collections.emptyIterator(), () -> { });
+    }
+
+    /**
+     * Wraps a segment iterator together with the resource it reads from
+     * @param segments the segments
+     * @param resource the resource released by close()
+     * @return the segment iterator
+     */
+    static TextSegmentIterator of(Iterator<String> segments, Closeable resource) {
+        return new TextSegmentIterator() {
+            @Override
+            public boolean hasNext() {
+                return segments.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return segments.next();
+            }
+
+            @Override
+            public void close() throws IOException {
+                resource.close();
+            }
+        };
+    }
+
+    /**
+     * Splits a character stream into blocks of at most blockSize characters
+     * @param reader the character stream, closed by close()
+     * @param blockSize the maximum segment length
+     * @return the segment iterator
+     */
+    static TextSegmentIterator ofReader(Reader reader, int blockSize) {
+        return new TextSegmentIterator() {
+            private final char[] buffer = new char[blockSize];
+            private String pending;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (pending == null && !exhausted) {
+                    try {
+                        int read = reader.read(buffer);
+                        if (read == -1) {
+                            exhausted = true;
+                        } else {
+                            pending = new String(buffer, 0, read);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return pending != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String segment = pending;
+                pending = null;
+                return segment;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+}
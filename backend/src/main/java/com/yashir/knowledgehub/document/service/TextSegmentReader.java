@@ -0,0 +1,49 @@
+package com.yashir.knowledgehub.document.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * Reader over the segments of a TextSegmentIterator
+ * Lets consumers that work on character streams (text store, chunker, context assembly) read extracted
+ * text incrementally; segments are pulled from the extractor only as the reader advances
+ */
+public class TextSegmentReader extends Reader {
+
+    private final TextSegmentIterator segments;
+    private String current = "";
+    private int position;
+
+    public TextSegmentReader(TextSegmentIterator segments) {
+        this.segments = segments;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        try {
+            while (position >= current.length()) {
+                if (!segments.hasNext()) {
+                    return -1;
+                }
+                current = segments.next();
+                position = 0;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int count = Math.min(length, current.length() - position);
+        current.getChars(position, position + count, buffer, offset);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        segments.close();
+    }
+}
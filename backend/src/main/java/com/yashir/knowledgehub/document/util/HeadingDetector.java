@@ -0,0 +1,61 @@
+package com.yashir.knowledgehub.document.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for recognizing section headings in extracted document text
+ * A heading is a short line without closing punctuation that is numbered, in capitals or in title case
+ */
+public class HeadingDetector {
+
+    // Numbered headings ("2.1 Refund Eligibility", "3) Scope")
+    private static final Pattern NUMBERED_HEADING = Pattern.compile("^(?:\\d+[.)]?)+\\s+(\\p{L}.*)$");
+
+    private static final int MIN_HEADING_LENGTH = 4;
+    private static final int MAX_HEADING_LENGTH = 80;
+    private static final int MAX_HEADING_WORDS = 10;
+
+    /**
+     * Checks whether a line looks like a heading
+     * @param line the stripped line
+     * @return the heading text without numbering (all-capital headings in lower case), or null if the line is not a heading
+     */
+    public static String toHeading(String line) {
+        if (line.length() < MIN_HEADING_LENGTH || line.length() > MAX_HEADING_LENGTH
+                || ".,;:!?".indexOf(line.charAt(line.length() - 1)) >= 0) {
+            return null;
+        }
+
+        Matcher numbered = NUMBERED_HEADING.matcher(line);
+        String text = numbered.matches() ? numbered.group(1).strip() : line;
+        String[] words = text.split("\\s+");
+        if (words.length > MAX_HEADING_WORDS || !Character.isLetter(text.charAt(0))) {
+            return null;
+        }
+        if (numbered.matches() || text.equals(text.toUpperCase()) || isTitleCase(words)) {
+            return text.equals(text.toUpperCase()) ? text.toLowerCase() : text;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a line looks like a heading
+     * @param line the line, with or without surrounding whitespace
+     * @return true if the line is a heading
+     */
+    public static boolean isHeading(String line) {
+        return toHeading(line.strip()) != null;
+    }
+
+    private static boolean isTitleCase(String[] words) {
+        int capitalized = 0;
+        for (String word : words) {
+            if (Character.isUpperCase(word.charAt(0))) {
+                capitalized++;
+            }
+        }
+        // Short connecting words ("of", "and") may stay lowercase
+        return words.length >= 2 && capitalized * 3 >= words.length * 2;
+    }
+}
@@ -10,6 +10,9 @@ import java.util.stream.Collectors;
  */
 public class QuestionNormalizer {
 
+    private static final String CACHE_KEY_PREFIX = "qa:doc:";
+    private static final String CACHE_KEY_QUESTION_MARKER = ":q:";
+
     // Common English stop words to remove for better cache matching
     private static final Set<String> STOP_WORDS = Set.of(
             "a", "an", "and", "are", "as", "at", "be", "by", "for", "from",
@@ -60,7 +63,28 @@ public class QuestionNormalizer {
      */
     public static String generateCacheKey(Long documentId, String question) {
         String normalizedQuestion = normalize(question);
-        return String.format("qa:doc:%d:q:%s", documentId, normalizedQuestion);
+        return CACHE_KEY_PREFIX + documentId + CACHE_KEY_QUESTION_MARKER + normalizedQuestion;
+    }
+
+    /**
+     * Extracts the document ID from a cache key produced by generateCacheKey
+     * @param cacheKey the cache key
+     * @return the document ID, or null if the key is not a document Q&A key
+     */
+    public static Long extractDocumentId(Object cacheKey) {
+        if (!(cacheKey instanceof String key) || !key.startsWith(CACHE_KEY_PREFIX)) {
+            return null;
+        }
+
+        int end = key.indexOf(CACHE_KEY_QUESTION_MARKER, CACHE_KEY_PREFIX.length());
+        if (end < 0) {
+            return null;
+        }
+        try {
+            return Long.parseLong(key.substring(CACHE_KEY_PREFIX.length(), end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
 
@@ -0,0 +1,64 @@
+package com.yashir.knowledgehub.llm.config;
+
+import com.yashir.knowledgehub.llm.service.limit.AdaptiveConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limits of LLM calls
+ * Classification and Q&A run in separate bulkheads, so a burst of uploads cannot take the slots
+ * interactive questions need, and a burst of questions cannot stall ingestion
+ * Both limiters are MeterBinders and are bound to the meter registry by Spring Boot
+ */
+@Configuration
+public class LLMConcurrencyConfig {
+
+    public static final String CLASSIFICATION_BULKHEAD = "classification";
+    public static final String QA_BULKHEAD = "qa";
+
+    @Value("${llm.concurrency.classification.initial-limit:4}")
+    private int classificationInitialLimit;
+
+    @Value("${llm.concurrency.classification.max-limit:16}")
+    private int classificationMaxLimit;
+
+    @Value("${llm.concurrency.classification.queue-capacity:200}")
+    private int classificationQueueCapacity;
+
+    @Value("${llm.concurrency.classification.max-wait:2m}")
+    private Duration classificationMaxWait;
+
+    @Value("${llm.concurrency.qa.initial-limit:8}")
+    private int qaInitialLimit;
+
+    @Value("${llm.concurrency.qa.max-limit:32}")
+    private int qaMaxLimit;
+
+    @Value("${llm.concurrency.qa.queue-capacity:50}")
+    private int qaQueueCapacity;
+
+    @Value("${llm.concurrency.qa.max-wait:10s}")
+    private Duration qaMaxWait;
+
+    /**
+     * Bulkhead of document classification calls (single and batched)
+     * Callers are background ingestion threads, so calls may wait long rather than fail
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter classificationLimiter() {
+        return new AdaptiveConcurrencyLimiter(CLASSIFICATION_BULKHEAD, classificationInitialLimit,
+                classificationMaxLimit, classificationQueueCapacity, classificationMaxWait);
+    }
+
+    /**
+     * Bulkhead of Q&A calls (single, batched and streamed)
+     * Callers are waiting users, so the queue is short and calls over it are rejected fast with 503
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter qaLimiter() {
+        return new AdaptiveConcurrencyLimiter(QA_BULKHEAD, qaInitialLimit, qaMaxLimit, qaQueueCapacity, qaMaxWait);
+    }
+}
@@ -39,5 +39,30 @@ public final class OpenAIConfig {
      * Maximum content length to send for document type identification (to save tokens)
      */
     public static final int MAX_CONTENT_LENGTH = 3000;
-}
 
+    /**
+     * Maximum total content length of all documents in one batched classification request
+     * Each document gets an equal share, capped at MAX_CONTENT_LENGTH
+     */
+    public static final int MAX_BATCH_CONTENT_LENGTH = 24000;
+
+    /**
+     * Maximum completion tokens per document of a batched classification request (one "N: CATEGORY" line)
+     */
+    public static final int MAX_TOKENS_PER_BATCH_DOCUMENT = 10;
+
+    /**
+     * Maximum questions answered by one batched Q&A request
+     * Each question adds MAX_TOKENS_QA completion tokens
+     */
+    public static final int MAX_BATCH_QUESTIONS = 20;
+
+    /**
+     * Operation tags of the llm.requests latency metric, one per kind of OpenAI call
+     */
+    public static final String OPERATION_CLASSIFICATION = "classification";
+    public static final String OPERATION_BATCH_CLASSIFICATION = "batch_classification";
+    public static final String OPERATION_QA = "qa";
+    public static final String OPERATION_BATCH_QA = "batch_qa";
+    public static final String OPERATION_QA_STREAM = "qa_stream";
+}
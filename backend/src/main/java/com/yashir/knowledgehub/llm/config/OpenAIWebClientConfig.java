@@ -0,0 +1,73 @@
+package com.yashir.knowledgehub.llm.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * HTTP client configuration for OpenAI API calls
+ * A single WebClient shares one bounded Reactor Netty connection pool, so TLS connections are
+ * kept alive and reused across calls instead of building a new client per request
+ */
+@Configuration
+public class OpenAIWebClientConfig {
+
+    @Value("${llm.openai.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${llm.openai.http.pending-acquire-timeout:10s}")
+    private Duration pendingAcquireTimeout;
+
+    @Value("${llm.openai.http.max-idle-time:30s}")
+    private Duration maxIdleTime;
+
+    @Value("${llm.openai.http.connect-timeout:5s}")
+    private Duration connectTimeout;
+
+    @Value("${llm.openai.http.response-timeout:60s}")
+    private Duration responseTimeout;
+
+    /**
+     * Configures the connection pool used for OpenAI calls
+     * Idle connections are closed before the server drops them so a stale connection is never reused
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openAIConnectionProvider() {
+        return ConnectionProvider.builder("openai")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .build();
+    }
+
+    /**
+     * Configures the shared WebClient for OpenAI calls
+     * Negotiates HTTP/2 through ALPN where the server supports it and falls back to HTTP/1.1 keep-alive
+     * Timeouts:
+     * - connect: establishing the TCP connection
+     * - response: maximum wait for the response after the request was sent, and between two reads of it
+     *   (also between tokens of a streamed answer); it only applies while a request is in flight, so idle
+     *   pooled connections are not closed by it
+     */
+    @Bean
+    public WebClient openAIWebClient(WebClient.Builder webClientBuilder, ConnectionProvider openAIConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(openAIConnectionProvider)
+                .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(responseTimeout);
+
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
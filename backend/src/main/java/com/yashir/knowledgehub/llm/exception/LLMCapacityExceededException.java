@@ -0,0 +1,20 @@
+package com.yashir.knowledgehub.llm.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when an LLM call cannot get a slot in its bulkhead: the wait queue is full
+ * or the call waited longer than the bulkhead allows
+ */
+@Getter
+public class LLMCapacityExceededException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public LLMCapacityExceededException(String bulkhead, Duration retryAfter) {
+        super("Too many " + bulkhead + " requests are waiting for the language model. Please try again shortly.");
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,43 @@
+package com.yashir.knowledgehub.llm.exception;
+
+import com.yashir.knowledgehub.exception.ErrorResponse;
+import com.yashir.knowledgehub.exception.GlobalExceptionHandler;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Exception handler for LLM exceptions
+ * Extends GlobalExceptionHandler to reuse buildErrorResponse method
+ * Ordered first so its handlers win over the generic Exception handler inherited by every advice
+ */
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LLMExceptionHandler extends GlobalExceptionHandler {
+
+    @ExceptionHandler(LLMCapacityExceededException.class)
+    public ResponseEntity<ErrorResponse> handleLLMCapacityExceededException(LLMCapacityExceededException ex) {
+        ErrorResponse error = buildErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            "Language Model Busy",
+            ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(error);
+    }
+
+    @ExceptionHandler(LLMUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleLLMUnavailableException(LLMUnavailableException ex) {
+        ErrorResponse error = buildErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE,
+            "Language Model Unavailable",
+            ex.getMessage()
+        );
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
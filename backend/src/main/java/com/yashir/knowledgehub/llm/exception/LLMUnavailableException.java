@@ -0,0 +1,17 @@
+package com.yashir.knowledgehub.llm.exception;
+
+/**
+ * Exception thrown when the LLM cannot produce an answer: the provider is not configured,
+ * the call failed or the response held no answer
+ * Raised instead of returning an error text as the answer, so callers do not cache it
+ */
+public class LLMUnavailableException extends RuntimeException {
+
+    public LLMUnavailableException(String message) {
+        super(message);
+    }
+
+    public LLMUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
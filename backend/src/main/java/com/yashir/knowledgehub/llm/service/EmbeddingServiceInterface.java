@@ -0,0 +1,20 @@
+package com.yashir.knowledgehub.llm.service;
+
+/**
+ * Interface for services that turn text into dense vectors for semantic similarity
+ */
+public interface EmbeddingServiceInterface {
+
+    /**
+     * Computes the embedding vector of a text
+     * @param text the text to embed
+     * @return an L2-normalized vector of length getDimension()
+     */
+    float[] embed(String text);
+
+    /**
+     * Gets the length of vectors produced by this service
+     * @return the vector dimension
+     */
+    int getDimension();
+}
@@ -0,0 +1,91 @@
+package com.yashir.knowledgehub.llm.service;
+
+import com.yashir.knowledgehub.document.retrieval.TextTokenizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Deterministic local embedding service based on feature hashing
+ * Words and character trigrams are hashed into a fixed number of signed buckets, so paraphrases
+ * sharing word stems produce nearby vectors. Runs offline without any API key or model files
+ */
+@Service
+public class HashedNgramEmbeddingService implements EmbeddingServiceInterface {
+
+    private static final int NGRAM_SIZE = 3;
+    private static final float WORD_WEIGHT = 1.0f;
+    private static final float NGRAM_WEIGHT = 0.5f;
+
+    private final int dimension;
+
+    public HashedNgramEmbeddingService(@Value("${embedding.dimension:256}") int dimension) {
+        this.dimension = dimension;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimension];
+        List<String> words = TextTokenizer.tokenize(text);
+
+        for (String word : words) {
+            addFeature(vector, word, WORD_WEIGHT);
+
+            // Character trigrams of the padded word, e.g. "^re", "ref", ..., "nd$"
+            String padded = "^" + word + "$";
+            for (int i = 0; i + NGRAM_SIZE <= padded.length(); i++) {
+                addFeature(vector, padded.substring(i, i + NGRAM_SIZE), NGRAM_WEIGHT);
+            }
+        }
+
+        normalize(vector);
+        return vector;
+    }
+
+    @Override
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Adds a hashed feature to the vector; the hash sign spreads collisions around zero
+     * @param vector the vector to update
+     * @param feature the feature string
+     * @param weight the feature weight
+     */
+    private void addFeature(float[] vector, String feature, float weight) {
+        int hash = fnv1a(feature);
+        int bucket = Math.floorMod(hash, dimension);
+        vector[bucket] += (hash & 0x80000000) == 0 ? weight : -weight;
+    }
+
+    private void normalize(float[] vector) {
+        double sumOfSquares = 0;
+        for (float value : vector) {
+            sumOfSquares += value * value;
+        }
+        if (sumOfSquares == 0) {
+            return;
+        }
+        float inverseNorm = (float) (1.0 / Math.sqrt(sumOfSquares));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= inverseNorm;
+        }
+    }
+
+    /**
+     * 32-bit FNV-1a hash of the UTF-8 bytes of a feature
+     * @param feature the feature string
+     * @return the hash value
+     */
+    private int fnv1a(String feature) {
+        int hash = 0x811C9DC5;
+        for (byte b : feature.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xFF);
+            hash *= 0x01000193;
+        }
+        return hash;
+    }
+}
@@ -1,6 +1,10 @@
 package com.yashir.knowledgehub.llm.service;
 
 import com.yashir.knowledgehub.document.model.DocumentType;
+import com.yashir.knowledgehub.llm.service.dto.DocumentPreview;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
 
 /**
  * Interface for LLM services to identify document types and answer questions
@@ -14,6 +18,18 @@ public interface LLMServiceInterface {
      * @return the identified DocumentType
      */
     DocumentType identifyDocumentType(String fileName, String fileContent);
+
+    /**
+     * Identifies the types of several documents
+     * The default classifies each document on its own; implementations may pack all of them into one request
+     * @param previews the file names and content previews of the documents
+     * @return the identified types, in the order of the previews
+     */
+    default List<DocumentType> identifyDocumentTypes(List<DocumentPreview> previews) {
+        return previews.stream()
+                .map(preview -> identifyDocumentType(preview.getFileName(), preview.getContentPreview()))
+                .toList();
+    }
     
     /**
      * Answers a question about a document using LLM
@@ -21,7 +37,32 @@ public interface LLMServiceInterface {
      * @param documentContext the document context (title + content)
      * @param documentType the type of document (POLICY, REPORT, MANUAL, UNDEFINED)
      * @return the answer to the question
+     * @throws com.yashir.knowledgehub.llm.exception.LLMUnavailableException if no answer could be produced
      */
     String answerQuestion(String question, String documentContext, DocumentType documentType);
-}
 
+    /**
+     * Answers several questions about the same document
+     * The default answers each question on its own; implementations may pack all of them into one request
+     * @param questions the questions to ask
+     * @param documentContext the document context (title + content), shared by all questions
+     * @param documentType the type of document (POLICY, REPORT, MANUAL, UNDEFINED)
+     * @return the answers in the order of the questions; null where a question got no usable answer
+     * @throws com.yashir.knowledgehub.llm.exception.LLMUnavailableException if the questions could not be answered
+     */
+    default List<String> answerQuestions(List<String> questions, String documentContext, DocumentType documentType) {
+        return questions.stream()
+                .map(question -> answerQuestion(question, documentContext, documentType))
+                .toList();
+    }
+
+    /**
+     * Answers a question about a document, emitting the answer in pieces as the LLM generates it
+     * @param question the question to ask
+     * @param documentContext the document context (title + content)
+     * @param documentType the type of document (POLICY, REPORT, MANUAL, UNDEFINED)
+     * @return a stream of answer tokens that concatenate to the full answer; fails with
+     *         LLMUnavailableException if the answer cannot be produced or breaks off
+     */
+    Flux<String> streamAnswer(String question, String documentContext, DocumentType documentType);
+}
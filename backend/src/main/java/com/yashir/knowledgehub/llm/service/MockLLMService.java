@@ -2,16 +2,24 @@ package com.yashir.knowledgehub.llm.service;
 
 import com.yashir.knowledgehub.document.model.DocumentType;
 import com.yashir.knowledgehub.llm.service.keyword.DocumentTypeKeywordMatcher;
+import com.yashir.knowledgehub.llm.service.keyword.KeywordClassification;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
 
 /**
  * Mock LLM service for testing and development
  * Uses keyword-based classification for document type identification
  * Allows the system to work without API keys
+ * Streaming emits the mock answer word by word with configurable pacing (llm.mock.stream-delay-ms)
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class MockLLMService implements LLMServiceInterface {
 
     private static final String MOCK_ANSWER_TEMPLATE = 
@@ -21,14 +29,27 @@ public class MockLLMService implements LLMServiceInterface {
 
     private final DocumentTypeKeywordMatcher keywordMatcher;
 
+    @Value("${llm.mock.stream-delay-ms:50}")
+    private long streamDelayMs;
+
     @Override
     public DocumentType identifyDocumentType(String fileName, String fileContent) {
-        return keywordMatcher.identifyByKeywords(fileName, fileContent);
+        KeywordClassification classification = keywordMatcher.classify(fileName, fileContent);
+        log.debug("Keyword classification of {}: {} (confidence {}, scores {})", fileName,
+                classification.getType(), classification.getConfidence(), classification.getScores());
+        return classification.getType();
     }
 
     @Override
     public String answerQuestion(String question, String documentContext, DocumentType documentType) {
         return String.format(MOCK_ANSWER_TEMPLATE, question);
     }
-}
 
+    @Override
+    public Flux<String> streamAnswer(String question, String documentContext, DocumentType documentType) {
+        String answer = answerQuestion(question, documentContext, documentType);
+        // Split after each space so the tokens concatenate back to the exact answer
+        Flux<String> tokens = Flux.fromArray(answer.split("(?<= )"));
+        return streamDelayMs > 0 ? tokens.delayElements(Duration.ofMillis(streamDelayMs)) : tokens;
+    }
+}
@@ -1,48 +1,128 @@
 package com.yashir.knowledgehub.llm.service;
 
 import com.yashir.knowledgehub.llm.config.OpenAIConfig;
+import com.yashir.knowledgehub.llm.service.dto.OpenAIResponse;
+import com.yashir.knowledgehub.llm.service.limit.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 import java.util.Map;
 
 /**
  * Client for making OpenAI API calls
+ * Uses the shared pooled WebClient (OpenAIWebClientConfig); calls never block the caller
+ * Every call is timed as llm.requests, tagged with its operation and outcome (success, error, cancelled);
+ * streamed calls are timed until the last delta
+ * Every call runs in the bulkhead of its operation (LLMConcurrencyConfig): classification or Q&A;
+ * the time spent waiting for a slot is not part of llm.requests
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class OpenAIClient {
 
-    private final WebClient.Builder webClientBuilder;
+    private static final String STREAM_DONE_MARKER = "[DONE]";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+    private static final String REQUEST_TIMER = "llm.requests";
+
+    private final WebClient openAIWebClient;
     private final OpenAIResponseParser responseParser;
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyLimiter classificationLimiter;
+    private final AdaptiveConcurrencyLimiter qaLimiter;
 
     /**
      * Makes a call to OpenAI API
+     * The response is decoded straight into the OpenAIResponse DTO
+     * @param operation the operation tag of the latency metric (OpenAIConfig.OPERATION_*)
      * @param apiKey the OpenAI API key
      * @param requestBody the request body map
-     * @return the parsed response content, or null if the call fails
-     * @throws WebClientResponseException if the API call fails
+     * @return the response content; empty if the response has no content,
+     *         or an error signal (e.g. WebClientResponseException) if the call fails;
+     *         LLMCapacityExceededException if the operation's bulkhead has no slot in time
      */
-    @SuppressWarnings("unchecked")
-    public String callAPI(String apiKey, Map<String, Object> requestBody) throws WebClientResponseException {
-        WebClient webClient = webClientBuilder.build();
+    public Mono<String> callAPI(String operation, String apiKey, Map<String, Object> requestBody) {
+        Mono<String> call = openAIWebClient.post()
+                .uri(OpenAIConfig.API_URL)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(OpenAIResponse.class)
+                .mapNotNull(responseParser::extractContent);
+        return limiterFor(operation).execute(Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call.doFinally(signal -> sample.stop(requestTimer(operation, signal)));
+        }));
+    }
 
-        Map<String, Object> response = (Map<String, Object>) webClient.post()
+    /**
+     * Makes a streaming call to OpenAI API
+     * The request body must have "stream" set to true
+     * @param operation the operation tag of the latency metric (OpenAIConfig.OPERATION_*)
+     * @param apiKey the OpenAI API key
+     * @param requestBody the request body map
+     * @return the content deltas in arrival order; completes when OpenAI sends [DONE];
+     *         LLMCapacityExceededException if the Q&A bulkhead has no slot in time
+     */
+    public Flux<String> streamAPI(String operation, String apiKey, Map<String, Object> requestBody) {
+        Flux<String> call = openAIWebClient.post()
                 .uri(OpenAIConfig.API_URL)
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
                 .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .accept(MediaType.TEXT_EVENT_STREAM)
                 .bodyValue(requestBody)
                 .retrieve()
-                .bodyToMono(Map.class)
-                .block();
+                .bodyToFlux(SSE_TYPE)
+                .mapNotNull(ServerSentEvent::data)
+                .takeWhile(data -> !STREAM_DONE_MARKER.equals(data.trim()))
+                .mapNotNull(responseParser::extractStreamDelta);
+        return limiterFor(operation).executeStream(Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return call.doFinally(signal -> sample.stop(requestTimer(operation, signal)));
+        }));
+    }
 
-        return responseParser.extractContent(response);
+    /**
+     * Gets the bulkhead of an operation
+     * @param operation the operation (OpenAIConfig.OPERATION_*)
+     * @return the classification limiter for classifications, otherwise the Q&A limiter
+     */
+    private AdaptiveConcurrencyLimiter limiterFor(String operation) {
+        return switch (operation) {
+            case OpenAIConfig.OPERATION_CLASSIFICATION, OpenAIConfig.OPERATION_BATCH_CLASSIFICATION -> classificationLimiter;
+            default -> qaLimiter;
+        };
     }
-}
 
+    /**
+     * Gets the latency timer of an operation for the way a call ended
+     * @param operation the operation tag
+     * @param signal the terminal signal of the call
+     * @return the timer
+     */
+    private Timer requestTimer(String operation, SignalType signal) {
+        String outcome = switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+        return Timer.builder(REQUEST_TIMER)
+                .description("Latency of OpenAI API calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
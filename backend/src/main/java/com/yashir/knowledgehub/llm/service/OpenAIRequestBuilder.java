@@ -21,6 +21,17 @@ public class OpenAIRequestBuilder {
         return buildRequest(prompt, OpenAIConfig.MAX_TOKENS_TYPE_IDENTIFICATION, OpenAIConfig.TEMPERATURE_TYPE_IDENTIFICATION);
     }
 
+    /**
+     * Builds a request for batched document type identification
+     * @param prompt the prompt to send
+     * @param documentCount the number of documents in the prompt (one answer line each)
+     * @return the request body map
+     */
+    public Map<String, Object> buildBatchTypeIdentificationRequest(String prompt, int documentCount) {
+        return buildRequest(prompt, OpenAIConfig.MAX_TOKENS_PER_BATCH_DOCUMENT * documentCount,
+                OpenAIConfig.TEMPERATURE_TYPE_IDENTIFICATION);
+    }
+
     /**
      * Builds a request for question answering
      * @param prompt the prompt to send
@@ -30,6 +41,31 @@ public class OpenAIRequestBuilder {
         return buildRequest(prompt, OpenAIConfig.MAX_TOKENS_QA, OpenAIConfig.TEMPERATURE_QA);
     }
 
+    /**
+     * Builds a request answering several questions, asking for a JSON object response
+     * @param prompt the prompt to send
+     * @param questionCount the number of questions in the prompt (one answer each)
+     * @return the request body map
+     */
+    public Map<String, Object> buildBatchQARequest(String prompt, int questionCount) {
+        Map<String, Object> requestBody = buildRequest(prompt, OpenAIConfig.MAX_TOKENS_QA * questionCount,
+                OpenAIConfig.TEMPERATURE_QA);
+        requestBody.put("response_format", Map.of("type", "json_object"));
+        return requestBody;
+    }
+
+    /**
+     * Builds a streaming request for question answering
+     * The API then sends the completion as server-sent events of incremental deltas
+     * @param prompt the prompt to send
+     * @return the request body map
+     */
+    public Map<String, Object> buildQAStreamRequest(String prompt) {
+        Map<String, Object> requestBody = buildQARequest(prompt);
+        requestBody.put("stream", true);
+        return requestBody;
+    }
+
     /**
      * Builds a generic OpenAI API request
      * @param prompt the prompt to send
@@ -1,13 +1,19 @@
 package com.yashir.knowledgehub.llm.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yashir.knowledgehub.document.model.DocumentType;
 import com.yashir.knowledgehub.llm.service.dto.OpenAIResponse;
+import com.yashir.knowledgehub.llm.service.dto.OpenAIStreamChunk;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Parser for OpenAI API responses
@@ -18,31 +24,48 @@ import java.util.Map;
 @Slf4j
 public class OpenAIResponseParser {
 
+    // "3: POLICY", "Document 3 - POLICY", "3. policy"
+    private static final Pattern BATCH_LINE_PATTERN =
+            Pattern.compile("^\\W*(?:document\\s*)?(\\d{1,4})\\s*[:.)\\-]\\s*([A-Za-z]+)", Pattern.CASE_INSENSITIVE);
+
     private final ObjectMapper objectMapper;
 
     /**
-     * Extracts content from OpenAI API response using type-safe parsing
-     * @param response the raw API response map
-     * @return the content string, or null if extraction fails
+     * Extracts content from a decoded OpenAI API response
+     * @param response the API response DTO
+     * @return the content string, or null if the response has no content
      */
-    public String extractContent(Map<String, Object> response) {
+    public String extractContent(OpenAIResponse response) {
+        if (response.getChoices() == null || response.getChoices().isEmpty()) {
+            log.warn("OpenAI API returned empty choices list. Response: {}", response);
+            return null;
+        }
+
+        var firstChoice = response.getChoices().get(0);
+        if (firstChoice.getMessage() == null) {
+            log.warn("OpenAI API returned null message in first choice. Raw choice: {}", firstChoice);
+            return null;
+        }
+
+        return firstChoice.getMessage().getContent();
+    }
+
+    /**
+     * Extracts the incremental content from one streamed chunk
+     * @param data the JSON data of a server-sent event
+     * @return the delta content, or null if the chunk carries no content (e.g. role or finish chunks)
+     */
+    public String extractStreamDelta(String data) {
         try {
-            OpenAIResponse openAIResponse = objectMapper.convertValue(response, OpenAIResponse.class);
-            
-            if (openAIResponse.getChoices() == null || openAIResponse.getChoices().isEmpty()) {
-                log.warn("OpenAI API returned empty choices list. Raw response: {}", response);
-                return null;
-            }
-            
-            var firstChoice = openAIResponse.getChoices().get(0);
-            if (firstChoice.getMessage() == null) {
-                log.warn("OpenAI API returned null message in first choice. Raw choice: {}", firstChoice);
+            OpenAIStreamChunk chunk = objectMapper.readValue(data, OpenAIStreamChunk.class);
+            if (chunk.getChoices() == null || chunk.getChoices().isEmpty()) {
                 return null;
             }
-            
-            return firstChoice.getMessage().getContent();
-        } catch (IllegalArgumentException e) {
-            log.error("Failed to parse OpenAI API response: {}", e.getMessage(), e);
+
+            var delta = chunk.getChoices().get(0).getDelta();
+            return delta != null ? delta.getContent() : null;
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to parse OpenAI stream chunk: {}", e.getMessage());
             return null;
         }
     }
@@ -69,5 +92,69 @@ public class OpenAIResponseParser {
             return DocumentType.UNDEFINED;
         }
     }
-}
 
+    /**
+     * Parses a batched classification response of "N: CATEGORY" lines (1-based document numbers)
+     * Lines that cannot be parsed are ignored; documents without a valid line are UNDEFINED
+     * @param response the raw response string from OpenAI
+     * @param documentCount the number of documents in the batch
+     * @return the parsed types, in document order
+     */
+    public List<DocumentType> parseDocumentTypes(String response, int documentCount) {
+        DocumentType[] types = new DocumentType[documentCount];
+        Arrays.fill(types, DocumentType.UNDEFINED);
+        if (response == null) {
+            return Arrays.asList(types);
+        }
+
+        int parsed = 0;
+        for (String line : response.split("\\R")) {
+            Matcher matcher = BATCH_LINE_PATTERN.matcher(line);
+            if (!matcher.find()) {
+                continue;
+            }
+            int index = Integer.parseInt(matcher.group(1)) - 1;
+            if (index >= 0 && index < documentCount) {
+                types[index] = parseDocumentType(matcher.group(2));
+                parsed++;
+            }
+        }
+        if (parsed < documentCount) {
+            log.warn("OpenAI batch classification answered {} of {} documents; the rest are UNDEFINED", parsed, documentCount);
+        }
+        return Arrays.asList(types);
+    }
+
+    /**
+     * Parses a batched Q&A response of the form {"answers": [{"id": 1, "answer": "..."}]} (1-based question numbers)
+     * Entries that cannot be parsed are ignored
+     * @param response the raw response string from OpenAI
+     * @param questionCount the number of questions in the batch
+     * @return the answers in question order; null for questions without a usable answer
+     */
+    public List<String> parseAnswers(String response, int questionCount) {
+        String[] answers = new String[questionCount];
+        if (response == null) {
+            return Arrays.asList(answers);
+        }
+
+        int parsed = 0;
+        try {
+            JsonNode entries = objectMapper.readTree(response).path("answers");
+            for (JsonNode entry : entries) {
+                int index = entry.path("id").asInt(0) - 1;
+                String answer = entry.path("answer").asText("").trim();
+                if (index >= 0 && index < questionCount && answers[index] == null && !answer.isEmpty()) {
+                    answers[index] = answer;
+                    parsed++;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to parse OpenAI batch Q&A response: {}", e.getMessage());
+        }
+        if (parsed < questionCount) {
+            log.warn("OpenAI batch Q&A answered {} of {} questions", parsed, questionCount);
+        }
+        return Arrays.asList(answers);
+    }
+}
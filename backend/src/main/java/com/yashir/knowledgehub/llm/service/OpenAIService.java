@@ -1,23 +1,40 @@
 package com.yashir.knowledgehub.llm.service;
 
 import com.yashir.knowledgehub.document.model.DocumentType;
+import com.yashir.knowledgehub.llm.config.OpenAIConfig;
+import com.yashir.knowledgehub.llm.exception.LLMCapacityExceededException;
+import com.yashir.knowledgehub.llm.exception.LLMUnavailableException;
+import com.yashir.knowledgehub.llm.service.dto.DocumentPreview;
 import com.yashir.knowledgehub.llm.service.prompt.DocumentTypePromptBuilder;
 import com.yashir.knowledgehub.llm.service.prompt.QuestionAnswerPromptBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
  * OpenAI service implementation for LLM operations
+ * Calls are composed on the non-blocking client and only resolved at this synchronous interface boundary
+ * Q&A calls rejected by the Q&A bulkhead fail with LLMCapacityExceededException (503) instead of an error answer,
+ * and Q&A calls that get no answer fail with LLMUnavailableException (503), so error texts are never cached as answers
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class OpenAIService implements LLMServiceInterface {
-    
+
+    private static final String MISSING_API_KEY_MESSAGE =
+            "OpenAI API key is not configured. Please configure the API key to get answers.";
+    private static final String QA_ERROR_MESSAGE = "An unexpected error occurred. Please try again later.";
+
     @Value("${llm.openai.api.key:}")
     private String apiKey;
     
@@ -34,15 +51,47 @@ public class OpenAIService implements LLMServiceInterface {
             return DocumentType.UNDEFINED;
         }
 
-        try {
-            String prompt = documentTypePromptBuilder.buildPrompt(fileName, fileContent);
-            Map<String, Object> requestBody = requestBuilder.buildTypeIdentificationRequest(prompt);
-            String response = openAIClient.callAPI(apiKey, requestBody);
-            return responseParser.parseDocumentType(response);
-        } catch (Exception e) {
-            log.error("Error calling OpenAI API: {}", e.getMessage(), e);
-            return DocumentType.UNDEFINED;
+        String prompt = documentTypePromptBuilder.buildPrompt(fileName, fileContent);
+        Map<String, Object> requestBody = requestBuilder.buildTypeIdentificationRequest(prompt);
+        return openAIClient.callAPI(OpenAIConfig.OPERATION_CLASSIFICATION, apiKey, requestBody)
+                .map(responseParser::parseDocumentType)
+                .onErrorResume(e -> {
+                    log.error("Error calling OpenAI API: {}", e.getMessage(), e);
+                    return Mono.empty();
+                })
+                .blockOptional()
+                .orElse(DocumentType.UNDEFINED);
+    }
+
+    /**
+     * Identifies the types of several documents with one request
+     * The shared instructions are sent once and the model answers with one line per document
+     * Never fails: if the call fails or the classification bulkhead rejects it, every document is UNDEFINED
+     */
+    @Override
+    public List<DocumentType> identifyDocumentTypes(List<DocumentPreview> previews) {
+        if (previews.size() <= 1) {
+            return previews.stream()
+                    .map(preview -> identifyDocumentType(preview.getFileName(), preview.getContentPreview()))
+                    .toList();
+        }
+        List<DocumentType> undefined = Collections.nCopies(previews.size(), DocumentType.UNDEFINED);
+        String apiKey = validateAndGetApiKey();
+        if (apiKey == null) {
+            return undefined;
         }
+
+        String prompt = documentTypePromptBuilder.buildBatchPrompt(previews);
+        Map<String, Object> requestBody = requestBuilder.buildBatchTypeIdentificationRequest(prompt, previews.size());
+        return openAIClient.callAPI(OpenAIConfig.OPERATION_BATCH_CLASSIFICATION, apiKey, requestBody)
+                .map(response -> responseParser.parseDocumentTypes(response, previews.size()))
+                .onErrorResume(e -> {
+                    // Like a single document, a failed or rejected batch leaves its documents UNDEFINED
+                    log.error("Error calling OpenAI API for a batch of {} documents: {}", previews.size(), e.getMessage(), e);
+                    return Mono.empty();
+                })
+                .blockOptional()
+                .orElse(undefined);
     }
 
     /**
@@ -61,32 +110,93 @@ public class OpenAIService implements LLMServiceInterface {
 
     @Override
     public String answerQuestion(String question, String documentContext, DocumentType documentType) {
+        String apiKey = requireApiKey();
+        String prompt = qaPromptBuilder.buildPrompt(question, documentContext, documentType);
+        Map<String, Object> requestBody = requestBuilder.buildQARequest(prompt);
+        return openAIClient.callAPI(OpenAIConfig.OPERATION_QA, apiKey, requestBody)
+                .defaultIfEmpty("")
+                .map(this::formatAnswer)
+                .onErrorMap(e -> !(e instanceof LLMCapacityExceededException || e instanceof LLMUnavailableException), e -> {
+                    log.error("Error calling OpenAI API for Q&A: {}", e.getMessage(), e);
+                    return new LLMUnavailableException(QA_ERROR_MESSAGE, e);
+                })
+                .block();
+    }
+
+    /**
+     * Answers several questions with one request per OpenAIConfig.MAX_BATCH_QUESTIONS questions
+     * The context is sent once per request and the model answers with a JSON object holding one answer per question
+     * A failed request fails the whole batch with LLMUnavailableException rather than answering with error texts
+     */
+    @Override
+    public List<String> answerQuestions(List<String> questions, String documentContext, DocumentType documentType) {
+        if (questions.size() > OpenAIConfig.MAX_BATCH_QUESTIONS) {
+            List<String> answers = new ArrayList<>(questions.size());
+            for (int from = 0; from < questions.size(); from += OpenAIConfig.MAX_BATCH_QUESTIONS) {
+                List<String> group = questions.subList(from, Math.min(from + OpenAIConfig.MAX_BATCH_QUESTIONS, questions.size()));
+                answers.addAll(answerQuestions(group, documentContext, documentType));
+            }
+            return answers;
+        }
+        if (questions.size() <= 1) {
+            return questions.stream()
+                    .map(question -> answerQuestion(question, documentContext, documentType))
+                    .toList();
+        }
+        String apiKey = requireApiKey();
+
+        String prompt = qaPromptBuilder.buildBatchPrompt(questions, documentContext, documentType);
+        Map<String, Object> requestBody = requestBuilder.buildBatchQARequest(prompt, questions.size());
+        return openAIClient.callAPI(OpenAIConfig.OPERATION_BATCH_QA, apiKey, requestBody)
+                .map(response -> responseParser.parseAnswers(response, questions.size()))
+                .onErrorMap(e -> !(e instanceof LLMCapacityExceededException), e -> {
+                    log.error("Error calling OpenAI API for a batch of {} questions: {}", questions.size(), e.getMessage(), e);
+                    return new LLMUnavailableException(QA_ERROR_MESSAGE, e);
+                })
+                .blockOptional()
+                .orElseGet(() -> Arrays.asList(new String[questions.size()]));
+    }
+
+    @Override
+    public Flux<String> streamAnswer(String question, String documentContext, DocumentType documentType) {
         String apiKey = validateAndGetApiKey();
         if (apiKey == null) {
-            return "OpenAI API key is not configured. Please configure the API key to get answers.";
+            return Flux.error(new LLMUnavailableException(MISSING_API_KEY_MESSAGE));
         }
 
-        try {
-            String prompt = qaPromptBuilder.buildPrompt(question, documentContext, documentType);
-            Map<String, Object> requestBody = requestBuilder.buildQARequest(prompt);
-            String response = openAIClient.callAPI(apiKey, requestBody);
-            return formatAnswer(response);
-        } catch (Exception e) {
-            log.error("Error calling OpenAI API for Q&A: {}", e.getMessage(), e);
-            return "An unexpected error occurred. Please try again later.";
+        String prompt = qaPromptBuilder.buildPrompt(question, documentContext, documentType);
+        Map<String, Object> requestBody = requestBuilder.buildQAStreamRequest(prompt);
+        return openAIClient.streamAPI(OpenAIConfig.OPERATION_QA_STREAM, apiKey, requestBody)
+                .onErrorMap(e -> !(e instanceof LLMCapacityExceededException), e -> {
+                    log.error("Error calling OpenAI API for streaming Q&A: {}", e.getMessage(), e);
+                    return new LLMUnavailableException(QA_ERROR_MESSAGE, e);
+                });
+    }
+
+    /**
+     * Gets the API key for a Q&A call
+     * @return the API key
+     * @throws LLMUnavailableException if the API key is not configured
+     */
+    private String requireApiKey() {
+        String apiKey = validateAndGetApiKey();
+        if (apiKey == null) {
+            throw new LLMUnavailableException(MISSING_API_KEY_MESSAGE);
         }
+        return apiKey;
     }
 
     /**
-     * Formats the answer response, handling null or empty responses
+     * Formats the answer response
      * @param response the raw response from OpenAI
-     * @return the formatted answer, or a default message if response is invalid
+     * @return the trimmed answer
+     * @throws LLMUnavailableException if the response holds no answer
      */
     private String formatAnswer(String response) {
         if (response != null && !response.trim().isEmpty()) {
             return response.trim();
         }
-        return "Sorry, I couldn't generate an answer. Please try again.";
+        throw new LLMUnavailableException("Sorry, I couldn't generate an answer. Please try again.");
     }
 }
 
@@ -0,0 +1,15 @@
+package com.yashir.knowledgehub.llm.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A document to classify: its file name and a bounded preview of its content
+ * Used for batched classification requests
+ */
+@Data
+@AllArgsConstructor
+public class DocumentPreview {
+    private String fileName;
+    private String contentPreview;
+}
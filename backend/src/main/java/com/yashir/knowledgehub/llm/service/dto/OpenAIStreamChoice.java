@@ -0,0 +1,15 @@
+package com.yashir.knowledgehub.llm.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * DTO representing a choice in a streamed OpenAI API chunk
+ * Carries the incremental delta instead of the full message
+ */
+@Data
+public class OpenAIStreamChoice {
+
+    @JsonProperty("delta")
+    private OpenAIMessage delta;
+}
@@ -0,0 +1,17 @@
+package com.yashir.knowledgehub.llm.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO representing one server-sent chunk of a streamed OpenAI API response
+ * Used for type-safe JSON parsing
+ */
+@Data
+public class OpenAIStreamChunk {
+
+    @JsonProperty("choices")
+    private List<OpenAIStreamChoice> choices;
+}
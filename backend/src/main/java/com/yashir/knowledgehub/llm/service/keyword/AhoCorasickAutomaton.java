@@ -0,0 +1,161 @@
+package com.yashir.knowledgehub.llm.service.keyword;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aho-Corasick automaton over a fixed set of ASCII keywords, matched case-insensitively
+ * Built once into a dense transition table, so text is matched against all keywords in a single pass
+ * with one table lookup per character. The table has one column per distinct keyword character (upper
+ * and lower case share a column) plus one for all other characters, which keeps it small enough to stay
+ * in the CPU cache; characters that occur in no keyword reset the automaton to the root state
+ */
+public final class AhoCorasickAutomaton {
+
+    private static final int ALPHABET_SIZE = 128;
+    private static final int ROOT = 0;
+    private static final int OTHER_CHARACTERS = 0;
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final String[] keywords;
+    // ASCII character -> transition table column
+    private final byte[] columns = new byte[ALPHABET_SIZE];
+    private final int columnCount;
+    private final int[] transitions;
+    private final int[][] matches;
+    private final int maxKeywordLength;
+
+    /**
+     * Compiles the automaton
+     * @param keywords the keywords, matched case-insensitively; keyword IDs are their list indices
+     * @throws IllegalArgumentException if a keyword is empty or contains non-ASCII characters
+     */
+    public AhoCorasickAutomaton(List<String> keywords) {
+        this.keywords = new String[keywords.size()];
+        List<int[]> gotoTable = new ArrayList<>();
+        List<List<Integer>> output = new ArrayList<>();
+        gotoTable.add(newRow());
+        output.add(new ArrayList<>());
+
+        // 1. Trie of all keywords
+        int longest = 0;
+        boolean[] usedCharacters = new boolean[ALPHABET_SIZE];
+        for (int id = 0; id < keywords.size(); id++) {
+            String keyword = keywords.get(id).toLowerCase(Locale.ROOT);
+            if (keyword.isEmpty() || !keyword.chars().allMatch(c -> c < ALPHABET_SIZE)) {
+                throw new IllegalArgumentException("Keywords must be non-empty ASCII: '" + keyword + "'");
+            }
+            this.keywords[id] = keyword;
+            longest = Math.max(longest, keyword.length());
+
+            int state = ROOT;
+            for (int i = 0; i < keyword.length(); i++) {
+                int c = keyword.charAt(i);
+                usedCharacters[c] = true;
+                if (gotoTable.get(state)[c] < 0) {
+                    gotoTable.get(state)[c] = gotoTable.size();
+                    gotoTable.add(newRow());
+                    output.add(new ArrayList<>());
+                }
+                state = gotoTable.get(state)[c];
+            }
+            output.get(state).add(id);
+        }
+        this.maxKeywordLength = longest;
+
+        int column = OTHER_CHARACTERS;
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            if (usedCharacters[c]) {
+                columns[c] = (byte) ++column;
+                if (Character.isLowerCase(c)) {
+                    columns[Character.toUpperCase(c)] = (byte) column;
+                }
+            }
+        }
+        this.columnCount = column + 1;
+
+        // 2. Failure links in breadth-first order, folded into a complete transition table
+        int stateCount = gotoTable.size();
+        int[] failure = new int[stateCount];
+        this.transitions = new int[stateCount * columnCount];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            int child = gotoTable.get(ROOT)[c];
+            if (child >= 0) {
+                transitions[columns[c]] = child;
+                failure[child] = ROOT;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            // Keywords ending at the failure state also end here (e.g. "rule" inside "overruled")
+            output.get(state).addAll(output.get(failure[state]));
+            for (int c = 0; c < ALPHABET_SIZE; c++) {
+                if (!usedCharacters[c]) {
+                    continue;
+                }
+                int child = gotoTable.get(state)[c];
+                int fallback = transitions[failure[state] * columnCount + columns[c]];
+                if (child < 0) {
+                    transitions[state * columnCount + columns[c]] = fallback;
+                } else {
+                    transitions[state * columnCount + columns[c]] = child;
+                    failure[child] = fallback;
+                    queue.add(child);
+                }
+            }
+        }
+
+        this.matches = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            List<Integer> ids = output.get(state);
+            matches[state] = ids.isEmpty() ? NO_MATCHES : ids.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Gets the initial state
+     * @return the root state
+     */
+    public int start() {
+        return ROOT;
+    }
+
+    /**
+     * Advances the automaton by one character
+     * @param state the current state
+     * @param c the next character, in any case
+     * @return the next state
+     */
+    public int next(int state, char c) {
+        return c < ALPHABET_SIZE ? transitions[state * columnCount + columns[c]] : ROOT;
+    }
+
+    /**
+     * Gets the keywords that end at a state
+     * @param state the state
+     * @return the keyword IDs (shared array, must not be modified)
+     */
+    public int[] matches(int state) {
+        return matches[state];
+    }
+
+    public String keyword(int id) {
+        return keywords[id];
+    }
+
+    public int maxKeywordLength() {
+        return maxKeywordLength;
+    }
+
+    private static int[] newRow() {
+        int[] row = new int[ALPHABET_SIZE];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
@@ -3,96 +3,254 @@ package com.yashir.knowledgehub.llm.service.keyword;
 import com.yashir.knowledgehub.document.model.DocumentType;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 /**
  * Keyword matcher for document type identification
  * Used by MockLLMService for keyword-based classification
+ * All keywords are compiled into one Aho-Corasick automaton, so the file name and content are scanned
+ * once, as a stream, whatever the number of keywords. Every hit adds the keyword's weight to its
+ * document type and the type with the highest score wins
+ * A hit counts only where a word starts (after a non-alphanumeric character or at a camelCase hump),
+ * so "rule" does not match inside "overruled" but still matches "rules"; when two keywords start at the
+ * same position only the longer one counts ("guideline" is not also a "guide")
  */
 @Component
 public class DocumentTypeKeywordMatcher {
 
-    private static final List<String> POLICY_KEYWORDS = Arrays.asList(
-            "policy", "procedure", "guideline", "rule", "regulation", "standard",
-            "protocol", "directive", "compliance", "governance", "framework", 
-            "code of conduct", "terms of service", "terms and conditions"
+    // File name hits are a short, deliberate signal and outweigh hits in the content
+    private static final int FILE_NAME_WEIGHT = 10;
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    // Scored types in tie-break order
+    private static final List<DocumentType> SCORED_TYPES = List.of(
+            DocumentType.POLICY, DocumentType.REPORT, DocumentType.MANUAL);
+
+    private static final Map<String, Integer> POLICY_KEYWORDS = Map.ofEntries(
+            Map.entry("policy", 3), Map.entry("procedure", 2), Map.entry("guideline", 3), Map.entry("rule", 1),
+            Map.entry("regulation", 3), Map.entry("standard", 1), Map.entry("protocol", 2), Map.entry("directive", 3),
+            Map.entry("compliance", 2), Map.entry("governance", 3), Map.entry("framework", 1),
+            Map.entry("code of conduct", 3), Map.entry("terms of service", 3), Map.entry("terms and conditions", 3)
     );
-    
-    private static final List<String> REPORT_KEYWORDS = Arrays.asList(
-            "report", "analysis", "summary", "data", "statistic", "overview", 
-            "findings", "results", "evaluation", "assessment", "review", "audit", 
-            "metrics", "kpi", "dashboard", "quarterly", "annual", "monthly"
+
+    private static final Map<String, Integer> REPORT_KEYWORDS = Map.ofEntries(
+            Map.entry("report", 3), Map.entry("analysis", 2), Map.entry("summary", 1), Map.entry("data", 1),
+            Map.entry("statistic", 2), Map.entry("overview", 1), Map.entry("findings", 3), Map.entry("results", 1),
+            Map.entry("evaluation", 2), Map.entry("assessment", 2), Map.entry("review", 1), Map.entry("audit", 3),
+            Map.entry("metrics", 2), Map.entry("kpi", 3), Map.entry("dashboard", 2), Map.entry("quarterly", 2),
+            Map.entry("annual", 1), Map.entry("monthly", 1)
     );
-    
-    private static final List<String> MANUAL_KEYWORDS = Arrays.asList(
-            "manual", "guide", "instruction", "how to", "how-to", "tutorial",
-            "walkthrough", "step by step", "step-by-step", "getting started",
-            "quick start", "handbook", "reference", "documentation", "docs"
+
+    private static final Map<String, Integer> MANUAL_KEYWORDS = Map.ofEntries(
+            Map.entry("manual", 3), Map.entry("guide", 2), Map.entry("instruction", 2), Map.entry("how to", 2),
+            Map.entry("how-to", 2), Map.entry("tutorial", 3), Map.entry("walkthrough", 3), Map.entry("step by step", 3),
+            Map.entry("step-by-step", 3), Map.entry("getting started", 3), Map.entry("quick start", 3),
+            Map.entry("handbook", 3), Map.entry("reference", 1), Map.entry("documentation", 1), Map.entry("docs", 1)
     );
 
+    private final AhoCorasickAutomaton automaton;
+    private final DocumentType[] keywordTypes;
+    private final int[] keywordWeights;
+    private final int[] keywordLengths;
+    // Per keyword, the other keywords that are its proper prefixes and are superseded when it matches
+    private final int[][] prefixKeywords;
+
+    public DocumentTypeKeywordMatcher() {
+        List<String> keywords = new ArrayList<>();
+        List<DocumentType> types = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        addKeywords(DocumentType.POLICY, POLICY_KEYWORDS, keywords, types, weights);
+        addKeywords(DocumentType.REPORT, REPORT_KEYWORDS, keywords, types, weights);
+        addKeywords(DocumentType.MANUAL, MANUAL_KEYWORDS, keywords, types, weights);
+
+        this.automaton = new AhoCorasickAutomaton(keywords);
+        this.keywordTypes = types.toArray(new DocumentType[0]);
+        this.keywordWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+        this.keywordLengths = keywords.stream().mapToInt(String::length).toArray();
+        this.prefixKeywords = new int[keywords.size()][];
+        for (int id = 0; id < keywords.size(); id++) {
+            String keyword = automaton.keyword(id);
+            List<Integer> prefixes = new ArrayList<>();
+            for (int other = 0; other < keywords.size(); other++) {
+                String candidate = automaton.keyword(other);
+                if (candidate.length() < keyword.length() && keyword.startsWith(candidate)) {
+                    prefixes.add(other);
+                }
+            }
+            prefixKeywords[id] = prefixes.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
     /**
      * Identifies document type based on keywords in file name and content
-     * Checks file name first (faster) then falls back to content
      * @param fileName the file name
      * @param fileContent the file content
-     * @return the identified DocumentType
+     * @return the identified DocumentType, UNDEFINED if no keyword matched
      */
     public DocumentType identifyByKeywords(String fileName, String fileContent) {
-        String lowerFileName = normalizeString(fileName);
-        String lowerContent = normalizeString(fileContent);
-        
-        // Check filename first (faster - small string)
-        DocumentType fileNameType = checkKeywords(lowerFileName);
-        if (fileNameType != null) {
-            return fileNameType;
-        }
-        
-        // Fallback to file content (slower - larger string)
-        DocumentType contentType = checkKeywords(lowerContent);
-        if (contentType != null) {
-            return contentType;
-        }
-        
-        return DocumentType.UNDEFINED;
+        return classify(fileName, fileContent).getType();
     }
 
     /**
-     * Checks if text contains keywords for any document type
-     * @param text the text to check
-     * @return the DocumentType if keywords found, null otherwise
+     * Scores file name and content against all keywords in one pass each
+     * @param fileName the file name
+     * @param fileContent the file content
+     * @return the best scoring type with its confidence
      */
-    private DocumentType checkKeywords(String text) {
-        if (containsKeywords(text, POLICY_KEYWORDS)) {
-            return DocumentType.POLICY;
+    public KeywordClassification classify(String fileName, String fileContent) {
+        KeywordScan scan = new KeywordScan();
+        scanFileName(scan, fileName);
+        if (fileContent != null) {
+            scan.feed(fileContent, 0, fileContent.length());
         }
-        if (containsKeywords(text, REPORT_KEYWORDS)) {
-            return DocumentType.REPORT;
+        return scan.result();
+    }
+
+    /**
+     * Scores file name and content against all keywords, reading the content as a stream
+     * Memory use is constant whatever the content length
+     * @param fileName the file name
+     * @param fileContent the file content, read to the end but not closed
+     * @return the best scoring type with its confidence
+     * @throws IOException if reading the content fails
+     */
+    public KeywordClassification classify(String fileName, Reader fileContent) throws IOException {
+        KeywordScan scan = new KeywordScan();
+        scanFileName(scan, fileName);
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        int read;
+        while ((read = fileContent.read(buffer)) != -1) {
+            scan.feed(buffer, 0, read);
         }
-        if (containsKeywords(text, MANUAL_KEYWORDS)) {
-            return DocumentType.MANUAL;
+        return scan.result();
+    }
+
+    private void scanFileName(KeywordScan scan, String fileName) {
+        if (fileName != null) {
+            scan.restart(FILE_NAME_WEIGHT);
+            scan.feed(fileName, 0, fileName.length());
         }
-        return null;
+        scan.restart(1);
     }
 
     /**
-     * Normalizes a string for keyword matching
-     * @param text the text to normalize
-     * @return normalized lowercase string, or empty string if null
+     * Checks whether a keyword starting at a character starts a word
+     * @param previous the character before the keyword
+     * @param first the first character of the keyword
+     * @return true after a non-alphanumeric character or at a camelCase hump
      */
-    private String normalizeString(String text) {
-        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    private static boolean startsWord(char previous, char first) {
+        return !Character.isLetterOrDigit(previous)
+                || Character.isUpperCase(first) && Character.isLowerCase(previous);
+    }
+
+    private static void addKeywords(DocumentType type, Map<String, Integer> weightedKeywords,
+                                    List<String> keywords, List<DocumentType> types, List<Integer> weights) {
+        weightedKeywords.forEach((keyword, weight) -> {
+            keywords.add(keyword);
+            types.add(type);
+            weights.add(weight);
+        });
     }
 
     /**
-     * Checks if text contains any of the given keywords
-     * @param text the text to search
-     * @param keywords the keywords to search for
-     * @return true if any keyword is found, false otherwise
+     * Running state of one classification: automaton state, the most recent characters and scores
+     * Text can be fed in pieces of any size; matches spanning two pieces are found
+     * Word starts are only checked when a keyword matches, by looking back at the recent characters,
+     * so the per-character work is one automaton transition
      */
-    private boolean containsKeywords(String text, List<String> keywords) {
-        return keywords.stream().anyMatch(text::contains);
+    private final class KeywordScan {
+
+        private final int[] scores = new int[DocumentType.values().length];
+        // Last characters fed, indexed by position & recentMask; longer than any keyword plus one
+        private final char[] recent = new char[Integer.highestOneBit(automaton.maxKeywordLength()) << 1];
+        private final int recentMask = recent.length - 1;
+        private int state;
+        private int position;
+        private int weight = 1;
+
+        /**
+         * Starts a new text (file name or content) whose hits are multiplied by the given weight
+         * @param textWeight the weight of hits in the new text
+         */
+        private void restart(int textWeight) {
+            state = automaton.start();
+            position = 0;
+            weight = textWeight;
+        }
+
+        private void feed(CharSequence text, int from, int to) {
+            int currentState = state;
+            int currentPosition = position;
+            for (int i = from; i < to; i++) {
+                char c = text.charAt(i);
+                recent[currentPosition & recentMask] = c;
+                currentState = automaton.next(currentState, c);
+                int[] ids = automaton.matches(currentState);
+                if (ids.length > 0) {
+                    scoreMatches(ids, currentPosition);
+                }
+                currentPosition++;
+            }
+            state = currentState;
+            position = currentPosition;
+        }
+
+        private void feed(char[] text, int from, int to) {
+            int currentState = state;
+            int currentPosition = position;
+            for (int i = from; i < to; i++) {
+                char c = text[i];
+                recent[currentPosition & recentMask] = c;
+                currentState = automaton.next(currentState, c);
+                int[] ids = automaton.matches(currentState);
+                if (ids.length > 0) {
+                    scoreMatches(ids, currentPosition);
+                }
+                currentPosition++;
+            }
+            state = currentState;
+            position = currentPosition;
+        }
+
+        private void scoreMatches(int[] ids, int endPosition) {
+            for (int id : ids) {
+                int start = endPosition - keywordLengths[id] + 1;
+                if (start == 0 || startsWord(recent[(start - 1) & recentMask], recent[start & recentMask])) {
+                    score(id, weight);
+                    for (int prefix : prefixKeywords[id]) {
+                        score(prefix, -weight);
+                    }
+                }
+            }
+        }
+
+        private void score(int keywordId, int multiplier) {
+            scores[keywordTypes[keywordId].ordinal()] += keywordWeights[keywordId] * multiplier;
+        }
+
+        private KeywordClassification result() {
+            Map<DocumentType, Integer> typeScores = new EnumMap<>(DocumentType.class);
+            DocumentType best = DocumentType.UNDEFINED;
+            int bestScore = 0;
+            int total = 0;
+            for (DocumentType type : SCORED_TYPES) {
+                int score = scores[type.ordinal()];
+                typeScores.put(type, score);
+                total += score;
+                if (score > bestScore) {
+                    best = type;
+                    bestScore = score;
+                }
+            }
+            double confidence = total > 0 ? (double) bestScore / total : 0;
+            return new KeywordClassification(best, confidence, typeScores);
+        }
     }
 }
-
@@ -0,0 +1,19 @@
+package com.yashir.knowledgehub.llm.service.keyword;
+
+import com.yashir.knowledgehub.document.model.DocumentType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Result of keyword-based document classification
+ * Confidence is the share of the winning type in the total keyword score (0 when nothing matched)
+ */
+@Data
+@AllArgsConstructor
+public class KeywordClassification {
+    private DocumentType type;
+    private double confidence;
+    private Map<DocumentType, Integer> scores;
+}
@@ -0,0 +1,319 @@
+package com.yashir.knowledgehub.llm.service.limit;
+
+import com.yashir.knowledgehub.llm.exception.LLMCapacityExceededException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bulkhead with an adaptive concurrency limit (AIMD) in front of LLM calls
+ * At most limit calls run at once; further calls wait in a bounded FIFO queue for at most max-wait and are
+ * rejected with LLMCapacityExceededException when the queue is full or the wait runs out
+ * The limit grows by 1/limit per successful call while the bulkhead is busy (about +1 per round trip) and shrinks
+ * at most once per round trip:
+ * - by half when the provider signals overload (429, 503) or a call times out
+ * - by 10% when recent latency is well above the long-term latency, before the provider starts rejecting calls
+ * Exposes llm.concurrency.limit, .in-flight, .queued and .rejected tagged with the bulkhead name
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final double BACKOFF_RATIO = 0.5;
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+    // Recent latency above this multiple of the long-term latency counts as queueing at the provider
+    private static final double LATENCY_TOLERANCE = 2.0;
+    // Weights of a new latency in the recent (about 5 calls) and long-term (about 100 calls) averages
+    private static final double RECENT_SMOOTHING = 0.2;
+    private static final double LONG_TERM_SMOOTHING = 0.01;
+    private static final int MAX_RETRY_AFTER_SECONDS = 60;
+
+    private final String name;
+    private final int maxLimit;
+    private final int queueCapacity;
+    private final Duration maxWait;
+
+    private final Object lock = new Object();
+    private final Deque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private double recentLatencyNanos;
+    private double longTermLatencyNanos;
+    private long lastDecreaseNanos;
+    private long rejected;
+
+    /**
+     * Creates a bulkhead
+     * @param name the bulkhead name, tag of its metrics
+     * @param initialLimit the concurrency limit to start with
+     * @param maxLimit the highest concurrency limit
+     * @param queueCapacity the number of calls that may wait for a slot
+     * @param maxWait the longest time a call waits for a slot
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int maxLimit, int queueCapacity, Duration maxWait) {
+        if (initialLimit < 1 || maxLimit < initialLimit || queueCapacity < 0) {
+            throw new IllegalArgumentException("Invalid limits for bulkhead " + name);
+        }
+        this.name = name;
+        this.limit = initialLimit;
+        this.maxLimit = maxLimit;
+        this.queueCapacity = queueCapacity;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Runs a call inside the bulkhead
+     * The call's latency and outcome adjust the limit
+     * @param call the call, subscribed once a slot is free
+     * @return the call's result, or an LLMCapacityExceededException error if no slot became free in time
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.usingWhen(acquire(),
+                permit -> call,
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.SUCCESS, true)),
+                (permit, error) -> Mono.fromRunnable(() -> release(permit, outcomeOf(error), true)),
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.CANCELLED, true)));
+    }
+
+    /**
+     * Runs a streamed call inside the bulkhead; the slot is held until the stream ends
+     * Only the outcome adjusts the limit, as the duration of a stream depends on the answer length
+     * @param call the call, subscribed once a slot is free
+     * @return the call's elements, or an LLMCapacityExceededException error if no slot became free in time
+     */
+    public <T> Flux<T> executeStream(Flux<T> call) {
+        return Flux.usingWhen(acquire(),
+                permit -> call,
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.SUCCESS, false)),
+                (permit, error) -> Mono.fromRunnable(() -> release(permit, outcomeOf(error), false)),
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.CANCELLED, false)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("llm.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current concurrency limit of LLM calls")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("llm.concurrency.in-flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("LLM calls running")
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("llm.concurrency.queued", this, AdaptiveConcurrencyLimiter::getQueued)
+                .description("LLM calls waiting for a slot")
+                .tag("bulkhead", name)
+                .register(registry);
+        FunctionCounter.builder("llm.concurrency.rejected", this, AdaptiveConcurrencyLimiter::getRejected)
+                .description("LLM calls rejected because the queue was full or the wait ran out")
+                .tag("bulkhead", name)
+                .register(registry);
+    }
+
+    public int getLimit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public int getQueued() {
+        synchronized (lock) {
+            return waiters.size();
+        }
+    }
+
+    public long getRejected() {
+        synchronized (lock) {
+            return rejected;
+        }
+    }
+
+    /**
+     * Takes a slot, or queues for one
+     * @return the permit of the slot; an LLMCapacityExceededException error if the queue is full or the wait runs out
+     */
+    private Mono<Permit> acquire() {
+        return Mono.defer(() -> {
+            CompletableFuture<Permit> waiter = new CompletableFuture<>();
+            synchronized (lock) {
+                if (waiters.isEmpty() && inFlight < (int) limit) {
+                    inFlight++;
+                    return Mono.just(new Permit(inFlight));
+                }
+                if (waiters.size() >= queueCapacity) {
+                    rejected++;
+                    return Mono.error(capacityExceeded());
+                }
+                waiters.addLast(waiter);
+            }
+            return Mono.fromFuture(waiter, true)
+                    .doOnCancel(() -> abandon(waiter))
+                    .timeout(maxWait, Schedulers.parallel())
+                    .onErrorMap(TimeoutException.class, e -> {
+                        synchronized (lock) {
+                            rejected++;
+                        }
+                        return capacityExceeded();
+                    });
+        });
+    }
+
+    /**
+     * Removes a waiter that gave up (timed out or cancelled); gives its slot back if it was granted meanwhile
+     * The future is left incomplete rather than cancelled, so no error is signalled to the gone subscriber
+     * @param waiter the waiter
+     */
+    private void abandon(CompletableFuture<Permit> waiter) {
+        synchronized (lock) {
+            if (waiters.remove(waiter)) {
+                return;
+            }
+        }
+        waiter.thenAccept(permit -> release(permit, Outcome.CANCELLED, false));
+    }
+
+    /**
+     * Gives a slot back, adjusts the limit and hands freed slots to waiting calls
+     * @param permit the permit of the slot
+     * @param outcome how the call ended
+     * @param latencySensitive whether the call's latency is compared to the long-term latency
+     */
+    private void release(Permit permit, Outcome outcome, boolean latencySensitive) {
+        long latency = System.nanoTime() - permit.startNanos;
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+        List<Permit> grantedPermits = new ArrayList<>();
+        synchronized (lock) {
+            inFlight--;
+            adjustLimit(permit, outcome, latencySensitive ? latency : -1);
+            while (!waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                granted.add(waiters.pollFirst());
+                grantedPermits.add(new Permit(inFlight));
+            }
+        }
+        // Completed outside the lock, as completing runs the waiting call's subscriber
+        for (int i = 0; i < granted.size(); i++) {
+            granted.get(i).complete(grantedPermits.get(i));
+        }
+    }
+
+    private void adjustLimit(Permit permit, Outcome outcome, long latencyNanos) {
+        double previous = limit;
+        switch (outcome) {
+            case OVERLOAD -> decrease(BACKOFF_RATIO);
+            case SUCCESS -> {
+                if (latencyNanos >= 0) {
+                    recordLatency(latencyNanos);
+                }
+                if (latencyNanos >= 0 && recentLatencyNanos > longTermLatencyNanos * LATENCY_TOLERANCE) {
+                    decrease(LATENCY_BACKOFF_RATIO);
+                } else if (permit.inFlightAtStart * 2 >= limit) {
+                    // Grow only while the limit is actually in use
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+            default -> {
+                // Other errors and cancellations say nothing about the provider's capacity
+            }
+        }
+        if ((int) limit != (int) previous) {
+            log.debug("Concurrency limit of {} bulkhead changed from {} to {} ({})", name, (int) previous, (int) limit, outcome);
+        }
+    }
+
+    /**
+     * Shrinks the limit, unless it already shrank within the last round trip
+     * Calls that were in flight together tend to fail together; they count as one signal
+     * @param ratio the factor to shrink by
+     */
+    private void decrease(double ratio) {
+        long now = System.nanoTime();
+        if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < longTermLatencyNanos) {
+            return;
+        }
+        limit = Math.max(1, limit * ratio);
+        lastDecreaseNanos = now;
+    }
+
+    private void recordLatency(long latencyNanos) {
+        if (longTermLatencyNanos == 0) {
+            recentLatencyNanos = latencyNanos;
+            longTermLatencyNanos = latencyNanos;
+            return;
+        }
+        recentLatencyNanos += RECENT_SMOOTHING * (latencyNanos - recentLatencyNanos);
+        longTermLatencyNanos += LONG_TERM_SMOOTHING * (latencyNanos - longTermLatencyNanos);
+    }
+
+    /**
+     * Builds the rejection of a call, with a retry delay of about the time the queue ahead needs to drain
+     * @return the exception
+     */
+    private LLMCapacityExceededException capacityExceeded() {
+        double latencySeconds;
+        int queued;
+        double currentLimit;
+        synchronized (lock) {
+            latencySeconds = longTermLatencyNanos / 1_000_000_000d;
+            queued = waiters.size();
+            currentLimit = Math.max(1, limit);
+        }
+        long seconds = (long) Math.ceil(latencySeconds * (queued / currentLimit + 1));
+        seconds = Math.min(MAX_RETRY_AFTER_SECONDS, Math.max(1, seconds));
+        return new LLMCapacityExceededException(name, Duration.ofSeconds(seconds));
+    }
+
+    /**
+     * Classifies how a call failed
+     * @param error the error
+     * @return OVERLOAD for 429 and 503 responses and timeouts anywhere in the cause chain, otherwise ERROR
+     */
+    private static Outcome outcomeOf(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException.TooManyRequests
+                    || cause instanceof WebClientResponseException.ServiceUnavailable
+                    || cause instanceof TimeoutException
+                    || cause instanceof io.netty.handler.timeout.TimeoutException) {
+                return Outcome.OVERLOAD;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return Outcome.ERROR;
+    }
+
+    private enum Outcome {
+        SUCCESS, OVERLOAD, ERROR, CANCELLED
+    }
+
+    /**
+     * A taken slot: when it was granted and how busy the bulkhead was then
+     */
+    private static class Permit {
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+    }
+}
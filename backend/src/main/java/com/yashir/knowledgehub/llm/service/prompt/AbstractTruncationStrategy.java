@@ -0,0 +1,65 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Base class for truncation strategies
+ * Keeps whole sections where they fit and cuts only the section at the budget boundary on a token boundary
+ */
+public abstract class AbstractTruncationStrategy implements TruncationStrategy {
+
+    // Marks text left out between kept parts, as in excerpt contexts and classification previews
+    protected static final String OMISSION_MARKER = "\n[...]\n";
+
+    protected final TokenCounter tokenCounter;
+
+    protected AbstractTruncationStrategy(TokenCounter tokenCounter) {
+        this.tokenCounter = tokenCounter;
+    }
+
+    /**
+     * Appends the beginning of a range of sections
+     * @param kept the parts being collected
+     * @param sections the sections of the text
+     * @param from the first section of the range
+     * @param to the section after the range
+     * @param maxTokens the maximum number of tokens to append
+     */
+    protected void appendHead(List<KeptPart> kept, List<TextSection> sections, int from, int to, int maxTokens) {
+        int remaining = maxTokens;
+        for (int i = from; i < to && remaining > 0; i++) {
+            TextSection section = sections.get(i);
+            if (section.getTokens() <= remaining) {
+                kept.add(KeptPart.whole(i));
+                remaining -= section.getTokens();
+            } else {
+                kept.add(KeptPart.head(i, remaining));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collects the end of the text
+     * @param sections the sections of the text
+     * @param maxTokens the maximum number of tokens to collect
+     * @return the parts of the end of the text, in text order
+     */
+    protected Deque<KeptPart> tail(List<TextSection> sections, int maxTokens) {
+        Deque<KeptPart> parts = new ArrayDeque<>();
+        int remaining = maxTokens;
+        for (int i = sections.size() - 1; i >= 0 && remaining > 0; i--) {
+            TextSection section = sections.get(i);
+            if (section.getTokens() <= remaining) {
+                parts.addFirst(KeptPart.whole(i));
+                remaining -= section.getTokens();
+            } else {
+                parts.addFirst(KeptPart.tail(i, remaining));
+                break;
+            }
+        }
+        return parts;
+    }
+}
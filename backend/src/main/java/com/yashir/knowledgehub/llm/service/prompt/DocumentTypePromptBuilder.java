@@ -1,8 +1,11 @@
 package com.yashir.knowledgehub.llm.service.prompt;
 
 import com.yashir.knowledgehub.llm.config.OpenAIConfig;
+import com.yashir.knowledgehub.llm.service.dto.DocumentPreview;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Builder for document type identification prompts
  */
@@ -36,6 +39,37 @@ public class DocumentTypePromptBuilder {
         return prompt.toString();
     }
 
+    /**
+     * Builds one prompt classifying several documents
+     * Category definitions and criteria are sent once; every document gets an equal share of the content budget
+     * @param previews the documents to classify
+     * @return the formatted prompt string, asking for one "N: CATEGORY" line per document
+     */
+    public String buildBatchPrompt(List<DocumentPreview> previews) {
+        StringBuilder prompt = new StringBuilder();
+
+        prompt.append("You are a document classification expert. Analyze each of the ").append(previews.size())
+                .append(" numbered documents below and classify each one into one of the following categories:\n\n");
+
+        appendCategoryDefinitions(prompt);
+        appendClassificationCriteria(prompt);
+
+        int maxContentLength = Math.min(OpenAIConfig.MAX_CONTENT_LENGTH,
+                OpenAIConfig.MAX_BATCH_CONTENT_LENGTH / previews.size());
+        for (int i = 0; i < previews.size(); i++) {
+            DocumentPreview preview = previews.get(i);
+            prompt.append("DOCUMENT ").append(i + 1).append(":\n");
+            appendDocumentContent(prompt, preview.getFileName(), preview.getContentPreview(), maxContentLength);
+            prompt.append("\n");
+        }
+
+        prompt.append("INSTRUCTION:\n");
+        prompt.append("Respond with exactly one line per document, in order, formatted as <document number>: <category name> ");
+        prompt.append("(for example \"1: POLICY\") - no additional text, explanation, or punctuation.");
+
+        return prompt.toString();
+    }
+
     private void appendCategoryDefinitions(StringBuilder prompt) {
         prompt.append("CATEGORIES:\n");
         prompt.append("1. POLICY - Documents that define rules, procedures, guidelines, regulations, standards, protocols, or organizational policies. ");
@@ -57,10 +91,14 @@ public class DocumentTypePromptBuilder {
 
     private void appendDocumentInformation(StringBuilder prompt, String fileName, String contentPreview) {
         prompt.append("DOCUMENT INFORMATION:\n");
+        appendDocumentContent(prompt, fileName, contentPreview, OpenAIConfig.MAX_CONTENT_LENGTH);
+    }
+
+    private void appendDocumentContent(StringBuilder prompt, String fileName, String contentPreview, int maxContentLength) {
         prompt.append("File Name: ").append(fileName).append("\n");
         
         if (contentPreview != null && !contentPreview.isEmpty()) {
-            String limitedContent = truncateContent(contentPreview);
+            String limitedContent = truncateContent(contentPreview, maxContentLength);
             prompt.append("\nDocument Content Preview:\n");
             prompt.append("---\n");
             prompt.append(limitedContent);
@@ -70,9 +108,9 @@ public class DocumentTypePromptBuilder {
         }
     }
 
-    private String truncateContent(String content) {
-        if (content.length() > OpenAIConfig.MAX_CONTENT_LENGTH) {
-            return content.substring(0, OpenAIConfig.MAX_CONTENT_LENGTH) + "\n[... content truncated ...]";
+    private String truncateContent(String content, int maxContentLength) {
+        if (content.length() > maxContentLength) {
+            return content.substring(0, maxContentLength) + "\n[... content truncated ...]";
         }
         return content;
     }
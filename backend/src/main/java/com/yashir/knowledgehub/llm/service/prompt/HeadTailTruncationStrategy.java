@@ -0,0 +1,36 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the beginning and the end of the text, half of the budget each, joined by an omission marker
+ * Suits reports, whose conclusions and summaries are usually at the end
+ */
+@Component
+public class HeadTailTruncationStrategy extends AbstractTruncationStrategy {
+
+    public static final String NAME = "head-tail";
+
+    public HeadTailTruncationStrategy(TokenCounter tokenCounter) {
+        super(tokenCounter);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<KeptPart> truncate(List<TextSection> sections, int maxTokens) {
+        int available = Math.max(0, maxTokens - tokenCounter.count(OMISSION_MARKER));
+        int headTokens = available / 2;
+        List<KeptPart> kept = new ArrayList<>();
+        appendHead(kept, sections, 0, sections.size(), headTokens);
+        kept.add(KeptPart.literal(OMISSION_MARKER));
+        kept.addAll(tail(sections, available - headTokens));
+        return kept;
+    }
+}
@@ -0,0 +1,32 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the beginning of the text
+ * Suits documents that state their purpose and key terms up front
+ */
+@Component
+public class HeadTruncationStrategy extends AbstractTruncationStrategy {
+
+    public static final String NAME = "head";
+
+    public HeadTruncationStrategy(TokenCounter tokenCounter) {
+        super(tokenCounter);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<KeptPart> truncate(List<TextSection> sections, int maxTokens) {
+        List<KeptPart> kept = new ArrayList<>();
+        appendHead(kept, sections, 0, sections.size(), maxTokens);
+        return kept;
+    }
+}
@@ -0,0 +1,51 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A part of document text kept by a TruncationStrategy: a whole section, the beginning or end of a section
+ * cut to a number of tokens, or a literal such as an omission marker
+ * Parts refer to sections by index, so PromptBudgeter reads only the kept sections of a document
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class KeptPart {
+
+    public enum Kind {
+        WHOLE,
+        HEAD,
+        TAIL,
+        LITERAL
+    }
+
+    private final Kind kind;
+    private final int section;  // Index of the section, -1 for a literal
+    private final int maxTokens;  // Tokens kept of a cut section
+    private final String literal;
+
+    public static KeptPart whole(int section) {
+        return new KeptPart(Kind.WHOLE, section, 0, null);
+    }
+
+    public static KeptPart head(int section, int maxTokens) {
+        return new KeptPart(Kind.HEAD, section, maxTokens, null);
+    }
+
+    public static KeptPart tail(int section, int maxTokens) {
+        return new KeptPart(Kind.TAIL, section, maxTokens, null);
+    }
+
+    public static KeptPart literal(String text) {
+        return new KeptPart(Kind.LITERAL, -1, 0, text);
+    }
+
+    /**
+     * Checks whether the part is text of a section
+     * @return false for a literal
+     */
+    public boolean isSectionText() {
+        return kind != Kind.LITERAL;
+    }
+}
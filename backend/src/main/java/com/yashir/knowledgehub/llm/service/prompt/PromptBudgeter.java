@@ -0,0 +1,327 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yashir.knowledgehub.document.model.DocumentType;
+import com.yashir.knowledgehub.document.util.HeadingDetector;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fits document text into the input token budget of a Q&A prompt (qa.prompt.max-input-tokens)
+ * The budget left for the document is what the instructions and the question do not use; text over it is cut
+ * by the configured TruncationStrategy (qa.prompt.truncation: head, head-tail or sections)
+ * Text is split into sections (paragraphs, heading lines) whose token counts are cached per document,
+ * so the document is tokenized once and not again for every question; a document over the budget is then
+ * read only for the sections that are kept, so it is never held in memory as a whole
+ */
+@Component
+@Slf4j
+public class PromptBudgeter {
+
+    private static final int PROFILE_CACHE_SIZE = 1000;
+
+    // Longer paragraphs are split, so a cut section is never much larger than the part of it that is kept
+    private static final int MAX_SECTION_LENGTH = 4000;
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final TokenCounter tokenCounter;
+    private final QuestionAnswerPromptBuilder qaPromptBuilder;
+    private final Map<String, TruncationStrategy> strategies;
+    private final Cache<Long, TokenProfile> profiles = Caffeine.newBuilder()
+            .maximumSize(PROFILE_CACHE_SIZE)
+            .build();
+
+    @Value("${qa.prompt.max-input-tokens:16000}")
+    private int maxInputTokens;
+
+    @Value("${qa.prompt.truncation:sections}")
+    private String truncation;
+
+    public PromptBudgeter(TokenCounter tokenCounter, QuestionAnswerPromptBuilder qaPromptBuilder,
+                          List<TruncationStrategy> strategies) {
+        this.tokenCounter = tokenCounter;
+        this.qaPromptBuilder = qaPromptBuilder;
+        this.strategies = strategies.stream()
+                .collect(Collectors.toMap(TruncationStrategy::getName, Function.identity()));
+    }
+
+    /**
+     * Counts the tokens of a text
+     * @param text the text
+     * @return the number of tokens
+     */
+    public int countTokens(String text) {
+        return tokenCounter.count(text);
+    }
+
+    /**
+     * Gets the tokens a Q&A prompt has left for document context
+     * @param question the question
+     * @param documentType the document type, which selects the instructions
+     * @return the input token budget minus the tokens of the prompt without context (0 if none are left)
+     */
+    public int contextBudget(String question, DocumentType documentType) {
+        return contextBudget(List.of(question), documentType);
+    }
+
+    /**
+     * Gets the tokens a Q&A prompt for one or more questions has left for document context
+     * @param questions the questions; more than one are asked with the batch prompt
+     * @param documentType the document type, which selects the instructions
+     * @return the input token budget minus the tokens of the prompt without context (0 if none are left)
+     */
+    public int contextBudget(List<String> questions, DocumentType documentType) {
+        String prompt = questions.size() == 1
+                ? qaPromptBuilder.buildPrompt(questions.get(0), "", documentType)
+                : qaPromptBuilder.buildBatchPrompt(questions, "", documentType);
+        return Math.max(0, maxInputTokens - tokenCounter.count(prompt));
+    }
+
+    /**
+     * Cuts the text of a document to a token budget
+     * The token counts of the text are cached per document and text version; once cached, a document over the
+     * budget is read only as far as needed for the sections the truncation strategy keeps
+     * @param documentId the document ID, key of the cached token counts
+     * @param textVersion the version of the text, e.g. the extractor version; cached counts of another version are redone
+     * @param text opens the document text, once to count its tokens and once to read what is kept
+     * @param maxTokens the token budget
+     * @return the text itself if it fits, otherwise the part kept by the truncation strategy
+     * @throws IOException if reading the text fails
+     */
+    public String fitDocument(Long documentId, int textVersion, TextSource text, int maxTokens) throws IOException {
+        TokenProfile profile = profiles.getIfPresent(documentId);
+        if (profile == null || profile.textVersion != textVersion) {
+            try (Reader reader = text.open()) {
+                profile = profile(textVersion, reader);
+            }
+            profiles.put(documentId, profile);
+        }
+        if (profile.totalTokens <= maxTokens) {
+            try (Reader reader = text.open()) {
+                StringWriter whole = new StringWriter();
+                reader.transferTo(whole);
+                return whole.toString();
+            }
+        }
+
+        TruncationStrategy strategy = strategies.getOrDefault(truncation, strategies.get(HeadTruncationStrategy.NAME));
+        log.debug("Cutting document {} from {} to {} tokens ({})", documentId, profile.totalTokens, maxTokens, strategy.getName());
+        List<KeptPart> kept = strategy.truncate(profile.sections, maxTokens);
+        Map<Integer, String> sectionTexts;
+        try (Reader reader = text.open()) {
+            sectionTexts = readSections(reader, profile.sections, kept);
+        }
+
+        StringBuilder fitted = new StringBuilder();
+        for (KeptPart part : kept) {
+            switch (part.getKind()) {
+                case WHOLE -> fitted.append(sectionTexts.get(part.getSection()));
+                case HEAD -> fitted.append(tokenCounter.head(sectionTexts.get(part.getSection()), part.getMaxTokens()));
+                case TAIL -> fitted.append(tokenCounter.tail(sectionTexts.get(part.getSection()), part.getMaxTokens()));
+                case LITERAL -> fitted.append(part.getLiteral());
+            }
+        }
+        return fitted.toString();
+    }
+
+    /**
+     * Drops the cached token counts of a document
+     * @param documentId the document ID
+     */
+    public void evictDocument(Long documentId) {
+        profiles.invalidate(documentId);
+    }
+
+    /**
+     * Reads the text of the sections some parts refer to, in one forward pass that skips the other sections
+     * @param text the document text
+     * @param sections the sections of the text
+     * @param parts the kept parts
+     * @return the text of each referenced section by index
+     * @throws IOException if reading fails or the text is shorter than its sections
+     */
+    private Map<Integer, String> readSections(Reader text, List<TextSection> sections, List<KeptPart> parts)
+            throws IOException {
+        SortedSet<Integer> referenced = parts.stream()
+                .filter(KeptPart::isSectionText)
+                .map(KeptPart::getSection)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Integer, String> sectionTexts = new HashMap<>();
+        long position = 0;
+        for (int index : referenced) {
+            TextSection section = sections.get(index);
+            for (long skip = section.getStart() - position; skip > 0; ) {
+                long skipped = text.skip(skip);
+                if (skipped <= 0) {
+                    throw new EOFException("Document text ended before character " + section.getStart());
+                }
+                skip -= skipped;
+            }
+            char[] chars = new char[section.getEnd() - section.getStart()];
+            for (int read = 0; read < chars.length; ) {
+                int n = text.read(chars, read, chars.length - read);
+                if (n < 0) {
+                    throw new EOFException("Document text ended before character " + section.getEnd());
+                }
+                read += n;
+            }
+            sectionTexts.put(index, new String(chars));
+            position = section.getEnd();
+        }
+        return sectionTexts;
+    }
+
+    /**
+     * Splits a text into sections and counts their tokens
+     * A section ends after a blank line, before and after a heading line, or at the first line end past
+     * MAX_SECTION_LENGTH; lines longer than that are split at whitespace as they are read
+     * The text is read once and only the section being built is held in memory
+     * @param textVersion the version of the text
+     * @param text the text
+     * @return the token profile
+     * @throws IOException if reading the text fails
+     */
+    private TokenProfile profile(int textVersion, Reader text) throws IOException {
+        SectionSplitter splitter = new SectionSplitter();
+        char[] buffer = new char[READ_BUFFER_SIZE];
+        int read;
+        while ((read = text.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                splitter.accept(buffer[i]);
+            }
+        }
+        splitter.finish();
+        return new TokenProfile(textVersion, splitter.totalTokens, splitter.sections);
+    }
+
+    /**
+     * Builds the sections of a text read one character at a time
+     */
+    private final class SectionSplitter {
+        private final List<TextSection> sections = new ArrayList<>();
+        private final StringBuilder section = new StringBuilder();  // Complete lines of the open section
+        private final StringBuilder line = new StringBuilder();  // The line being read
+        private int sectionStart;
+        private int lineStart;
+        private boolean longLine;  // The line is past MAX_SECTION_LENGTH and is being split
+        private int totalTokens;
+
+        private void accept(char c) {
+            line.append(c);
+            if (c == '\n') {
+                endLine();
+            } else if (line.length() > MAX_SECTION_LENGTH) {
+                cutLongLine();
+            }
+        }
+
+        private void finish() {
+            if (!line.isEmpty()) {
+                endLine();
+            }
+            flushSection();
+        }
+
+        private void endLine() {
+            if (longLine || line.length() > MAX_SECTION_LENGTH) {
+                while (line.length() > MAX_SECTION_LENGTH) {
+                    cutLongLine();
+                }
+                addSection(line.toString(), lineStart, false);
+                longLine = false;
+            } else if (HeadingDetector.isHeading(line.toString())) {
+                flushSection();
+                addSection(line.toString(), lineStart, true);
+            } else {
+                section.append(line);
+                if (line.toString().isBlank() || section.length() > MAX_SECTION_LENGTH) {
+                    flushSection();
+                }
+            }
+            lineStart += line.length();
+            line.setLength(0);
+            if (section.isEmpty()) {
+                sectionStart = lineStart;
+            }
+        }
+
+        /**
+         * Cuts the first piece off a line longer than MAX_SECTION_LENGTH, at the last whitespace within the limit
+         */
+        private void cutLongLine() {
+            if (!longLine) {
+                flushSection();
+                longLine = true;
+            }
+            int pieceEnd = MAX_SECTION_LENGTH;
+            while (pieceEnd > 1 && !Character.isWhitespace(line.charAt(pieceEnd - 1))) {
+                pieceEnd--;
+            }
+            if (pieceEnd == 1) {
+                pieceEnd = MAX_SECTION_LENGTH;
+            }
+            addSection(line.substring(0, pieceEnd), lineStart, false);
+            line.delete(0, pieceEnd);
+            lineStart += pieceEnd;
+        }
+
+        private void flushSection() {
+            addSection(section.toString(), sectionStart, false);
+            sectionStart += section.length();
+            section.setLength(0);
+        }
+
+        private void addSection(String text, int start, boolean heading) {
+            if (text.isEmpty()) {
+                return;
+            }
+            int tokens = tokenCounter.count(text);
+            sections.add(new TextSection(start, start + text.length(), tokens, heading));
+            totalTokens += tokens;
+        }
+    }
+
+    /**
+     * Cached token counts of a document's text
+     */
+    private static class TokenProfile {
+        private final int textVersion;
+        private final int totalTokens;
+        private final List<TextSection> sections;
+
+        private TokenProfile(int textVersion, int totalTokens, List<TextSection> sections) {
+            this.textVersion = textVersion;
+            this.totalTokens = totalTokens;
+            this.sections = sections;
+        }
+    }
+
+    /**
+     * Opens a document text for one pass
+     */
+    @FunctionalInterface
+    public interface TextSource {
+        /**
+         * Opens the text
+         * @return a reader over the whole text; the caller closes it
+         * @throws IOException if the text cannot be opened
+         */
+        Reader open() throws IOException;
+    }
+}
@@ -3,6 +3,8 @@ package com.yashir.knowledgehub.llm.service.prompt;
 import com.yashir.knowledgehub.document.model.DocumentType;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Builder for question answering prompts
  * Supports document-type-specific behavior for POLICY, REPORT, and MANUAL documents
@@ -10,6 +12,9 @@ import org.springframework.stereotype.Component;
 @Component
 public class QuestionAnswerPromptBuilder {
 
+    // Room for the fixed instructions around the context, so the builder is sized once
+    private static final int INSTRUCTIONS_LENGTH = 1024;
+
     /**
      * Builds a prompt for question answering with document-type-specific behavior
      * @param question the user's question
@@ -18,7 +23,7 @@ public class QuestionAnswerPromptBuilder {
      * @return the formatted prompt string
      */
     public String buildPrompt(String question, String documentContext, DocumentType documentType) {
-        StringBuilder prompt = new StringBuilder();
+        StringBuilder prompt = new StringBuilder(documentContext.length() + question.length() + INSTRUCTIONS_LENGTH);
         
         prompt.append("You are a helpful assistant that answers questions based on provided document content.\n\n");
         prompt.append("DOCUMENT CONTEXT:\n");
@@ -32,9 +37,41 @@ public class QuestionAnswerPromptBuilder {
         return prompt.toString();
     }
 
+    /**
+     * Builds one prompt answering several questions about the same document context
+     * The context and the instructions are sent once; the model answers with a JSON object holding one
+     * answer per question number
+     * @param questions the questions, numbered from 1 in the prompt
+     * @param documentContext the document context (title + content)
+     * @param documentType the type of document (POLICY, REPORT, MANUAL, UNDEFINED)
+     * @return the formatted prompt string
+     */
+    public String buildBatchPrompt(List<String> questions, String documentContext, DocumentType documentType) {
+        StringBuilder prompt = new StringBuilder(documentContext.length() + INSTRUCTIONS_LENGTH * 2);
+
+        prompt.append("You are a helpful assistant that answers questions based on provided document content.\n\n");
+        prompt.append("DOCUMENT CONTEXT:\n");
+        prompt.append(documentContext);
+        prompt.append("\n\n");
+        prompt.append("QUESTIONS:\n");
+        for (int i = 0; i < questions.size(); i++) {
+            prompt.append(i + 1).append(". ").append(questions.get(i)).append("\n");
+        }
+        prompt.append("\n");
+        appendInstructions(prompt, documentType);
+        prompt.append("\nOUTPUT FORMAT:\n");
+        prompt.append("- Answer every question on its own, applying the instructions above to each.\n");
+        prompt.append("- Respond with a JSON object only, in the form ")
+                .append("{\"answers\": [{\"id\": 1, \"answer\": \"...\"}, {\"id\": 2, \"answer\": \"...\"}]}, ")
+                .append("with one entry per question and id being the question number.\n");
+
+        return prompt.toString();
+    }
+
     private void appendInstructions(StringBuilder prompt, DocumentType documentType) {
         prompt.append("INSTRUCTIONS:\n");
         prompt.append("- Answer the question based ONLY on the information provided in the document context above.\n");
+        prompt.append("- The context may contain only the excerpts of the document most relevant to the question.\n");
         prompt.append("- If the answer cannot be found in the document, say \"The answer is not found in the document.\"\n");
         prompt.append("- Provide a clear, concise, and accurate answer.\n");
         prompt.append("- If the question is unclear or unrelated to the document, politely indicate that.\n");
@@ -0,0 +1,98 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the beginning of every headed part of the text, so the whole outline of the document stays visible
+ * The text is split into parts at its headings and the budget is shared between the parts: parts smaller than
+ * an equal share are kept whole and leave the rest of their share to the larger parts, which are cut to the
+ * same size and followed by an omission marker
+ * Text without headings, or with too many headings for each part to get a useful share, keeps its beginning
+ */
+@Component
+public class SectionAwareTruncationStrategy extends AbstractTruncationStrategy {
+
+    public static final String NAME = "sections";
+
+    // Smallest share worth giving a part: a heading and the start of its first paragraph
+    private static final int MIN_PART_TOKENS = 48;
+
+    public SectionAwareTruncationStrategy(TokenCounter tokenCounter) {
+        super(tokenCounter);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<KeptPart> truncate(List<TextSection> sections, int maxTokens) {
+        List<int[]> parts = splitAtHeadings(sections);
+        List<KeptPart> kept = new ArrayList<>();
+        if (parts.size() < 2 || maxTokens / parts.size() < MIN_PART_TOKENS) {
+            appendHead(kept, sections, 0, sections.size(), maxTokens);
+            return kept;
+        }
+
+        int[] partTokens = parts.stream()
+                .mapToInt(part -> IntStream.range(part[0], part[1]).map(i -> sections.get(i).getTokens()).sum())
+                .toArray();
+        int[] shares = shareBudget(partTokens, maxTokens);
+        int markerTokens = tokenCounter.count(OMISSION_MARKER);
+        for (int p = 0; p < parts.size(); p++) {
+            int[] part = parts.get(p);
+            if (shares[p] >= partTokens[p]) {
+                appendHead(kept, sections, part[0], part[1], partTokens[p]);
+            } else {
+                appendHead(kept, sections, part[0], part[1], shares[p] - markerTokens);
+                kept.add(KeptPart.literal(OMISSION_MARKER));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Splits sections into parts that each start at a heading (the first part may have none)
+     * @param sections the sections
+     * @return the parts as [first section, section after the part] ranges
+     */
+    private List<int[]> splitAtHeadings(List<TextSection> sections) {
+        List<int[]> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i < sections.size(); i++) {
+            if (sections.get(i).isHeading()) {
+                parts.add(new int[]{start, i});
+                start = i;
+            }
+        }
+        if (start < sections.size()) {
+            parts.add(new int[]{start, sections.size()});
+        }
+        return parts;
+    }
+
+    /**
+     * Shares a budget between parts, smallest first, so small parts are kept whole
+     * @param partTokens the tokens of each part
+     * @param maxTokens the budget
+     * @return the share of each part
+     */
+    private int[] shareBudget(int[] partTokens, int maxTokens) {
+        int[] shares = new int[partTokens.length];
+        int remaining = maxTokens;
+        int partsLeft = partTokens.length;
+        for (int p : IntStream.range(0, partTokens.length).boxed()
+                .sorted(Comparator.comparingInt(index -> partTokens[index])).toList()) {
+            shares[p] = Math.min(partTokens[p], remaining / partsLeft);
+            remaining -= shares[p];
+            partsLeft--;
+        }
+        return shares;
+    }
+}
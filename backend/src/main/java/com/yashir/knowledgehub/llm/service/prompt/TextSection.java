@@ -0,0 +1,18 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A section of document text with its token count, as split by PromptBudgeter
+ * Sections are contiguous: together they cover the whole text, separators included
+ * A heading line is a section of its own
+ */
+@Data
+@AllArgsConstructor
+public class TextSection {
+    private int start;  // Character offset of the first character
+    private int end;  // Character offset after the last character
+    private int tokens;
+    private boolean heading;
+}
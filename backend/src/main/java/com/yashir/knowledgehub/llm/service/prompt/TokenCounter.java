@@ -0,0 +1,77 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.knuddels.jtokkit.api.IntArrayList;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local token counter using the BPE encoding of the OpenAI models (jtokkit)
+ * Counts match what the API bills for the same text; nothing is sent over the network
+ * Text is encoded without special tokens, so document text containing e.g. "<|endoftext|>" is counted as plain text
+ */
+@Component
+public class TokenCounter {
+
+    // Encoding of the GPT-4o and later model families (OpenAIConfig.DEFAULT_MODEL)
+    private static final EncodingType ENCODING_TYPE = EncodingType.O200K_BASE;
+
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    private final Encoding encoding = Encodings.newLazyEncodingRegistry().getEncoding(ENCODING_TYPE);
+
+    /**
+     * Counts the tokens of a text
+     * @param text the text
+     * @return the number of tokens
+     */
+    public int count(String text) {
+        return text.isEmpty() ? 0 : encoding.countTokensOrdinary(text);
+    }
+
+    /**
+     * Cuts a text to its first tokens
+     * @param text the text
+     * @param maxTokens the maximum number of tokens to keep
+     * @return the longest prefix of the text with at most maxTokens tokens
+     */
+    public String head(String text, int maxTokens) {
+        if (maxTokens <= 0) {
+            return "";
+        }
+        String head = encoding.decode(encoding.encodeOrdinary(text, maxTokens).getTokens());
+        // A token boundary inside a multi-byte character decodes to a replacement character
+        int end = head.length();
+        while (end > 0 && head.charAt(end - 1) == REPLACEMENT_CHARACTER) {
+            end--;
+        }
+        return head.substring(0, end);
+    }
+
+    /**
+     * Cuts a text to its last tokens
+     * @param text the text
+     * @param maxTokens the maximum number of tokens to keep
+     * @return the longest suffix of the text with at most maxTokens tokens
+     */
+    public String tail(String text, int maxTokens) {
+        if (maxTokens <= 0) {
+            return "";
+        }
+        IntArrayList tokens = encoding.encodeOrdinary(text);
+        if (tokens.size() <= maxTokens) {
+            return text;
+        }
+        IntArrayList tail = new IntArrayList(maxTokens);
+        for (int i = tokens.size() - maxTokens; i < tokens.size(); i++) {
+            tail.add(tokens.get(i));
+        }
+        String decoded = encoding.decode(tail);
+        int start = 0;
+        while (start < decoded.length() && decoded.charAt(start) == REPLACEMENT_CHARACTER) {
+            start++;
+        }
+        return decoded.substring(start);
+    }
+}
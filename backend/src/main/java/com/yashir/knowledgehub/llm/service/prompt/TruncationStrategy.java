@@ -0,0 +1,25 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import java.util.List;
+
+/**
+ * Strategy for cutting document text that does not fit the prompt's token budget
+ * Implementations are Spring components selected by name through qa.prompt.truncation
+ */
+public interface TruncationStrategy {
+
+    /**
+     * Gets the name the strategy is configured by
+     * @return the strategy name
+     */
+    String getName();
+
+    /**
+     * Chooses the parts of a text that fit a token budget
+     * Works on the section token counts alone; the text of the kept sections is read afterwards
+     * @param sections the sections of the text with their token counts, in text order
+     * @param maxTokens the token budget, known to be exceeded by the text
+     * @return the kept parts in text order, at most maxTokens tokens together
+     */
+    List<KeptPart> truncate(List<TextSection> sections, int maxTokens);
+}
@@ -0,0 +1,150 @@
+package com.yashir.knowledgehub.document.cache;
+
+import com.yashir.knowledgehub.document.dto.QuestionResponse;
+import com.yashir.knowledgehub.document.model.DocumentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Append-only answer log of the persistent Q&A cache: reload after a restart, torn-record truncation,
+ * compaction, and eviction of answers that were still being computed
+ * Each "restart" is a new cache instance over the same log file; writes run on the calling thread
+ */
+class PersistentQACacheTest {
+
+    private static final String CONTENT_HASH = "3f7a9c";
+    private static final String QUESTION = "What is the refund policy?";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void answersAreReloadedAfterARestart() {
+        PersistentQACache cache = newCache();
+        cache.put(CONTENT_HASH, DocumentType.POLICY, QUESTION, new QuestionResponse("Within 30 days"),
+                cache.currentGeneration());
+
+        PersistentQACache restarted = newCache();
+
+        assertThat(restarted.lookup(CONTENT_HASH, DocumentType.POLICY, "what is the refund policy"))
+                .map(QuestionResponse::getAnswer)
+                .contains("Within 30 days");
+        assertThat(restarted.lookup(CONTENT_HASH, DocumentType.REPORT, QUESTION))
+                .as("answer computed for another document type")
+                .isEmpty();
+    }
+
+    @Test
+    void evictedContentStaysEvictedAfterARestart() {
+        PersistentQACache cache = newCache();
+        cache.put(CONTENT_HASH, DocumentType.POLICY, QUESTION, new QuestionResponse("Within 30 days"),
+                cache.currentGeneration());
+        cache.evictContent(CONTENT_HASH);
+
+        assertThat(cache.lookup(CONTENT_HASH, DocumentType.POLICY, QUESTION)).isEmpty();
+        assertThat(newCache().lookup(CONTENT_HASH, DocumentType.POLICY, QUESTION)).isEmpty();
+    }
+
+    @Test
+    void answerComputedBeforeAnEvictionIsDropped() {
+        PersistentQACache cache = newCache();
+        long generation = cache.currentGeneration();
+        cache.evictContent(CONTENT_HASH);
+
+        // The answer was started before the eviction and arrives after it
+        cache.put(CONTENT_HASH, DocumentType.POLICY, QUESTION, new QuestionResponse("stale"), generation);
+
+        assertThat(cache.lookup(CONTENT_HASH, DocumentType.POLICY, QUESTION)).isEmpty();
+        assertThat(newCache().lookup(CONTENT_HASH, DocumentType.POLICY, QUESTION)).isEmpty();
+
+        cache.put(CONTENT_HASH, DocumentType.POLICY, QUESTION, new QuestionResponse("Within 30 days"),
+                cache.currentGeneration());
+        assertThat(cache.lookup(CONTENT_HASH, DocumentType.POLICY, QUESTION))
+                .map(QuestionResponse::getAnswer)
+                .contains("Within 30 days");
+    }
+
+    @Test
+    void tornRecordAtTheEndIsCutOff() throws IOException {
+        PersistentQACache cache = newCache();
+        cache.put(CONTENT_HASH, DocumentType.POLICY, QUESTION, new QuestionResponse("Within 30 days"),
+                cache.currentGeneration());
+        long intactSize = Files.size(logFile());
+
+        // A crash during the next append left its type byte and half of its write time
+        Files.write(logFile(), new byte[]{1, 0, 0, 0, 1}, StandardOpenOption.APPEND);
+
+        PersistentQACache restarted = newCache();
+        assertThat(restarted.lookup(CONTENT_HASH, DocumentType.POLICY, QUESTION))
+                .map(QuestionResponse::getAnswer)
+                .contains("Within 30 days");
+        assertThat(Files.size(logFile())).isEqualTo(intactSize);
+
+        // Appends after the cut continue a readable log
+        restarted.put(CONTENT_HASH, DocumentType.POLICY, "Who approves refunds?", new QuestionResponse("Finance"),
+                restarted.currentGeneration());
+        assertThat(newCache().lookup(CONTENT_HASH, DocumentType.POLICY, "Who approves refunds?"))
+                .map(QuestionResponse::getAnswer)
+                .contains("Finance");
+    }
+
+    @Test
+    void logOfMostlyReplacedAnswersIsCompactedOnLoad() throws IOException {
+        PersistentQACache cache = newCache();
+        String longAnswer = "x".repeat(16 * 1024);
+        for (int version = 0; version < 100; version++) {
+            cache.put(CONTENT_HASH, DocumentType.POLICY, QUESTION, new QuestionResponse(version + longAnswer),
+                    cache.currentGeneration());
+        }
+        cache.put(CONTENT_HASH, DocumentType.POLICY, "Who approves refunds?", new QuestionResponse("Finance"),
+                cache.currentGeneration());
+        long sizeBefore = Files.size(logFile());
+        assertThat(sizeBefore).isGreaterThan(1024 * 1024);
+
+        PersistentQACache restarted = newCache();
+        assertThat(restarted.lookup(CONTENT_HASH, DocumentType.POLICY, QUESTION))
+                .map(QuestionResponse::getAnswer)
+                .contains(99 + longAnswer);
+
+        assertThat(Files.size(logFile())).isLessThan(sizeBefore / 10);
+        assertThat(restarted.lookup(CONTENT_HASH, DocumentType.POLICY, "Who approves refunds?"))
+                .map(QuestionResponse::getAnswer)
+                .contains("Finance");
+        // The compacted log is what the next restart reads
+        assertThat(newCache().lookup(CONTENT_HASH, DocumentType.POLICY, QUESTION))
+                .map(QuestionResponse::getAnswer)
+                .contains(99 + longAnswer);
+    }
+
+    private PersistentQACache newCache() {
+        PersistentQACache cache = new PersistentQACache(new CallerRunsExecutor());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "logPath", logFile().toString());
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofDays(7));
+        return cache;
+    }
+
+    private Path logFile() {
+        return directory.resolve("answers.log");
+    }
+
+    /**
+     * Runs the background writes on the calling thread, so they are on disk when put() returns
+     */
+    private static final class CallerRunsExecutor extends ThreadPoolTaskExecutor {
+        @Override
+        public void execute(Runnable task) {
+            task.run();
+        }
+    }
+}
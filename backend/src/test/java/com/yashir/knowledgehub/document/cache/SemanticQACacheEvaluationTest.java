@@ -0,0 +1,111 @@
+package com.yashir.knowledgehub.document.cache;
+
+import com.yashir.knowledgehub.document.dto.QuestionResponse;
+import com.yashir.knowledgehub.llm.service.HashedNgramEmbeddingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Evaluation of the semantic Q&A cache threshold on labelled question pairs
+ * - paraphrases: the second question asks the same as the first and should reuse its answer
+ * - near misses: similar wording, different question; reusing the answer would be wrong
+ * The cache uses the threshold configured in application.yml
+ */
+class SemanticQACacheEvaluationTest {
+
+    // Share of paraphrases hit at the committed threshold; a drop means the signature got worse
+    private static final double MINIMUM_HIT_RATE = 0.8;
+
+    private static final List<String[]> PARAPHRASES = List.of(
+            new String[]{"What is the refund policy?", "What's the policy on refunds?"},
+            new String[]{"How many vacation days do employees get?", "How many vacation days does an employee get?"},
+            new String[]{"When does the probation period end?", "When is the end of the probation period?"},
+            new String[]{"Who approves expense reports?", "Who is approving the expense reports?"},
+            new String[]{"What is the notice period for resignation?", "Notice period for a resignation?"},
+            new String[]{"What is the maximum travel reimbursement?", "Maximum reimbursement for travel?"},
+            new String[]{"What are the payment terms in section 3?", "Payment terms of section 3?"},
+            new String[]{"Is overtime paid?", "Is overtime being paid?"},
+            new String[]{"What is the dress code?", "Describe the dress code"},
+            new String[]{"How long is parental leave?", "What is the length of parental leave?"},
+            new String[]{"Can employees work remotely?", "Are employees able to work remotely?"},
+            new String[]{"What is the deadline for the Q3 report?", "Deadline of the Q3 report?"},
+            // Shares no word but "refund": needs a synonym-aware embedding, which the local hashed one is not
+            new String[]{"What's the refund window?", "How long do I have to get a refund?"}
+    );
+
+    private static final List<String[]> NEAR_MISSES = List.of(
+            new String[]{"What does section 3 say?", "What does section 4 say?"},
+            new String[]{"What is included in plan A?", "What is included in plan B?"},
+            new String[]{"Are expenses over $500 reimbursed?", "Are expenses over $5000 reimbursed?"},
+            new String[]{"Is remote work allowed?", "Is remote work not allowed?"},
+            new String[]{"When does the probation period end?", "When does the probation period start?"},
+            new String[]{"Can employees work remotely?", "Can't employees work remotely?"},
+            new String[]{"Is the fee refundable?", "Is the fee non-refundable?"},
+            new String[]{"What does clause 7.2 say?", "What does clause 7.3 say?"},
+            new String[]{"How many sick days are there in 2023?", "How many sick days are there in 2024?"},
+            new String[]{"What is the minimum salary?", "What is the maximum salary?"},
+            new String[]{"Who approves expense reports?", "Who approves expense reports over $1,000?"},
+            new String[]{"What is the deadline for the Q3 report?", "What is the deadline for the Q4 report?"},
+            new String[]{"Which employees are eligible for a bonus?", "Which employees are ineligible for a bonus?"},
+            new String[]{"What happens before the contract expires?", "What happens after the contract expires?"}
+    );
+
+    private Properties configuration;
+    private SemanticQACache cache;
+
+    @BeforeEach
+    void createCache() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        configuration = yaml.getObject();
+
+        cache = new SemanticQACache(new HashedNgramEmbeddingService(256));
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "threshold",
+                Double.parseDouble(configuration.getProperty("qa.semantic-cache.threshold")));
+        ReflectionTestUtils.setField(cache, "maxEntriesPerDocument", 200);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofHours(24));
+    }
+
+    @Test
+    void nearMissesNeverReuseAnAnswer() {
+        List<String> falseHits = new ArrayList<>();
+        for (int pair = 0; pair < NEAR_MISSES.size(); pair++) {
+            String[] questions = NEAR_MISSES.get(pair);
+            if (reusesAnswer((long) pair, questions)) {
+                falseHits.add(questions[0] + " -> " + questions[1]);
+            }
+        }
+        assertThat(falseHits).as("near misses answered from the cache").isEmpty();
+    }
+
+    @Test
+    void paraphrasesReuseTheAnswer() {
+        int hits = 0;
+        for (int pair = 0; pair < PARAPHRASES.size(); pair++) {
+            if (reusesAnswer((long) pair, PARAPHRASES.get(pair))) {
+                hits++;
+            }
+        }
+        double hitRate = (double) hits / PARAPHRASES.size();
+        assertThat(hitRate).as("paraphrase hit rate").isGreaterThanOrEqualTo(MINIMUM_HIT_RATE);
+    }
+
+    /**
+     * Caches an answer for the first question of a pair and looks up the second
+     */
+    private boolean reusesAnswer(Long documentId, String[] questions) {
+        cache.put(documentId, questions[0], new QuestionResponse("answer to " + questions[0]));
+        return cache.lookup(documentId, questions[1]).isPresent();
+    }
+}
@@ -0,0 +1,156 @@
+package com.yashir.knowledgehub.document.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Coalescing of concurrent computations of one key: callers arriving while the leader computes share its
+ * value or exception, and the key stops being in flight only after the leader has cached its value
+ */
+class SingleFlightTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareTheLeadersValue() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            leaderStarted.countDown();
+            await(release);
+            return "answer";
+        }));
+        assertThat(leaderStarted.await(WAIT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> {
+            loads.incrementAndGet();
+            return "second answer";
+        }));
+        waitUntilCoalesced(1);
+        release.countDown();
+
+        assertThat(leader.get(WAIT_SECONDS, TimeUnit.SECONDS)).isEqualTo("answer");
+        assertThat(follower.get(WAIT_SECONDS, TimeUnit.SECONDS)).isEqualTo("answer");
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.getStats().getCalls()).isEqualTo(1);
+        assertThat(singleFlight.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    void concurrentCallersGetTheLeadersException() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            leaderStarted.countDown();
+            await(release);
+            throw new IllegalStateException("LLM unavailable");
+        }));
+        assertThat(leaderStarted.await(WAIT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> "not computed"));
+        waitUntilCoalesced(1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(WAIT_SECONDS, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> follower.get(WAIT_SECONDS, TimeUnit.SECONDS))
+                .cause().isInstanceOf(IllegalStateException.class).hasMessage("LLM unavailable");
+        assertThat(singleFlight.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    void keyStaysInFlightUntilTheLoaderHasCachedItsValue() {
+        Map<String, String> cache = new ConcurrentHashMap<>();
+
+        String value = singleFlight.execute("key", () -> {
+            cache.put("key", "answer");
+            assertThat(singleFlight.getStats().getInFlight()).isEqualTo(1);
+            return "answer";
+        });
+
+        assertThat(value).isEqualTo("answer");
+        assertThat(cache).containsEntry("key", "answer");
+        assertThat(singleFlight.getStats().getInFlight()).isZero();
+        assertThat(singleFlight.join("key")).isEmpty();
+    }
+
+    @Test
+    void failedComputationIsNotKeptForLaterCallers() {
+        assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+            throw new IllegalStateException("LLM unavailable");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute("key", () -> "answer")).isEqualTo("answer");
+        assertThat(singleFlight.getStats().getCalls()).isEqualTo(2);
+    }
+
+    @Test
+    void startedComputationIsJoinedUntilCompleted() {
+        SingleFlight.Flight<String> leader = singleFlight.start("key");
+        SingleFlight.Flight<String> follower = singleFlight.start("key");
+
+        assertThat(leader.leader()).isTrue();
+        assertThat(follower.leader()).isFalse();
+        assertThat(singleFlight.join("key")).isPresent();
+        assertThat(singleFlight.getStats().getCoalesced()).isEqualTo(2);
+
+        singleFlight.complete("key", leader, "answer");
+
+        assertThat(follower.result().join()).isEqualTo("answer");
+        assertThat(singleFlight.getStats().getInFlight()).isZero();
+        assertThat(singleFlight.start("key").leader()).isTrue();
+    }
+
+    @Test
+    void abandonedComputationIsTakenOverByAWaitingCaller() throws Exception {
+        SingleFlight.Flight<String> leader = singleFlight.start("key");
+        Future<String> follower = executor.submit(() -> singleFlight.execute("key", () -> "recomputed"));
+        waitUntilCoalesced(1);
+
+        singleFlight.abandon("key", leader);
+
+        assertThat(follower.get(WAIT_SECONDS, TimeUnit.SECONDS)).isEqualTo("recomputed");
+        assertThatThrownBy(() -> leader.result().join()).isInstanceOf(CancellationException.class);
+        assertThat(singleFlight.getStats().getCalls()).isEqualTo(2);
+        assertThat(singleFlight.getStats().getInFlight()).isZero();
+    }
+
+    private void waitUntilCoalesced(long coalesced) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (singleFlight.getStats().getCoalesced() < coalesced) {
+            assertThat(System.nanoTime()).as("callers joined in time").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
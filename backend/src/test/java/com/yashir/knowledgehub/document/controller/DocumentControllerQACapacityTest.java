@@ -0,0 +1,153 @@
+package com.yashir.knowledgehub.document.controller;
+
+import com.yashir.knowledgehub.document.dto.QuestionRequest;
+import com.yashir.knowledgehub.document.dto.QuestionResponse;
+import com.yashir.knowledgehub.document.ingestion.IngestionJobRegistry;
+import com.yashir.knowledgehub.document.service.ContentTypeService;
+import com.yashir.knowledgehub.document.service.DocumentQAService;
+import com.yashir.knowledgehub.document.service.DocumentServiceInterface;
+import com.yashir.knowledgehub.llm.exception.LLMExceptionHandler;
+import com.yashir.knowledgehub.llm.service.limit.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Q&A endpoints when the Q&A bulkhead is full: single and streamed questions are both rejected with
+ * 503 and Retry-After before any answer is sent
+ * The answers go through a real bulkhead with one slot and no queue; the LLM is replaced by fixed publishers
+ */
+class DocumentControllerQACapacityTest {
+
+    private static final String QUESTION = "{\"documentId\": 1, \"question\": \"What is the refund policy?\"}";
+    // Pieces after the first arrive once the response is open, as they do from the LLM: the emitter of this
+    // Spring version can drop a piece sent while it is still being initialized
+    private static final Duration NEXT_PIECE_DELAY = Duration.ofMillis(50);
+
+    private final DocumentQAService documentQAService = mock(DocumentQAService.class);
+    private final AdaptiveConcurrencyLimiter qaLimiter =
+            new AdaptiveConcurrencyLimiter("qa", 1, 1, 0, Duration.ofMillis(100));
+    private MockMvc mockMvc;
+    private Disposable heldSlot;
+
+    @BeforeEach
+    void setUp() {
+        DocumentController controller = new DocumentController(mock(DocumentServiceInterface.class),
+                mock(ContentTypeService.class), documentQAService, mock(IngestionJobRegistry.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new LLMExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void releaseSlot() {
+        if (heldSlot != null) {
+            heldSlot.dispose();
+        }
+    }
+
+    @Test
+    void askIsRejectedWith503WhenTheBulkheadIsFull() throws Exception {
+        occupyTheOnlySlot();
+        when(documentQAService.answerQuestion(any(QuestionRequest.class)))
+                .thenAnswer(invocation -> qaLimiter.execute(Mono.just(new QuestionResponse("answer"))).block());
+
+        mockMvc.perform(post("/api/documents/ask").contentType(MediaType.APPLICATION_JSON).content(QUESTION))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.error").value("Language Model Busy"));
+    }
+
+    @Test
+    void streamIsRejectedWith503WhenTheBulkheadIsFull() throws Exception {
+        occupyTheOnlySlot();
+        when(documentQAService.streamAnswer(any(QuestionRequest.class)))
+                .thenReturn(qaLimiter.executeStream(Flux.just("never", "sent")));
+
+        MvcResult result = mockMvc.perform(post("/api/documents/ask/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON)
+                        .content(QUESTION))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.error").value("Language Model Busy"));
+        assertThat(qaLimiter.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void streamWithAFreeSlotSendsTokensThenDone() throws Exception {
+        when(documentQAService.streamAnswer(any(QuestionRequest.class)))
+                .thenReturn(qaLimiter.executeStream(Flux.concat(Flux.just("Refunds are "),
+                        Mono.just("issued within 30 days").delayElement(NEXT_PIECE_DELAY))));
+
+        String events = streamEvents();
+
+        assertThat(events).contains("event:token", "\"answer\":\"Refunds are \"",
+                "event:done", "\"answer\":\"Refunds are issued within 30 days\"");
+        assertThat(events).doesNotContain("event:error");
+        assertThat(qaLimiter.getInFlight()).as("slot released after the stream").isZero();
+    }
+
+    @Test
+    void failureAfterTheFirstPieceEndsTheStreamWithAnErrorEvent() throws Exception {
+        when(documentQAService.streamAnswer(any(QuestionRequest.class)))
+                .thenReturn(qaLimiter.executeStream(Flux.concat(Flux.just("Refunds are "),
+                        Mono.delay(NEXT_PIECE_DELAY)
+                                .then(Mono.error(new IllegalStateException("connection reset"))))));
+
+        String events = streamEvents();
+
+        assertThat(events).contains("event:token", "event:error", "\"answer\":\"connection reset\"");
+        assertThat(events).doesNotContain("event:done");
+        assertThat(qaLimiter.getInFlight()).isZero();
+    }
+
+    /**
+     * Takes the only slot of the bulkhead with a call that never ends
+     */
+    private void occupyTheOnlySlot() {
+        heldSlot = qaLimiter.execute(Mono.never()).subscribe();
+        assertThat(qaLimiter.getInFlight()).isEqualTo(1);
+    }
+
+    private String streamEvents() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/documents/ask/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(QUESTION))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The Mono gives the response; its body is then written as a second asynchronous result
+        MvcResult stream = mockMvc.perform(asyncDispatch(result)).andReturn();
+        stream.getAsyncResult(5000);
+        assertThat(stream.getResponse().getStatus()).isEqualTo(200);
+        assertThat(MediaType.parseMediaType(stream.getResponse().getContentType()))
+                .matches(type -> type.isCompatibleWith(MediaType.TEXT_EVENT_STREAM));
+        return stream.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,126 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import com.yashir.knowledgehub.llm.service.prompt.TokenCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Retrieval quality of BM25 chunk retrieval on a synthetic corpus with planted facts
+ * A question is answered by the retrieved context when one of its chunks contains the fact's answer word
+ */
+class Bm25RetrievalTest {
+
+    private static final long SEED = 20240501L;
+    private static final int TOKEN_BUDGET = 3000;
+
+    private final SyntheticCorpus corpus = new SyntheticCorpus(SEED, 40, 6000, 5);
+    private final TokenCounter tokenCounter = new TokenCounter();
+    private Bm25Index bm25Index;
+    private ChunkRetrievalService retrievalService;
+
+    @BeforeEach
+    void indexCorpus() throws IOException {
+        DocumentChunker chunker = new DocumentChunker(tokenCounter);
+        ReflectionTestUtils.setField(chunker, "chunkSize", 1500);
+        ReflectionTestUtils.setField(chunker, "chunkOverlap", 200);
+
+        bm25Index = new Bm25Index();
+        // The vector index and embeddings are not used in bm25 mode
+        retrievalService = new ChunkRetrievalService(chunker, bm25Index, null, null);
+        ReflectionTestUtils.setField(retrievalService, "retrievalMode", "bm25");
+        ReflectionTestUtils.setField(retrievalService, "topK", 8);
+        ReflectionTestUtils.setField(retrievalService, "corpusTopK", 12);
+        ReflectionTestUtils.setField(retrievalService, "tokenBudget", TOKEN_BUDGET);
+
+        List<String> documents = corpus.getDocuments();
+        for (int i = 0; i < documents.size(); i++) {
+            retrievalService.indexDocument((long) i, new StringReader(documents.get(i)));
+        }
+    }
+
+    @Test
+    void topChunkOfTheDocumentHoldsTheAnswer() {
+        int hits = 0;
+        for (SyntheticCorpus.Fact fact : corpus.getFacts()) {
+            List<ScoredChunk> top = bm25Index.search(fact.getQuestion(), (long) fact.getDocumentIndex(), 1);
+            if (!top.isEmpty() && top.get(0).getChunk().getText().contains(fact.getAnswer())) {
+                hits++;
+            }
+        }
+        double recallAtOne = (double) hits / corpus.getFacts().size();
+        assertThat(recallAtOne).as("recall@1 within the document").isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void retrievedContextHoldsTheAnswerWithinTheTokenBudget() {
+        int hits = 0;
+        long contextTokens = 0;
+        long documentTokens = 0;
+        for (SyntheticCorpus.Fact fact : corpus.getFacts()) {
+            List<TextChunk> context = retrievalService.retrieve((long) fact.getDocumentIndex(), fact.getQuestion());
+            int tokens = context.stream().mapToInt(TextChunk::getTokenCount).sum();
+            assertThat(tokens).isLessThanOrEqualTo(TOKEN_BUDGET);
+            if (context.stream().anyMatch(chunk -> chunk.getText().contains(fact.getAnswer()))) {
+                hits++;
+            }
+            contextTokens += tokens;
+            documentTokens += tokenCounter.count(corpus.getDocuments().get(fact.getDocumentIndex()));
+        }
+
+        assertThat((double) hits / corpus.getFacts().size()).as("answer in retrieved context").isEqualTo(1.0);
+        // Full mode would send the whole document; retrieval must send a small fraction of it
+        assertThat((double) contextTokens / documentTokens).as("context / document tokens").isLessThan(0.5);
+    }
+
+    @Test
+    void corpusWideSearchFindsTheRightDocument() {
+        int hits = 0;
+        for (SyntheticCorpus.Fact fact : corpus.getFacts()) {
+            List<TextChunk> context = retrievalService.retrieveAcrossDocuments(fact.getQuestion());
+            if (!context.isEmpty()
+                    && context.get(0).getDocumentId() == fact.getDocumentIndex()
+                    && context.get(0).getText().contains(fact.getAnswer())) {
+                hits++;
+            }
+        }
+        assertThat((double) hits / corpus.getFacts().size()).as("recall@1 across documents").isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void searchWithinADocumentScoresLikeTheCorpusWideSearch() {
+        for (SyntheticCorpus.Fact fact : corpus.getFacts()) {
+            long documentId = fact.getDocumentIndex();
+            List<ScoredChunk> scoped = bm25Index.search(fact.getQuestion(), documentId, Integer.MAX_VALUE);
+            List<ScoredChunk> filtered = bm25Index.search(fact.getQuestion(), null, Integer.MAX_VALUE).stream()
+                    .filter(scored -> scored.getChunk().getDocumentId() == documentId)
+                    .toList();
+
+            assertThat(scoped).extracting(ScoredChunk::getChunk)
+                    .containsExactlyInAnyOrderElementsOf(filtered.stream().map(ScoredChunk::getChunk).toList());
+            for (ScoredChunk scored : scoped) {
+                ScoredChunk match = filtered.stream()
+                        .filter(other -> other.getChunk() == scored.getChunk())
+                        .findFirst()
+                        .orElseThrow();
+                assertThat(scored.getScore()).isEqualTo(match.getScore());
+            }
+        }
+    }
+
+    @Test
+    void removedDocumentIsNoLongerRetrieved() {
+        SyntheticCorpus.Fact fact = corpus.getFacts().get(0);
+        bm25Index.removeDocument((long) fact.getDocumentIndex());
+
+        assertThat(bm25Index.containsDocument((long) fact.getDocumentIndex())).isFalse();
+        assertThat(bm25Index.search(fact.getQuestion(), null, 12))
+                .noneMatch(scored -> scored.getChunk().getDocumentId() == fact.getDocumentIndex());
+    }
+}
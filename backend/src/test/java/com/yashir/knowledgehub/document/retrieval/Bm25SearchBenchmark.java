@@ -0,0 +1,82 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import com.yashir.knowledgehub.llm.service.prompt.TokenCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of BM25 retrieval on the synthetic corpus of Bm25RetrievalTest
+ * - search: one document (the Q&A path) and all documents (corpus-wide /api/ask)
+ * - index: chunking, token counting and indexing of one document at upload
+ * Run: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=Bm25SearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Bm25SearchBenchmark {
+
+    @Param({"100"})
+    private int documentCount;
+
+    private SyntheticCorpus corpus;
+    private DocumentChunker chunker;
+    private Bm25Index bm25Index;
+    private List<SyntheticCorpus.Fact> facts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void indexCorpus() throws IOException {
+        corpus = new SyntheticCorpus(20240501L, documentCount, 6000, 5);
+        facts = corpus.getFacts();
+        chunker = new DocumentChunker(new TokenCounter());
+        ReflectionTestUtils.setField(chunker, "chunkSize", 1500);
+        ReflectionTestUtils.setField(chunker, "chunkOverlap", 200);
+        bm25Index = new Bm25Index();
+        for (int i = 0; i < documentCount; i++) {
+            bm25Index.indexDocument((long) i, chunker.chunk((long) i, new StringReader(corpus.getDocuments().get(i))));
+        }
+    }
+
+    @Benchmark
+    public List<ScoredChunk> searchDocument() {
+        SyntheticCorpus.Fact fact = nextFact();
+        return bm25Index.search(fact.getQuestion(), (long) fact.getDocumentIndex(), 8);
+    }
+
+    @Benchmark
+    public List<ScoredChunk> searchCorpus() {
+        return bm25Index.search(nextFact().getQuestion(), null, 12);
+    }
+
+    @Benchmark
+    public List<TextChunk> chunkAndIndexDocument() throws IOException {
+        // Re-indexing replaces the document's previous chunks, so the index size stays constant
+        long documentId = next++ % documentCount;
+        List<TextChunk> chunks = chunker.chunk(documentId, new StringReader(corpus.getDocuments().get((int) documentId)));
+        bm25Index.indexDocument(documentId, chunks);
+        return chunks;
+    }
+
+    private SyntheticCorpus.Fact nextFact() {
+        return facts.get(next++ % facts.size());
+    }
+}
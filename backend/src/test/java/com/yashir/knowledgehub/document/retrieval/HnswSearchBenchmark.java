@@ -0,0 +1,160 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import com.yashir.knowledgehub.llm.service.HashedNgramEmbeddingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of HNSW graph search against the exact scan it replaces, on clustered vectors of the embedding dimension
+ * Recall@k of the graph against the exact scan is measured once per index size after it is built and printed with
+ * the trial; HnswVectorIndexTest checks recall on a small index as part of the build
+ * The 1M trial keeps 1 GB of vectors on the heap for the exact scan next to the graph, and its index build took
+ * more than 50 minutes on one core; run it on a machine with several cores and GB of memory to spare
+ * Run: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=HnswSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class HnswSearchBenchmark {
+
+    private static final int DIMENSION = 256;
+    private static final int TOP_K = 12;
+    private static final int RECALL_QUERIES = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    private int vectorCount;
+
+    private final Random random = new Random(7);
+    private final List<float[]> centres = new ArrayList<>();
+    private final List<float[]> queries = new ArrayList<>();
+    private float[][] vectors;
+    private HnswVectorIndex index;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void buildIndex() throws IOException {
+        for (int i = 0; i < 200; i++) {
+            centres.add(clustered(1.0f, null));
+        }
+        index = new HnswVectorIndex(new HashedNgramEmbeddingService(DIMENSION),
+                Files.createTempDirectory("hnsw-benchmark").toString(), 16, 100, 64, 16384, 0.3);
+        vectors = new float[vectorCount][];
+        for (int document = 0; document < vectorCount / 10; document++) {
+            List<TextChunk> chunks = new ArrayList<>();
+            List<float[]> documentVectors = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                float[] vector = clustered(0.6f, centres.get(random.nextInt(centres.size())));
+                vectors[document * 10 + i] = vector;
+                chunks.add(new TextChunk((long) document, i, "", 1));
+                documentVectors.add(vector);
+            }
+            index.indexDocument((long) document, chunks, documentVectors);
+        }
+        for (int i = 0; i < 1000; i++) {
+            queries.add(clustered(0.6f, centres.get(random.nextInt(centres.size()))));
+        }
+        System.out.printf("recall@%d over %d vectors: %.4f%n", TOP_K, vectorCount, recall());
+    }
+
+    @TearDown(Level.Trial)
+    public void closeIndex() {
+        index.close();
+    }
+
+    @Benchmark
+    public List<ScoredChunk> graphSearch() {
+        return index.search(nextQuery(), TOP_K);
+    }
+
+    @Benchmark
+    public PriorityQueue<Float> exactScan() {
+        float[] query = nextQuery();
+        PriorityQueue<Float> best = new PriorityQueue<>();
+        for (float[] vector : vectors) {
+            best.offer(dot(vector, query));
+            if (best.size() > TOP_K) {
+                best.poll();
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Share of the exact top-k found by the graph search, over the first RECALL_QUERIES queries
+     */
+    private double recall() {
+        int found = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            float[] query = queries.get(q);
+            Set<Integer> exact = exactTopK(query);
+            for (ScoredChunk scored : index.search(query, TOP_K)) {
+                TextChunk chunk = scored.getChunk();
+                if (exact.contains((int) (chunk.getDocumentId() * 10 + chunk.getChunkIndex()))) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / (RECALL_QUERIES * TOP_K);
+    }
+
+    private Set<Integer> exactTopK(float[] query) {
+        PriorityQueue<Integer> best = new PriorityQueue<>(Comparator.comparingDouble(id -> dot(vectors[id], query)));
+        for (int id = 0; id < vectors.length; id++) {
+            best.offer(id);
+            if (best.size() > TOP_K) {
+                best.poll();
+            }
+        }
+        return new HashSet<>(best);
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float similarity = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            similarity += a[i] * b[i];
+        }
+        return similarity;
+    }
+
+    private float[] nextQuery() {
+        return queries.get(next++ % queries.size());
+    }
+
+    private float[] clustered(float noise, float[] centre) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (centre == null ? 0 : centre[i]) + (float) random.nextGaussian() * noise / (float) Math.sqrt(DIMENSION);
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,199 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import com.yashir.knowledgehub.llm.service.HashedNgramEmbeddingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall of HnswVectorIndex against a brute-force cosine scan, and reclaiming of tombstoned vectors
+ * Vectors are drawn around random cluster centres with a fixed seed, like embeddings of related chunks
+ */
+class HnswVectorIndexTest {
+
+    private static final int DIMENSION = 64;
+    private static final int DOCUMENTS = 400;
+    private static final int CHUNKS_PER_DOCUMENT = 10;
+    private static final int QUERIES = 200;
+    private static final int TOP_K = 10;
+
+    @TempDir
+    Path directory;
+
+    private final Random random = new Random(7);
+    private final List<float[]> centres = new ArrayList<>();
+    private final List<float[]> vectors = new ArrayList<>();
+    private HnswVectorIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        for (int i = 0; i < 50; i++) {
+            centres.add(randomVector(1.0f, null));
+        }
+        index = newIndex(0.3);
+        for (long document = 0; document < DOCUMENTS; document++) {
+            insertDocument(index, document);
+        }
+    }
+
+    @AfterEach
+    void closeIndex() {
+        index.close();
+    }
+
+    @Test
+    void recallAgainstBruteForce() {
+        assertThat(recall(index, allDocuments())).as("recall@%d", TOP_K).isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void deletedDocumentsAreNeverReturned() {
+        Set<Long> live = new HashSet<>(allDocuments());
+        for (long document = 0; document < DOCUMENTS; document += 4) {
+            index.removeDocument(document);
+            live.remove(document);
+        }
+
+        for (int q = 0; q < QUERIES; q++) {
+            assertThat(index.search(query(), TOP_K))
+                    .allMatch(scored -> live.contains(scored.getChunk().getDocumentId()));
+        }
+        assertThat(recall(index, live)).isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void tombstonesAreReclaimedOnceTheyReachTheCompactionRatio() throws Exception {
+        int stored = DOCUMENTS * CHUNKS_PER_DOCUMENT;
+        assertThat(index.getStoredVectorCount()).isEqualTo(stored);
+
+        // Deleting 20% stays under the ratio of 0.3: vectors are only tombstoned
+        Set<Long> live = new HashSet<>(allDocuments());
+        for (long document = 0; document < DOCUMENTS / 5; document++) {
+            index.removeDocument(document);
+            live.remove(document);
+        }
+        assertThat(index.getStoredVectorCount()).isEqualTo(stored);
+        assertThat(index.getTombstoneCount()).isEqualTo(DOCUMENTS / 5 * CHUNKS_PER_DOCUMENT);
+
+        // Re-indexing tombstones the old copies too; crossing the ratio rebuilds the store from the live vectors
+        int reindexed = 0;
+        for (long document = DOCUMENTS / 5; document < DOCUMENTS / 2; document++) {
+            insertDocument(index, document);
+            reindexed += CHUNKS_PER_DOCUMENT;
+        }
+        assertThat(index.getStoredVectorCount()).isLessThan(stored + reindexed);
+        assertThat(index.getStoredVectorCount())
+                .isEqualTo(live.size() * CHUNKS_PER_DOCUMENT + index.getTombstoneCount());
+        assertThat(index.getTombstoneCount()).isLessThan((int) (index.getStoredVectorCount() * 0.3));
+        try (var generations = Files.list(directory)) {
+            assertThat(generations.count()).as("old segment directories are deleted").isEqualTo(1);
+        }
+
+        assertThat(recall(index, live)).isGreaterThanOrEqualTo(0.95);
+        long document = DOCUMENTS / 2;
+        assertThat(index.searchDocument(document, vectors.get((int) document * CHUNKS_PER_DOCUMENT), 1))
+                .singleElement()
+                .satisfies(scored -> assertThat(scored.getChunk().getChunkIndex()).isZero());
+    }
+
+    @Test
+    void storeStaysBoundedUnderRepeatedReindexing() {
+        for (int round = 0; round < 5; round++) {
+            for (long document = 0; document < DOCUMENTS; document++) {
+                insertDocument(index, document);
+            }
+        }
+        int live = DOCUMENTS * CHUNKS_PER_DOCUMENT;
+        assertThat(index.getStoredVectorCount()).isLessThan((int) (live / (1 - 0.3)) + 1);
+        assertThat(recall(index, allDocuments())).isGreaterThanOrEqualTo(0.95);
+    }
+
+    private HnswVectorIndex newIndex(double compactionRatio) {
+        return new HnswVectorIndex(new HashedNgramEmbeddingService(DIMENSION), directory.toString(),
+                16, 100, 64, 1024, compactionRatio);
+    }
+
+    /**
+     * Inserts a document's chunks; the vectors of a document are fixed by its ID, so re-inserting repeats them
+     */
+    private void insertDocument(HnswVectorIndex target, long document) {
+        List<TextChunk> chunks = new ArrayList<>();
+        List<float[]> documentVectors = new ArrayList<>();
+        for (int i = 0; i < CHUNKS_PER_DOCUMENT; i++) {
+            int id = (int) document * CHUNKS_PER_DOCUMENT + i;
+            while (vectors.size() <= id) {
+                vectors.add(randomVector(0.6f, centres.get(random.nextInt(centres.size()))));
+            }
+            chunks.add(new TextChunk(document, i, "chunk " + id, 1));
+            documentVectors.add(vectors.get(id));
+        }
+        target.indexDocument(document, chunks, documentVectors);
+    }
+
+    /**
+     * Share of the exact top-k (by brute-force dot product over live vectors) found by the graph search
+     */
+    private double recall(HnswVectorIndex target, Set<Long> liveDocuments) {
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            float[] query = query();
+            Set<Integer> exact = IntStream.range(0, vectors.size())
+                    .filter(id -> liveDocuments.contains((long) id / CHUNKS_PER_DOCUMENT))
+                    .boxed()
+                    .sorted(Comparator.comparingDouble((Integer id) -> dot(vectors.get(id), query)).reversed())
+                    .limit(TOP_K)
+                    .collect(Collectors.toSet());
+            for (ScoredChunk scored : target.search(query, TOP_K)) {
+                TextChunk chunk = scored.getChunk();
+                if (exact.contains((int) (chunk.getDocumentId() * CHUNKS_PER_DOCUMENT + chunk.getChunkIndex()))) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / (QUERIES * TOP_K);
+    }
+
+    private Set<Long> allDocuments() {
+        return LongStream.range(0, DOCUMENTS).boxed().collect(Collectors.toSet());
+    }
+
+    private float[] query() {
+        return randomVector(0.6f, centres.get(random.nextInt(centres.size())));
+    }
+
+    private float[] randomVector(float noise, float[] centre) {
+        float[] vector = new float[DIMENSION];
+        double norm = 0;
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (centre == null ? 0 : centre[i]) + (float) random.nextGaussian() * noise / (float) Math.sqrt(DIMENSION);
+            norm += vector[i] * vector[i];
+        }
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
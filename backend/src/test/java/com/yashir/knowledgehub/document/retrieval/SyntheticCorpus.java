@@ -0,0 +1,126 @@
+package com.yashir.knowledgehub.document.retrieval;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Reproducible corpus of filler documents with planted facts, for retrieval tests and benchmarks
+ * Filler words are pseudo-words drawn with a Zipf-like skew, so some terms are frequent across the corpus
+ * and most are rare, as in real text. Each fact is a sentence naming a unique subject and answer word;
+ * its question repeats the subject and one frequent word but not the answer
+ */
+public final class SyntheticCorpus {
+
+    private static final String[] SYLLABLES = {
+            "ka", "lo", "mi", "ren", "tas", "vo", "gri", "pel", "dun", "sa", "fi", "tor",
+            "bel", "cu", "nar", "es", "qui", "zo", "ham", "lit", "ob", "war", "ste", "ny"
+    };
+
+    private final List<String> documents = new ArrayList<>();
+    private final List<Fact> facts = new ArrayList<>();
+
+    /**
+     * Generates a corpus
+     * @param seed the random seed; equal seeds give equal corpora
+     * @param documentCount the number of documents
+     * @param wordsPerDocument the filler words per document
+     * @param factsPerDocument the facts planted at random positions in each document
+     */
+    public SyntheticCorpus(long seed, int documentCount, int wordsPerDocument, int factsPerDocument) {
+        Random random = new Random(seed);
+        Set<String> used = new HashSet<>();
+        List<String> vocabulary = new ArrayList<>();
+        while (vocabulary.size() < 5000) {
+            String word = pseudoWord(random, 2, 3);
+            if (used.add(word)) {
+                vocabulary.add(word);
+            }
+        }
+
+        for (int d = 0; d < documentCount; d++) {
+            List<String> sentences = new ArrayList<>();
+            int words = 0;
+            while (words < wordsPerDocument) {
+                int length = 8 + random.nextInt(12);
+                sentences.add(sentence(random, vocabulary, length));
+                words += length;
+            }
+            for (int f = 0; f < factsPerDocument; f++) {
+                String subject = uniqueWord(random, used, 4);
+                String answer = uniqueWord(random, used, 4);
+                String common = vocabulary.get(random.nextInt(50));
+                String text = "The " + subject + " " + common + " limit is " + answer + ".";
+                String question = "What is the " + common + " limit for " + subject + "?";
+                sentences.add(random.nextInt(sentences.size() + 1), text);
+                facts.add(new Fact(d, question, answer));
+            }
+            documents.add(String.join(" ", sentences));
+        }
+    }
+
+    public List<String> getDocuments() {
+        return documents;
+    }
+
+    public List<Fact> getFacts() {
+        return facts;
+    }
+
+    private static String sentence(Random random, List<String> vocabulary, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            // Squaring a uniform draw skews picks towards the start of the vocabulary
+            double skewed = random.nextDouble() * random.nextDouble();
+            String word = vocabulary.get((int) (skewed * vocabulary.size()));
+            sentence.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : " " + word);
+        }
+        return sentence.append('.').toString();
+    }
+
+    private static String uniqueWord(Random random, Set<String> used, int syllables) {
+        String word;
+        do {
+            word = pseudoWord(random, syllables, syllables);
+        } while (!used.add(word));
+        return word;
+    }
+
+    private static String pseudoWord(Random random, int minSyllables, int maxSyllables) {
+        int syllables = minSyllables + random.nextInt(maxSyllables - minSyllables + 1);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    /**
+     * A planted fact: the document holding it, a question about it and the answer word
+     */
+    public static final class Fact {
+        private final int documentIndex;
+        private final String question;
+        private final String answer;
+
+        private Fact(int documentIndex, String question, String answer) {
+            this.documentIndex = documentIndex;
+            this.question = question;
+            this.answer = answer;
+        }
+
+        public int getDocumentIndex() {
+            return documentIndex;
+        }
+
+        public String getQuestion() {
+            return question;
+        }
+
+        public String getAnswer() {
+            return answer;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.yashir.knowledgehub.document.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to extract the full text of a generated PDF, page by page (workers = 1) or in parallel page ranges
+ * Speedup depends on the processors available to the fork; with one processor only the cost of reloading
+ * the document per range shows
+ * Equivalence of the text is checked by PdfParallelExtractionTest
+ * Run: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=PdfExtractionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PdfExtractionBenchmark {
+
+    private static final int PAGES_PER_TASK = 16;
+
+    @Param({"400"})
+    private int pages;
+
+    @Param({"1", "2", "4"})
+    private int workers;
+
+    private final char[] buffer = new char[8192];
+    private Path directory;
+    private Path pdf;
+    private ForkJoinPool pool;
+    private DocumentContentExtractionService service;
+
+    @Setup(Level.Trial)
+    public void generatePdf() throws IOException {
+        directory = Files.createTempDirectory("pdf-benchmark");
+        pdf = directory.resolve("generated.pdf");
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int page = 1; page <= pages; page++) {
+                PDPage pdfPage = new PDPage();
+                document.addPage(pdfPage);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdfPage)) {
+                    content.beginText();
+                    content.setFont(font, 8);
+                    content.newLineAtOffset(40, 760);
+                    for (int line = 0; line < 80; line++) {
+                        content.showText("Page " + page + " line " + line + " quarterly revenue policy manual text");
+                        content.newLineAtOffset(0, -9);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(pdf.toFile());
+        }
+
+        pool = new ForkJoinPool(workers);
+        service = new DocumentContentExtractionService(pool, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "pdfReadMode", "buffered");
+        ReflectionTestUtils.setField(service, "pdfScratchMainMemory", DataSize.ofMegabytes(16));
+        ReflectionTestUtils.setField(service, "pdfScratchDir", "");
+        ReflectionTestUtils.setField(service, "pdfParallelThresholdPages", 64);
+        ReflectionTestUtils.setField(service, "pdfPagesPerTask", PAGES_PER_TASK);
+    }
+
+    @TearDown(Level.Trial)
+    public void deletePdf() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(pdf);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long extractFullText() throws IOException {
+        long characters = 0;
+        try (Reader reader = service.openReader(pdf, "generated.pdf")) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                characters += read;
+            }
+        }
+        return characters;
+    }
+}
@@ -0,0 +1,161 @@
+package com.yashir.knowledgehub.document.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel extraction of large PDFs in page ranges against sequential, page-by-page extraction
+ * Documents are generated with PDFBox, so every page has known text
+ */
+class PdfParallelExtractionTest {
+
+    private static final int THRESHOLD_PAGES = 64;
+    private static final int PAGES_PER_TASK = 16;
+    private static final int LINES_PER_PAGE = 40;
+
+    @TempDir
+    Path directory;
+
+    private ForkJoinPool pool;
+    private DocumentContentExtractionService sequential;
+    private DocumentContentExtractionService parallel;
+
+    @BeforeEach
+    void createServices() {
+        pool = new ForkJoinPool(4);
+        // A threshold no document reaches keeps extraction page by page
+        sequential = newService(pool, Integer.MAX_VALUE);
+        parallel = newService(pool, THRESHOLD_PAGES);
+    }
+
+    @AfterEach
+    void shutDownPool() throws InterruptedException {
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void parallelTextIsIdenticalToSequentialText() throws IOException {
+        // At the threshold, and a page count that leaves a partial last range
+        for (int pages : new int[]{THRESHOLD_PAGES, 150}) {
+            Path pdf = generatePdf(pages);
+            String expected = readAll(sequential, pdf);
+
+            assertThat(expected).contains("Page 1 line 0 ", "Page " + pages + " line " + (LINES_PER_PAGE - 1) + " ");
+            assertThat(readAll(parallel, pdf)).as("text of %d pages", pages).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void rangesAreReturnedInPageOrder() throws IOException {
+        int pages = 150;
+        Path pdf = generatePdf(pages);
+
+        List<String> ranges = new ArrayList<>();
+        try (TextSegmentIterator segments = parallel.openSegments(pdf, "generated.pdf")) {
+            segments.forEachRemaining(ranges::add);
+        }
+
+        assertThat(ranges).hasSize((pages + PAGES_PER_TASK - 1) / PAGES_PER_TASK);
+        for (int range = 0; range < ranges.size(); range++) {
+            int firstPage = range * PAGES_PER_TASK + 1;
+            int lastPage = Math.min(firstPage + PAGES_PER_TASK - 1, pages);
+            assertThat(ranges.get(range))
+                    .as("range %d", range)
+                    .startsWith("Page " + firstPage + " line 0 ")
+                    .contains("Page " + lastPage + " line " + (LINES_PER_PAGE - 1) + " ")
+                    .doesNotContain("Page " + (lastPage + 1) + " line 0 ");
+        }
+    }
+
+    @Test
+    void closingEarlyLeavesThePoolIdle() throws IOException {
+        Path pdf = generatePdf(300);
+        try (TextSegmentIterator segments = parallel.openSegments(pdf, "generated.pdf")) {
+            assertThat(segments.next()).startsWith("Page 1 line 0 ");
+        }
+        // Ranges submitted ahead are cancelled or finish; nothing further is queued
+        assertThat(pool.awaitQuiescence(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(pool.getQueuedSubmissionCount()).isZero();
+    }
+
+    @Test
+    void sampledPreviewReadsPagesOutOfOrder() throws IOException {
+        int pages = 150;
+        Path pdf = generatePdf(pages);
+
+        String preview = sequential.extractPreview(pdf, "generated.pdf", 3000, true);
+
+        // Head, then the middle page, then the last page read backwards
+        assertThat(preview).startsWith("Page 1 line 0 ")
+                .contains("Page " + (pages / 2 + 1) + " line 0 ")
+                .endsWith("Page " + pages + " line " + (LINES_PER_PAGE - 1) + " of the quarterly policy manual"
+                        + System.lineSeparator());
+    }
+
+    private DocumentContentExtractionService newService(ForkJoinPool extractionPool, int thresholdPages) {
+        DocumentContentExtractionService service =
+                new DocumentContentExtractionService(extractionPool, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "pdfReadMode", "buffered");
+        ReflectionTestUtils.setField(service, "pdfScratchMainMemory", DataSize.ofMegabytes(16));
+        ReflectionTestUtils.setField(service, "pdfScratchDir", "");
+        ReflectionTestUtils.setField(service, "pdfParallelThresholdPages", thresholdPages);
+        ReflectionTestUtils.setField(service, "pdfPagesPerTask", PAGES_PER_TASK);
+        return service;
+    }
+
+    private String readAll(DocumentContentExtractionService service, Path pdf) throws IOException {
+        StringWriter text = new StringWriter();
+        try (Reader reader = service.openReader(pdf, "generated.pdf")) {
+            reader.transferTo(text);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes a PDF whose lines name their page and line number, e.g. "Page 3 line 12 ..."
+     */
+    private Path generatePdf(int pages) throws IOException {
+        Path file = directory.resolve("generated-" + pages + ".pdf");
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (int page = 1; page <= pages; page++) {
+                PDPage pdfPage = new PDPage();
+                document.addPage(pdfPage);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdfPage)) {
+                    content.beginText();
+                    content.setFont(font, 9);
+                    content.newLineAtOffset(40, 760);
+                    for (int line = 0; line < LINES_PER_PAGE; line++) {
+                        content.showText("Page " + page + " line " + line + " of the quarterly policy manual");
+                        content.newLineAtOffset(0, -12);
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+}
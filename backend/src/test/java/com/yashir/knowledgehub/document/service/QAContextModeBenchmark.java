@@ -0,0 +1,178 @@
+package com.yashir.knowledgehub.document.service;
+
+import com.yashir.knowledgehub.document.cache.DocumentScopedCaffeineCache;
+import com.yashir.knowledgehub.document.cache.PersistentQACache;
+import com.yashir.knowledgehub.document.cache.SemanticQACache;
+import com.yashir.knowledgehub.document.cache.SingleFlight;
+import com.yashir.knowledgehub.document.dto.QuestionRequest;
+import com.yashir.knowledgehub.document.dto.QuestionResponse;
+import com.yashir.knowledgehub.document.model.Document;
+import com.yashir.knowledgehub.document.model.DocumentType;
+import com.yashir.knowledgehub.document.repository.DocumentRepository;
+import com.yashir.knowledgehub.document.retrieval.Bm25Index;
+import com.yashir.knowledgehub.document.retrieval.ChunkRetrievalService;
+import com.yashir.knowledgehub.document.retrieval.DocumentChunker;
+import com.yashir.knowledgehub.document.retrieval.SyntheticCorpus;
+import com.yashir.knowledgehub.llm.service.LLMServiceFactory;
+import com.yashir.knowledgehub.llm.service.LLMServiceInterface;
+import com.yashir.knowledgehub.llm.service.prompt.HeadTailTruncationStrategy;
+import com.yashir.knowledgehub.llm.service.prompt.HeadTruncationStrategy;
+import com.yashir.knowledgehub.llm.service.prompt.PromptBudgeter;
+import com.yashir.knowledgehub.llm.service.prompt.QuestionAnswerPromptBuilder;
+import com.yashir.knowledgehub.llm.service.prompt.SectionAwareTruncationStrategy;
+import com.yashir.knowledgehub.llm.service.prompt.TokenCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A question answered end to end by DocumentQAService with qa.context-mode=chunked against full, on the synthetic
+ * corpus of Bm25RetrievalTest
+ * Every question misses the answer caches and reaches the LLM, which builds the Q&A prompt as OpenAIService does
+ * and drops it instead of sending it; the time is everything but the network round trip
+ * Prompt tokens per question, and the share of prompts that contain the answer, are counted over the first
+ * round of questions and printed with each trial
+ * Run: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=QAContextModeBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QAContextModeBenchmark {
+
+    private static final int DOCUMENT_COUNT = 20;
+
+    @Param({"chunked", "full"})
+    private String contextMode;
+
+    // 1500 words fit the prompt budget whole; 6000 are cut by the truncation strategy in full mode
+    @Param({"1500", "6000"})
+    private int wordsPerDocument;
+
+    private final TokenCounter tokenCounter = new TokenCounter();
+    private final QuestionAnswerPromptBuilder qaPromptBuilder = new QuestionAnswerPromptBuilder();
+    private List<SyntheticCorpus.Fact> facts;
+    private DocumentQAService documentQAService;
+    private int next;
+
+    private SyntheticCorpus.Fact asked;
+    private long questions;
+    private long promptTokens;
+    private long promptsWithTheAnswer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticCorpus corpus = new SyntheticCorpus(20240501L, DOCUMENT_COUNT, wordsPerDocument, 5);
+        facts = corpus.getFacts();
+
+        DocumentChunker chunker = new DocumentChunker(tokenCounter);
+        ReflectionTestUtils.setField(chunker, "chunkSize", 1500);
+        ReflectionTestUtils.setField(chunker, "chunkOverlap", 200);
+        ChunkRetrievalService retrievalService = new ChunkRetrievalService(chunker, new Bm25Index(), null, null);
+        ReflectionTestUtils.setField(retrievalService, "retrievalMode", "bm25");
+        ReflectionTestUtils.setField(retrievalService, "topK", 8);
+        ReflectionTestUtils.setField(retrievalService, "corpusTopK", 12);
+        ReflectionTestUtils.setField(retrievalService, "tokenBudget", 3000);
+
+        DocumentRepository documentRepository = mock(DocumentRepository.class);
+        ExtractedTextStore extractedTextStore = mock(ExtractedTextStore.class);
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            String text = corpus.getDocuments().get(i);
+            retrievalService.indexDocument((long) i, new StringReader(text));
+            Document document = new Document();
+            document.setId((long) i);
+            document.setName("Document " + i);
+            document.setType(DocumentType.POLICY);
+            document.setContentHash("hash-" + i);
+            when(documentRepository.findById((long) i)).thenReturn(Optional.of(document));
+        }
+        when(extractedTextStore.openReader(anyLong())).thenAnswer(invocation ->
+                Optional.of(new StringReader(corpus.getDocuments().get(((Long) invocation.getArgument(0)).intValue()))));
+
+        PromptBudgeter promptBudgeter = new PromptBudgeter(tokenCounter, qaPromptBuilder,
+                List.of(new HeadTruncationStrategy(tokenCounter), new HeadTailTruncationStrategy(tokenCounter),
+                        new SectionAwareTruncationStrategy(tokenCounter)));
+        ReflectionTestUtils.setField(promptBudgeter, "maxInputTokens", 16000);
+        ReflectionTestUtils.setField(promptBudgeter, "truncation", SectionAwareTruncationStrategy.NAME);
+
+        SemanticQACache semanticQACache = mock(SemanticQACache.class);
+        when(semanticQACache.lookup(any(), any())).thenReturn(Optional.empty());
+        PersistentQACache persistentQACache = mock(PersistentQACache.class);
+        when(persistentQACache.lookup(any(), any(), any())).thenReturn(Optional.empty());
+        LLMServiceFactory llmServiceFactory = mock(LLMServiceFactory.class);
+        when(llmServiceFactory.getLLMService()).thenReturn(new PromptCountingLLMService());
+
+        documentQAService = new DocumentQAService(documentRepository, null, null, extractedTextStore, retrievalService,
+                semanticQACache, persistentQACache, mock(DocumentScopedCaffeineCache.class), new SingleFlight<>(),
+                llmServiceFactory, promptBudgeter);
+        ReflectionTestUtils.setField(documentQAService, "contextMode", contextMode);
+    }
+
+    @TearDown(Level.Trial)
+    public void printPromptSize() {
+        System.out.printf("%s context, %d words per document: %d prompt tokens per question, answer in %.1f%% of prompts%n",
+                contextMode, wordsPerDocument, promptTokens / questions, 100.0 * promptsWithTheAnswer / questions);
+    }
+
+    @Benchmark
+    public QuestionResponse answerQuestion() {
+        asked = facts.get(next++ % facts.size());
+        return documentQAService.answerQuestion(
+                new QuestionRequest((long) asked.getDocumentIndex(), asked.getQuestion()));
+    }
+
+    /**
+     * Stands in for OpenAIService: builds the same prompt and records its size instead of sending it
+     */
+    private class PromptCountingLLMService implements LLMServiceInterface {
+
+        @Override
+        public DocumentType identifyDocumentType(String fileName, String fileContent) {
+            return DocumentType.UNDEFINED;
+        }
+
+        @Override
+        public String answerQuestion(String question, String documentContext, DocumentType documentType) {
+            String prompt = qaPromptBuilder.buildPrompt(question, documentContext, documentType);
+            // The prompt of a question is the same every time it is asked, so each is counted once
+            if (questions < facts.size()) {
+                questions++;
+                promptTokens += tokenCounter.count(prompt);
+                if (documentContext.contains(asked.getAnswer())) {
+                    promptsWithTheAnswer++;
+                }
+            }
+            return "Answer to: " + question;
+        }
+
+        @Override
+        public Flux<String> streamAnswer(String question, String documentContext, DocumentType documentType) {
+            return Flux.just(answerQuestion(question, documentContext, documentType));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.yashir.knowledgehub.llm.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.yashir.knowledgehub.llm.service.dto.OpenAIResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one chat completion call against a local keep-alive HTTP stub
+ * - sharedClient: the pooled WebClient of OpenAIWebClientConfig, decoding into OpenAIResponse
+ * - clientPerCall: a WebClient built per call, decoded into a Map and then converted into OpenAIResponse by
+ *   ObjectMapper.convertValue, as OpenAIClient and OpenAIService did before
+ * Run: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=OpenAIWebClientBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class OpenAIWebClientBenchmark {
+
+    private static final byte[] COMPLETION = ("{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion\",\"choices\":[{\"index\":0,"
+            + "\"message\":{\"role\":\"assistant\",\"content\":\"POLICY\"},\"finish_reason\":\"stop\"}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final Map<String, Object> REQUEST = Map.of(
+            "model", "gpt-3.5-turbo",
+            "messages", List.of(Map.of("role", "user", "content", "Classify this document")));
+
+    private HttpServer server;
+    private String url;
+    private ConnectionProvider connectionProvider;
+    private WebClient sharedClient;
+    private WebClient.Builder builder;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/chat/completions", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+            exchange.sendResponseHeaders(200, COMPLETION.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(COMPLETION);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/v1/chat/completions";
+
+        OpenAIWebClientConfig config = new OpenAIWebClientConfig();
+        ReflectionTestUtils.setField(config, "maxConnections", 50);
+        ReflectionTestUtils.setField(config, "pendingAcquireTimeout", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(config, "maxIdleTime", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(config, "responseTimeout", Duration.ofSeconds(60));
+        builder = WebClient.builder();
+        connectionProvider = config.openAIConnectionProvider();
+        sharedClient = config.openAIWebClient(builder, connectionProvider);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        connectionProvider.dispose();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public OpenAIResponse sharedClient() {
+        return sharedClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(REQUEST)
+                .retrieve()
+                .bodyToMono(OpenAIResponse.class)
+                .block();
+    }
+
+    @Benchmark
+    public OpenAIResponse clientPerCall() {
+        Map<?, ?> response = builder.build().post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(REQUEST)
+                .retrieve()
+                .bodyToMono(Map.class)
+                .block();
+        return objectMapper.convertValue(response, OpenAIResponse.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.yashir.knowledgehub.llm.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Connection reuse and timeouts of the shared OpenAI WebClient, against a local keep-alive HTTP stub
+ * Connections are told apart by the client port the stub sees
+ */
+class OpenAIWebClientConfigTest {
+
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofMillis(300);
+
+    // Client port of each request, in arrival order
+    private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/fast", exchange -> respond(exchange, 0));
+        server.createContext("/slow", exchange -> respond(exchange, RESPONSE_TIMEOUT.toMillis() * 3));
+        server.createContext("/stream", this::stream);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        OpenAIWebClientConfig config = new OpenAIWebClientConfig();
+        ReflectionTestUtils.setField(config, "maxConnections", 4);
+        ReflectionTestUtils.setField(config, "pendingAcquireTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(config, "maxIdleTime", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(config, "responseTimeout", RESPONSE_TIMEOUT);
+        connectionProvider = config.openAIConnectionProvider();
+        webClient = config.openAIWebClient(WebClient.builder(), connectionProvider);
+    }
+
+    @AfterEach
+    void stopServer() {
+        connectionProvider.dispose();
+        server.stop(0);
+    }
+
+    @Test
+    void sequentialCallsReuseOneConnection() {
+        for (int i = 0; i < 50; i++) {
+            assertThat(get("/fast")).isEqualTo("ok");
+        }
+        // A connection returns to the pool just after its response is emitted, so a call issued right away
+        // may open a second one; without reuse every call would open its own
+        assertThat(new HashSet<>(clientPorts)).as("connections opened").hasSizeLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void idlePooledConnectionOutlivesTheResponseTimeout() throws InterruptedException {
+        assertThat(get("/fast")).isEqualTo("ok");
+        Thread.sleep(RESPONSE_TIMEOUT.toMillis() * 3);
+
+        assertThat(get("/fast")).isEqualTo("ok");
+        assertThat(clientPorts).as("client port of each call").hasSize(2);
+        assertThat(clientPorts.get(1)).as("connection of the call after the idle period").isEqualTo(clientPorts.get(0));
+    }
+
+    @Test
+    void slowResponseTimesOut() {
+        assertThatThrownBy(() -> get("/slow")).hasStackTraceContaining("Timeout");
+        assertThat(get("/fast")).isEqualTo("ok");
+    }
+
+    @Test
+    void streamedResponseMayOutlastTheTimeoutWhileReadsKeepComing() {
+        // Five pieces half a timeout apart: the whole response takes longer than the timeout
+        long start = System.nanoTime();
+        assertThat(get("/stream")).isEqualTo("01234");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThan(RESPONSE_TIMEOUT);
+    }
+
+    private String get(String path) {
+        return webClient.get()
+                .uri("http://localhost:" + server.getAddress().getPort() + path)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(Duration.ofSeconds(5));
+    }
+
+    private void stream(HttpExchange exchange) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int piece = 0; piece < 5; piece++) {
+                out.write(String.valueOf(piece).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                Thread.sleep(RESPONSE_TIMEOUT.toMillis() / 2);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respond(HttpExchange exchange, long delayMillis) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        } catch (IOException e) {
+            // The client gave up on a slow response
+        }
+    }
+}
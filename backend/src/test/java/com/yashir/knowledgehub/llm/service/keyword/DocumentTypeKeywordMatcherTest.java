@@ -0,0 +1,232 @@
+package com.yashir.knowledgehub.llm.service.keyword;
+
+import com.yashir.knowledgehub.document.model.DocumentType;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * DocumentTypeKeywordMatcher against straightforward re-implementations, on texts generated with a fixed seed
+ * - a substring reference applying the documented rules (word starts, longest keyword, file name weight)
+ *   must give the same scores, for String and streamed content
+ * - the substring matcher it replaced (LegacyKeywordMatcher) must give the same type wherever that one
+ *   is unambiguous; the intended differences are pinned separately
+ */
+class DocumentTypeKeywordMatcherTest {
+
+    private static final int FILE_NAME_WEIGHT = 10;
+    private static final int TEXTS = 3000;
+
+    // Words that contain keywords without starting with them, or that extend them
+    private static final List<String> TRICKY_WORDS = List.of(
+            "overruled", "overview", "guidelines", "rules", "reports", "subpolicy", "datasets", "metadata",
+            "handbooks", "misguided", "Standards", "auditing", "reviewer", "annually");
+
+    // Words that contain no keyword, not even as a substring
+    private static final List<String> FILLER_WORDS = List.of(
+            "the", "of", "team", "budget", "travel", "office", "café", "Über", "2024", "Q3", "x");
+
+    private static final List<String> SEPARATORS = List.of(" ", " ", " ", "-", "_", ".", ", ", "\n", "/", "");
+
+    private final DocumentTypeKeywordMatcher matcher = new DocumentTypeKeywordMatcher();
+    private final Random random = new Random(11);
+    private final Map<String, DocumentType> keywordTypes = new LinkedHashMap<>();
+    private final Map<String, Integer> keywordWeights = new LinkedHashMap<>();
+
+    DocumentTypeKeywordMatcherTest() {
+        addKeywords(DocumentType.POLICY, "POLICY_KEYWORDS");
+        addKeywords(DocumentType.REPORT, "REPORT_KEYWORDS");
+        addKeywords(DocumentType.MANUAL, "MANUAL_KEYWORDS");
+    }
+
+    @Test
+    void keywordsAreTheOnesOfTheReplacedMatcher() {
+        List<String> legacyKeywords = new ArrayList<>();
+        legacyKeywords.addAll(LegacyKeywordMatcher.POLICY_KEYWORDS);
+        legacyKeywords.addAll(LegacyKeywordMatcher.REPORT_KEYWORDS);
+        legacyKeywords.addAll(LegacyKeywordMatcher.MANUAL_KEYWORDS);
+        assertThat(keywordTypes.keySet()).containsExactlyInAnyOrderElementsOf(legacyKeywords);
+        LegacyKeywordMatcher.POLICY_KEYWORDS.forEach(k -> assertThat(keywordTypes.get(k)).isEqualTo(DocumentType.POLICY));
+        LegacyKeywordMatcher.REPORT_KEYWORDS.forEach(k -> assertThat(keywordTypes.get(k)).isEqualTo(DocumentType.REPORT));
+        LegacyKeywordMatcher.MANUAL_KEYWORDS.forEach(k -> assertThat(keywordTypes.get(k)).isEqualTo(DocumentType.MANUAL));
+    }
+
+    @Test
+    void scoresMatchTheSubstringReference() throws IOException {
+        List<String> allWords = new ArrayList<>(keywordTypes.keySet());
+        allWords.addAll(TRICKY_WORDS);
+        allWords.addAll(FILLER_WORDS);
+
+        for (int i = 0; i < TEXTS; i++) {
+            String fileName = randomText(allWords, 1 + random.nextInt(3)) + ".pdf";
+            String content = randomText(allWords, random.nextInt(60));
+            Map<DocumentType, Integer> expected = referenceScores(fileName, content);
+
+            KeywordClassification fromString = matcher.classify(fileName, content);
+            assertThat(fromString.getScores()).as("scores of '%s' / '%s'", fileName, content).isEqualTo(expected);
+            assertThat(fromString.getType()).isEqualTo(bestType(expected));
+
+            // Small, uneven reads make keywords straddle buffer boundaries
+            KeywordClassification fromReader = matcher.classify(fileName, trickle(content));
+            assertThat(fromReader).as("streamed '%s'", content).isEqualTo(fromString);
+        }
+    }
+
+    @Test
+    void typeMatchesTheReplacedMatcherWhenOnlyOneTypeOccurs() {
+        Map<DocumentType, List<String>> keywordsByType = new EnumMap<>(DocumentType.class);
+        keywordTypes.forEach((keyword, type) -> keywordsByType.computeIfAbsent(type, t -> new ArrayList<>()).add(keyword));
+
+        for (int i = 0; i < TEXTS; i++) {
+            List<String> keywords = keywordsByType.get(randomElement(new ArrayList<>(keywordsByType.keySet())));
+            List<String> words = new ArrayList<>(FILLER_WORDS);
+            words.addAll(keywords);
+            StringBuilder content = new StringBuilder();
+            for (int word = 0; word < 1 + random.nextInt(40); word++) {
+                content.append(randomCase(randomElement(words))).append(' ');
+            }
+            String fileName = randomElement(FILLER_WORDS) + ".docx";
+
+            assertThat(matcher.identifyByKeywords(fileName, content.toString()))
+                    .as("type of '%s'", content)
+                    .isEqualTo(LegacyKeywordMatcher.identifyByKeywords(fileName, content.toString()));
+        }
+    }
+
+    @Test
+    void keywordsInsideWordsNoLongerMatch() {
+        assertThat(LegacyKeywordMatcher.identifyByKeywords("notes.txt", "Objection overruled")).isEqualTo(DocumentType.POLICY);
+        assertThat(matcher.identifyByKeywords("notes.txt", "Objection overruled")).isEqualTo(DocumentType.UNDEFINED);
+
+        // The longer keyword supersedes the one it starts with
+        assertThat(matcher.classify("notes.txt", "Style guideline").getScores())
+                .containsEntry(DocumentType.POLICY, 3)
+                .containsEntry(DocumentType.MANUAL, 0);
+    }
+
+    @Test
+    void fileNameHitsAreWeightedInsteadOfWinningOutright() {
+        String someMentions = "policy ".repeat(3);
+        String manyMentions = "policy ".repeat(11);
+
+        assertThat(LegacyKeywordMatcher.identifyByKeywords("report.pdf", someMentions)).isEqualTo(DocumentType.REPORT);
+        assertThat(matcher.identifyByKeywords("report.pdf", someMentions)).isEqualTo(DocumentType.REPORT);
+
+        assertThat(LegacyKeywordMatcher.identifyByKeywords("report.pdf", manyMentions)).isEqualTo(DocumentType.REPORT);
+        assertThat(matcher.identifyByKeywords("report.pdf", manyMentions)).isEqualTo(DocumentType.POLICY);
+    }
+
+    /**
+     * Scores by checking every keyword at every word start; only the longest keyword starting there counts
+     */
+    private Map<DocumentType, Integer> referenceScores(String fileName, String content) {
+        Map<DocumentType, Integer> scores = new EnumMap<>(DocumentType.class);
+        scores.put(DocumentType.POLICY, 0);
+        scores.put(DocumentType.REPORT, 0);
+        scores.put(DocumentType.MANUAL, 0);
+        addHits(scores, fileName, FILE_NAME_WEIGHT);
+        addHits(scores, content, 1);
+        return scores;
+    }
+
+    private void addHits(Map<DocumentType, Integer> scores, String text, int weight) {
+        String lower = asciiLowerCase(text);
+        for (int start = 0; start < text.length(); start++) {
+            if (start > 0 && !startsWord(text.charAt(start - 1), text.charAt(start))) {
+                continue;
+            }
+            String longest = null;
+            for (String keyword : keywordTypes.keySet()) {
+                if (lower.startsWith(keyword, start) && (longest == null || keyword.length() > longest.length())) {
+                    longest = keyword;
+                }
+            }
+            if (longest != null) {
+                scores.merge(keywordTypes.get(longest), keywordWeights.get(longest) * weight, Integer::sum);
+            }
+        }
+    }
+
+    private static boolean startsWord(char previous, char first) {
+        return !Character.isLetterOrDigit(previous)
+                || Character.isUpperCase(first) && Character.isLowerCase(previous);
+    }
+
+    /**
+     * The automaton folds ASCII letters only, so the reference does too
+     */
+    private static String asciiLowerCase(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + ('a' - 'A'));
+            }
+        }
+        return new String(chars);
+    }
+
+    private static DocumentType bestType(Map<DocumentType, Integer> scores) {
+        DocumentType best = DocumentType.UNDEFINED;
+        int bestScore = 0;
+        for (DocumentType type : List.of(DocumentType.POLICY, DocumentType.REPORT, DocumentType.MANUAL)) {
+            if (scores.get(type) > bestScore) {
+                best = type;
+                bestScore = scores.get(type);
+            }
+        }
+        return best;
+    }
+
+    private String randomText(List<String> words, int wordCount) {
+        StringBuilder text = new StringBuilder();
+        for (int word = 0; word < wordCount; word++) {
+            if (word > 0) {
+                text.append(randomElement(SEPARATORS));
+            }
+            text.append(randomCase(randomElement(words)));
+        }
+        return text.toString();
+    }
+
+    private String randomCase(String word) {
+        return switch (random.nextInt(4)) {
+            case 0 -> word.toUpperCase();
+            case 1 -> Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            default -> word;
+        };
+    }
+
+    private <T> T randomElement(List<T> elements) {
+        return elements.get(random.nextInt(elements.size()));
+    }
+
+    private Reader trickle(String text) {
+        return new FilterReader(new StringReader(text)) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(length, 1 + random.nextInt(7)));
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addKeywords(DocumentType type, String field) {
+        Map<String, Integer> weighted = (Map<String, Integer>) ReflectionTestUtils.getField(DocumentTypeKeywordMatcher.class, field);
+        weighted.forEach((keyword, weight) -> {
+            keywordTypes.put(keyword, type);
+            keywordWeights.put(keyword, weight);
+        });
+    }
+}
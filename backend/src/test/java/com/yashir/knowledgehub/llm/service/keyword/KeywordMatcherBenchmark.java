@@ -0,0 +1,83 @@
+package com.yashir.knowledgehub.llm.service.keyword;
+
+import com.yashir.knowledgehub.document.model.DocumentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword classification with the single-pass automaton against the substring matcher it replaced
+ * - keywordFree: no keyword anywhere, the worst case of the substring matcher (every keyword is searched in full)
+ * - earlyKeyword: a policy keyword at the start, where the substring matcher stops at the first hit
+ * Ingestion only classifies a preview of at most classification.preview.max-chars (3000) characters, so 1 KB is the
+ * production case; 1 MB and 50 MB show the cost per character on whole documents
+ * Agreement of the two matchers is checked by DocumentTypeKeywordMatcherTest
+ * Run: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=KeywordMatcherBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeywordMatcherBenchmark {
+
+    private static final String FILE_NAME = "scan_0042.pdf";
+
+    // Contain no keyword, not even as a substring
+    private static final String[] FILLER_WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "eiusmod",
+            "tempor", "incididunt", "labore", "magna", "aliqua", "travel", "budget", "office", "team"
+    };
+
+    @Param({"1024", "1048576", "52428800"})
+    private int length;
+
+    @Param({"keywordFree", "earlyKeyword"})
+    private String content;
+
+    private final DocumentTypeKeywordMatcher matcher = new DocumentTypeKeywordMatcher();
+    private String text;
+
+    @Setup(Level.Trial)
+    public void generateText() {
+        Random random = new Random(3);
+        StringBuilder builder = new StringBuilder(length + 16);
+        if (content.equals("earlyKeyword")) {
+            builder.append("Travel Policy. ");
+        }
+        while (builder.length() < length) {
+            builder.append(FILLER_WORDS[random.nextInt(FILLER_WORDS.length)]).append(random.nextInt(10) == 0 ? ". " : " ");
+        }
+        builder.setLength(length);
+        text = builder.toString();
+
+        DocumentType expected = content.equals("earlyKeyword") ? DocumentType.POLICY : DocumentType.UNDEFINED;
+        if (LegacyKeywordMatcher.identifyByKeywords(FILE_NAME, text) != expected
+                || matcher.identifyByKeywords(FILE_NAME, text) != expected) {
+            throw new IllegalStateException("Generated text is not classified as " + expected);
+        }
+    }
+
+    @Benchmark
+    public KeywordClassification singlePassAutomaton() {
+        return matcher.classify(FILE_NAME, text);
+    }
+
+    @Benchmark
+    public DocumentType substringSearch() {
+        return LegacyKeywordMatcher.identifyByKeywords(FILE_NAME, text);
+    }
+}
@@ -0,0 +1,61 @@
+package com.yashir.knowledgehub.llm.service.keyword;
+
+import com.yashir.knowledgehub.document.model.DocumentType;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The substring matcher DocumentTypeKeywordMatcher replaced, kept as a baseline for tests and benchmarks
+ * The first type with any keyword anywhere wins, checking POLICY, REPORT, MANUAL in order; a hit in the
+ * file name wins over the content
+ */
+final class LegacyKeywordMatcher {
+
+    static final List<String> POLICY_KEYWORDS = List.of(
+            "policy", "procedure", "guideline", "rule", "regulation", "standard",
+            "protocol", "directive", "compliance", "governance", "framework",
+            "code of conduct", "terms of service", "terms and conditions"
+    );
+
+    static final List<String> REPORT_KEYWORDS = List.of(
+            "report", "analysis", "summary", "data", "statistic", "overview",
+            "findings", "results", "evaluation", "assessment", "review", "audit",
+            "metrics", "kpi", "dashboard", "quarterly", "annual", "monthly"
+    );
+
+    static final List<String> MANUAL_KEYWORDS = List.of(
+            "manual", "guide", "instruction", "how to", "how-to", "tutorial",
+            "walkthrough", "step by step", "step-by-step", "getting started",
+            "quick start", "handbook", "reference", "documentation", "docs"
+    );
+
+    private LegacyKeywordMatcher() {
+    }
+
+    static DocumentType identifyByKeywords(String fileName, String fileContent) {
+        DocumentType fileNameType = checkKeywords(normalize(fileName));
+        if (fileNameType != null) {
+            return fileNameType;
+        }
+        DocumentType contentType = checkKeywords(normalize(fileContent));
+        return contentType != null ? contentType : DocumentType.UNDEFINED;
+    }
+
+    private static DocumentType checkKeywords(String text) {
+        if (POLICY_KEYWORDS.stream().anyMatch(text::contains)) {
+            return DocumentType.POLICY;
+        }
+        if (REPORT_KEYWORDS.stream().anyMatch(text::contains)) {
+            return DocumentType.REPORT;
+        }
+        if (MANUAL_KEYWORDS.stream().anyMatch(text::contains)) {
+            return DocumentType.MANUAL;
+        }
+        return null;
+    }
+
+    private static String normalize(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+}
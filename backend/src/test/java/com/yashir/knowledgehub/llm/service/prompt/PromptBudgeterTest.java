@@ -0,0 +1,115 @@
+package com.yashir.knowledgehub.llm.service.prompt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fitting document text to a token budget: a document over the budget is read only for the sections that are
+ * kept, and the cached token counts of a document are redone when its text version changes
+ */
+class PromptBudgeterTest {
+
+    private static final int TEXT_VERSION = 2;
+    private static final int MAX_TOKENS = 200;
+
+    private final TokenCounter tokenCounter = new TokenCounter();
+    private final PromptBudgeter promptBudgeter = new PromptBudgeter(tokenCounter, new QuestionAnswerPromptBuilder(),
+            List.of(new HeadTruncationStrategy(tokenCounter), new HeadTailTruncationStrategy(tokenCounter),
+                    new SectionAwareTruncationStrategy(tokenCounter)));
+
+    private final String document = longDocument();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicLong charsRead = new AtomicLong();
+
+    @BeforeEach
+    void useHeadTruncation() {
+        ReflectionTestUtils.setField(promptBudgeter, "truncation", HeadTruncationStrategy.NAME);
+    }
+
+    @Test
+    void textWithinTheBudgetIsKeptWhole() throws IOException {
+        String text = "Refunds are issued within 30 days.\n\nContact finance for exceptions.\n";
+
+        assertThat(promptBudgeter.fitDocument(1L, TEXT_VERSION, () -> new StringReader(text), MAX_TOKENS))
+                .isEqualTo(text);
+    }
+
+    @Test
+    void documentOverTheBudgetIsReadOnlyAsFarAsItsKeptHead() throws IOException {
+        String fitted = promptBudgeter.fitDocument(1L, TEXT_VERSION, this::open, MAX_TOKENS);
+        assertThat(document).startsWith(fitted);
+        assertThat(tokenCounter.count(fitted)).isLessThanOrEqualTo(MAX_TOKENS);
+
+        // The token counts are cached, so the next question opens the text once and stops after the kept sections
+        opened.set(0);
+        charsRead.set(0);
+        assertThat(promptBudgeter.fitDocument(1L, TEXT_VERSION, this::open, MAX_TOKENS)).isEqualTo(fitted);
+        assertThat(opened).hasValue(1);
+        assertThat(charsRead.get()).isLessThan(document.length() / 20);
+    }
+
+    @Test
+    void keptSectionsAreReadInOnePassForHeadAndTail() throws IOException {
+        ReflectionTestUtils.setField(promptBudgeter, "truncation", HeadTailTruncationStrategy.NAME);
+
+        String fitted = promptBudgeter.fitDocument(1L, TEXT_VERSION, this::open, MAX_TOKENS);
+
+        assertThat(fitted).contains("[...]").startsWith("Section 0").endsWith("Section 399.\n");
+        assertThat(opened).as("counted once, read once").hasValue(2);
+    }
+
+    @Test
+    void tokenCountsOfAnotherTextVersionAreRedone() throws IOException {
+        promptBudgeter.fitDocument(1L, TEXT_VERSION, this::open, MAX_TOKENS);
+        opened.set(0);
+
+        String reextracted = "Re-extracted text that fits.\n";
+        assertThat(promptBudgeter.fitDocument(1L, TEXT_VERSION + 1, () -> {
+            opened.incrementAndGet();
+            return new StringReader(reextracted);
+        }, MAX_TOKENS)).isEqualTo(reextracted);
+        assertThat(opened).hasValue(2);
+    }
+
+    private Reader open() {
+        opened.incrementAndGet();
+        return new FilterReader(new StringReader(document)) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                charsRead.addAndGet(Math.max(read, 0));
+                return read;
+            }
+
+            @Override
+            public int read() throws IOException {
+                int c = super.read();
+                if (c >= 0) {
+                    charsRead.incrementAndGet();
+                }
+                return c;
+            }
+        };
+    }
+
+    private static String longDocument() {
+        StringBuilder text = new StringBuilder();
+        for (int paragraph = 0; paragraph < 400; paragraph++) {
+            text.append("Section ").append(paragraph).append(" covers refunds, approvals and the exceptions ")
+                    .append("that apply to purchases made by the team.\n\n");
+        }
+        text.append("This is the end of Section 399.\n");
+        return text.toString();
+    }
+}
@@ -65,16 +65,29 @@ function DocumentUpload() {
     }
 
     try {
-      // Upload file to backend
-      const uploadedDocument = await documentApi.upload(selectedFile);
-      
-      // Add the new document to the list
-      setDocuments([...documents, uploadedDocument]);
-      setSuccess(`Document "${uploadedDocument.name}" uploaded successfully!`);
-      
+      // Upload file to backend; extraction and classification continue in the background
+      const job = await documentApi.upload(selectedFile);
+      setSuccess(`Document "${job.fileName}" uploaded, processing...`);
+
       // Reset file selection and form
       setSelectedFile(null);
       e.target.reset();
+      setUploadLoading(false);
+
+      const finishedJob = await documentApi.watchJob(job.jobId, (update) => {
+        if (!['READY', 'FAILED'].includes(update.status)) {
+          setSuccess(`Document "${update.fileName}": ${update.status.toLowerCase()}...`);
+        }
+      });
+
+      if (finishedJob?.status === 'READY') {
+        // Add the new document to the list
+        setDocuments((previous) => [...previous, finishedJob.document]);
+        setSuccess(`Document "${finishedJob.document.name}" uploaded successfully!`);
+      } else {
+        setSuccess('');
+        setError('Failed to process document: ' + (finishedJob?.error || 'Unknown error'));
+      }
     } catch (err) {
       setError('Failed to upload document: ' + (err.response?.data?.message || err.message || 'Unknown error'));
     } finally {
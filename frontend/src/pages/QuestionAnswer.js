@@ -70,7 +70,11 @@ function QuestionAnswer() {
     setLoading(true);
 
     try {
-      const response = await questionApi.ask(selectedDocumentId, question.trim());
+      // Show the answer as it streams in; the spinner is only shown until the first token
+      const response = await questionApi.askStream(selectedDocumentId, question.trim(), (token) => {
+        setLoading(false);
+        setAnswer((previous) => previous + token);
+      });
       setAnswer(response.answer || 'No answer received');
       setSuccess('Answer received successfully!');
     } catch (err) {
@@ -1,10 +1,55 @@
-import apiClient from './apiClient';
+import apiClient, { getUserHeaders } from './apiClient';
+
+/**
+ * Reads a Server-Sent Events response body, calling onEvent for each event with a JSON payload
+ * Used for endpoints that stream (EventSource cannot send the user headers or POST bodies)
+ * @param {Response} response - The fetch response
+ * @param {function} onEvent - Called with (eventName, payload) for each event
+ * @returns {Promise} Resolves when the stream ends
+ */
+const readEventStream = async (response, onEvent) => {
+  if (!response.ok) {
+    const error = await response.json().catch(() => ({}));
+    throw new Error(error.message || `Request failed with status ${response.status}`);
+  }
+
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = '';
+
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) {
+      break;
+    }
+    buffer += decoder.decode(value, { stream: true });
+
+    // Events are separated by a blank line; keep the trailing partial event in the buffer
+    const events = buffer.split(/\r?\n\r?\n/);
+    buffer = events.pop();
+    for (const event of events) {
+      let name = 'message';
+      let data = '';
+      for (const line of event.split(/\r?\n/)) {
+        if (line.startsWith('event:')) {
+          name = line.slice(6).trim();
+        } else if (line.startsWith('data:')) {
+          data += line.slice(5);
+        }
+      }
+      if (data) {
+        onEvent(name, JSON.parse(data));
+      }
+    }
+  }
+};
 
 export const documentApi = {
   /**
    * Upload a document file
+   * The document is processed in the background; use watchJob to follow it
    * @param {File} file - The file to upload
-   * @returns {Promise} Response with document data
+   * @returns {Promise} Response with the ingestion job (jobId, status)
    */
   upload: async (file) => {
     const formData = new FormData();
@@ -18,6 +63,28 @@ export const documentApi = {
     return response.data;
   },
 
+  /**
+   * Follow an ingestion job until it is READY or FAILED
+   * @param {string} jobId - The job ID returned by upload
+   * @param {function} onUpdate - Called with the job on each status change
+   * @returns {Promise} Resolves with the final job (with document when READY)
+   */
+  watchJob: async (jobId, onUpdate) => {
+    const response = await fetch(`${apiClient.defaults.baseURL}/documents/jobs/${jobId}/events`, {
+      headers: {
+        Accept: 'text/event-stream',
+        ...getUserHeaders(),
+      },
+    });
+
+    let job = null;
+    await readEventStream(response, (name, payload) => {
+      job = payload;
+      onUpdate(payload);
+    });
+    return job;
+  },
+
   /**
    * Get all documents
    * @returns {Promise} List of documents
@@ -64,6 +131,49 @@ export const questionApi = {
     });
     return response.data;
   },
+
+  /**
+   * Ask a question about a specific document, receiving the answer as it is generated
+   * Reads the Server-Sent Events stream of /documents/ask/stream
+   * @param {number|string} documentId - The ID of the document
+   * @param {string} question - The question to ask
+   * @param {function} onToken - Called with each answer piece as it arrives
+   * @returns {Promise} Response with the full answer; rejects if the stream ends with an error event
+   */
+  askStream: async (documentId, question, onToken) => {
+    const response = await fetch(`${apiClient.defaults.baseURL}/documents/ask/stream`, {
+      method: 'POST',
+      headers: {
+        'Content-Type': 'application/json',
+        Accept: 'text/event-stream',
+        ...getUserHeaders(),
+      },
+      body: JSON.stringify({ documentId: Number(documentId), question }),
+    });
+
+    let answer = '';
+    await readEventStream(response, (name, payload) => {
+      if (name === 'token') {
+        answer += payload.answer;
+        onToken(payload.answer);
+      } else if (name === 'done') {
+        answer = payload.answer;
+      } else if (name === 'error') {
+        throw new Error(payload.answer);
+      }
+    });
+    return { answer };
+  },
+
+  /**
+   * Ask a question across all documents
+   * @param {string} question - The question to ask
+   * @returns {Promise} Response with answer and source document IDs
+   */
+  askAll: async (question) => {
+    const response = await apiClient.post('/ask', { question });
+    return response.data;
+  },
 };
 
 export const userApi = {
@@ -19,18 +19,29 @@ export const setUserProvider = (user) => {
 
 };
 
+/**
+ * Gets the user role and name headers for the current user
+ * Used by the axios interceptor and by requests made with fetch (e.g. streaming)
+ * @returns {object} Header name to value map
+ */
+export const getUserHeaders = () => {
+  const headers = {};
+  if (currentUser) {
+    if (currentUser.role) {
+      headers['X-User-Role'] = currentUser.role;
+    }
+    if (currentUser.name) {
+      headers['X-User-Name'] = currentUser.name;
+    }
+  }
+  return headers;
+};
+
 // Request interceptor to add user role and name to headers
 apiClient.interceptors.request.use(
   (config) => {
     // Add user role and name to headers if current user is available
-    if (currentUser) {
-      if (currentUser.role) {
-        config.headers['X-User-Role'] = currentUser.role;
-      }
-      if (currentUser.name) {
-        config.headers['X-User-Name'] = currentUser.name;
-      }
-    }
+    Object.assign(config.headers, getUserHeaders());
     return config;
   },
   (error) => {